@@ -13,6 +13,7 @@ public interface Constants {
     String VIEW_PREFIX_KEY = "view.prefix";
     String VIEW_SUFFIX_KEY = "view.suffix";
     String ERRORS_VIEW_KEY = "errors.view";
+    String SERVER_TIMING_KEY = "server.timing";
     String CONTROLLER_KEY = "controller";
     String ERRORS_KEY = "errors";
     String MESSAGES_KEY = "messages";
@@ -6,15 +6,14 @@ package org.codehaus.waffle.action;
 import static java.text.MessageFormat.format;
 
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
@@ -41,7 +40,8 @@ public abstract class AbstractMethodDefinitionFinder implements MethodDefinition
     private static final String PRAGMA_SEPARATOR = "|";
     private static final String PRAGMA_REGEX = "\\" + PRAGMA_SEPARATOR;
 
-    private final Map<Class<?>, Method> defaultMethodCache = new HashMap<Class<?>, Method>();
+    private final ConcurrentMap<Class<?>, ActionMethodTable> methodTables = new ConcurrentHashMap<Class<?>, ActionMethodTable>();
+    private final ConcurrentMap<Class<?>, ActionMethodCandidate> defaultMethodCache = new ConcurrentHashMap<Class<?>, ActionMethodCandidate>();
     private final ServletContext servletContext;
     private final ArgumentResolver argumentResolver;
     private final StringTransmuter stringTransmuter;
@@ -81,53 +81,47 @@ public abstract class AbstractMethodDefinitionFinder implements MethodDefinition
     private MethodDefinition findDefaultActionMethod(Object controller, HttpServletRequest request) {
         Class<?> controllerType = controller.getClass();
 
-        if (defaultMethodCache.containsKey(controllerType)) { // cache hit
-            MethodDefinition methodDefinition = buildDefaultMethodDefinition(defaultMethodCache.get(controllerType),
-                    request);
+        ActionMethodCandidate candidate = defaultMethodCache.get(controllerType);
+        if (candidate != null) { // cache hit
+            MethodDefinition methodDefinition = buildDefaultMethodDefinition(candidate, request);
             actionMonitor.defaultActionMethodCached(controllerType, methodDefinition);
             return methodDefinition;
         }
 
-        for (Method method : controllerType.getMethods()) {
-            if (isDefaultActionMethod(method)) {
-                defaultMethodCache.put(controllerType, method); // add to cache
-                MethodDefinition methodDefinition = buildDefaultMethodDefinition(method, request);
-                actionMonitor.defaultActionMethodFound(methodDefinition);
-                return methodDefinition;
-            }
+        candidate = methodTableFor(controllerType).getDefaultCandidate();
+        if (candidate != null) {
+            defaultMethodCache.put(controllerType, candidate); // add to cache
+            MethodDefinition methodDefinition = buildDefaultMethodDefinition(candidate, request);
+            actionMonitor.defaultActionMethodFound(methodDefinition);
+            return methodDefinition;
         }
 
         throw new NoDefaultActionMethodException(controllerType.getName());
     }
 
-    private boolean isDefaultActionMethod(Method method) {
-        ActionMethod actionMethod = method.getAnnotation(ActionMethod.class);
-        return actionMethod != null && actionMethod.asDefault();
-    }
-
     private MethodDefinition findPragmaticActionMethod(Object controller, String methodName,
                                                        HttpServletRequest request, HttpServletResponse response, MessagesContext messageContext) {
         Iterator<String> iterator = Arrays.asList(methodName.split(PRAGMA_REGEX)).iterator();
         methodName = iterator.next();
 
-        List<Method> methods = findMethods(controller.getClass(), methodName);
+        List<ActionMethodCandidate> candidates = findCandidates(controller.getClass(), methodName);
 
         List<Object> arguments = resolveArguments(request, iterator);
-        MethodDefinition methodDefinition = findPragmaticMethodDefinition(request, response, methods, arguments, messageContext);
+        MethodDefinition methodDefinition = findPragmaticMethodDefinition(request, response, methodName, candidates,
+                arguments, messageContext);
         actionMonitor.pragmaticActionMethodFound(methodDefinition);
         return methodDefinition;
     }
 
     private MethodDefinition findActionMethod(Object controller, HttpServletRequest request,
                                               HttpServletResponse response, String methodName, MessagesContext messageContext) {
-        List<Method> methods = findMethods(controller.getClass(), methodName);
-
+        List<ActionMethodCandidate> candidates = findCandidates(controller.getClass(), methodName);
 
-        List<MethodDefinition> methodDefinitions = findMethodDefinitions(request, response, methods, messageContext);
+        List<MethodDefinition> methodDefinitions = findMethodDefinitions(request, response, candidates, messageContext);
 
         if (methodDefinitions.size() > 1) {
             String message = messageResources.getMessageWithDefault("ambiguousActionMethodSignature",
-                    "ActionMethod ''{0}'' has ambiguous signature among methods ''{1}''", methodName, methods);
+                    "ActionMethod ''{0}'' has ambiguous signature among methods ''{1}''", methodName, candidates);
             throw new AmbiguousActionMethodSignatureException(message);
         } else if (methodDefinitions.isEmpty()) {
             String message = messageResources.getMessageWithDefault("noMatchingMethodFound",
@@ -141,41 +135,42 @@ public abstract class AbstractMethodDefinitionFinder implements MethodDefinition
     }
 
     private List<MethodDefinition> findMethodDefinitions(HttpServletRequest request, HttpServletResponse response,
-                                                         List<Method> methods, MessagesContext messageContext) {
+                                                         List<ActionMethodCandidate> candidates, MessagesContext messageContext) {
         List<MethodDefinition> methodDefinitions = new ArrayList<MethodDefinition>();
 
-        for (Method method : methods) {
-            if (Modifier.isPublic(method.getModifiers())) {
-                List<Object> arguments;
-                if (method.getParameterTypes().length == 0) {
-                    // methods with no args, need not invoke Paranamer..
-                    arguments = NO_ARGS;
-                } else {
-                    arguments = getArguments(method, request);
-                }
-                try {
-                    methodDefinitions.add(buildMethodDefinition(request, response, method, arguments, messageContext));
-                } catch (NoValidActionMethodException e) {
-                    // continue
-                }
+        for (ActionMethodCandidate candidate : candidates) {
+            List<Object> arguments;
+            if (candidate.getParameterTypes().length == 0) {
+                // methods with no args, need not invoke Paranamer..
+                arguments = NO_ARGS;
+            } else {
+                arguments = getArguments(candidate, request);
+            }
+            try {
+                methodDefinitions.add(buildMethodDefinition(request, response, candidate, arguments, messageContext));
+            } catch (NoValidActionMethodException e) {
+                // continue
             }
         }
 
         return methodDefinitions;
     }
 
-    private MethodDefinition buildDefaultMethodDefinition(Method method, HttpServletRequest request) {
-        MethodDefinition methodDefinition = new MethodDefinition(method);
-        if (!isDefaultActionMethod(method)) {
-            String message = messageResources.getMessageWithDefault("noDefaultActionMethod", 
-                    "Method ''{0}'' is not annotated with @ActionMethod(asDefault=true)", method);
-            throw new NoDefaultActionMethodException(message);
+    private List<Object> getArguments(ActionMethodCandidate candidate, HttpServletRequest request) {
+        List<String> argumentNames = candidate.getArgumentNames();
+        if (argumentNames == null) {
+            argumentNames = getArgumentNames(candidate);
+            candidate.setArgumentNames(argumentNames);
         }
-        ActionMethod defaultActionMethod = method.getAnnotation(ActionMethod.class);
-        List<String> arguments = new ArrayList<String>(defaultActionMethod.parameters().length);
+        return resolveArguments(request, argumentNames.iterator());
+    }
 
-        for (String value : defaultActionMethod.parameters()) {
-            arguments.add(formatArgument(value));
+    private MethodDefinition buildDefaultMethodDefinition(ActionMethodCandidate candidate, HttpServletRequest request) {
+        MethodDefinition methodDefinition = new MethodDefinition(candidate.getMethod(), candidate);
+        List<String> arguments = candidate.getAnnotatedArgumentNames();
+        if (arguments == null) {
+            arguments = formatArguments(candidate.getActionMethod());
+            candidate.setAnnotatedArgumentNames(arguments);
         }
 
         // resolve argument and add to the methodDefinition
@@ -187,38 +182,37 @@ public abstract class AbstractMethodDefinitionFinder implements MethodDefinition
     }
 
     private MethodDefinition findPragmaticMethodDefinition(HttpServletRequest request, HttpServletResponse response,
-                                                           List<Method> methods, List<Object> arguments, MessagesContext messageContext) {
+                                                           String methodName, List<ActionMethodCandidate> candidates,
+                                                           List<Object> arguments, MessagesContext messageContext) {
         List<MethodDefinition> methodDefinitions = new ArrayList<MethodDefinition>();
 
-        for (Method method : methods) {
-            if (Modifier.isPublic(method.getModifiers())) {
-                try {
-                    methodDefinitions.add(buildMethodDefinition(request, response, method, arguments, messageContext));
-                } catch (NoValidActionMethodException e) {
-                    // continue
-                }
+        for (ActionMethodCandidate candidate : candidates) {
+            try {
+                methodDefinitions.add(buildMethodDefinition(request, response, candidate, arguments, messageContext));
+            } catch (NoValidActionMethodException e) {
+                // continue
             }
         }
 
         if (methodDefinitions.size() > 1) {
-            String methodName = methodDefinitions.get(0).getMethod().getName();
             String message = messageResources.getMessageWithDefault("ambiguousActionMethodSignature",
-                    "ActionMethod ''{0}'' has ambiguous signature among methods ''{1}''", methodName, methods);
+                    "ActionMethod ''{0}'' has ambiguous signature among methods ''{1}''", methodName, candidates);
             throw new AmbiguousActionMethodSignatureException(message);
         } else if (methodDefinitions.isEmpty()) {
             String message = messageResources.getMessageWithDefault("noMatchingMethodFound",
-                    "No matching methods for name ''{0}''", methods.get(0).getName());
+                    "No matching methods for name ''{0}''", methodName);
             throw new NoMatchingActionMethodException(message, null);
         }
 
-        return methodDefinitions.get(0); // TODO ... should we cache the method?
+        return methodDefinitions.get(0);
     }
 
     private MethodDefinition buildMethodDefinition(HttpServletRequest request, HttpServletResponse response,
-                                                   Method method, List<Object> arguments,
+                                                   ActionMethodCandidate candidate, List<Object> arguments,
                                                    MessagesContext messageContext) {
-        Class<?>[] actualParameterTypes = method.getParameterTypes();
-        MethodDefinition methodDefinition = new MethodDefinition(method);
+        Method method = candidate.getMethod();
+        Class<?>[] actualParameterTypes = candidate.getParameterTypes();
+        MethodDefinition methodDefinition = new MethodDefinition(candidate.getMethod(), candidate);
 
         if (actualParameterTypes.length >= arguments.size()) { // still in the running
             Iterator<Object> iterator = arguments.iterator();
@@ -242,7 +236,7 @@ public abstract class AbstractMethodDefinitionFinder implements MethodDefinition
                 }
             }
 
-            if (hasEquivalentParameterTypes(methodDefinition, stringTransmuter)) {
+            if (hasEquivalentParameterTypes(candidate, methodDefinition, stringTransmuter)) {
                 return methodDefinition;
             }
         }
@@ -251,8 +245,9 @@ public abstract class AbstractMethodDefinitionFinder implements MethodDefinition
     }
 
     // TODO mward ------ Why is StringTransmuter being passed?
-    protected boolean hasEquivalentParameterTypes(MethodDefinition methodDefinition, StringTransmuter stringTransmuter) {
-        Type[] methodParameterTypes = methodDefinition.getMethod().getGenericParameterTypes();
+    protected boolean hasEquivalentParameterTypes(ActionMethodCandidate candidate, MethodDefinition methodDefinition,
+            StringTransmuter stringTransmuter) {
+        Type[] methodParameterTypes = candidate.getGenericParameterTypes();
         List<Object> methodArguments = methodDefinition.getMethodArguments();
 
         if (methodParameterTypes.length != methodArguments.size()) {
@@ -295,8 +290,35 @@ public abstract class AbstractMethodDefinitionFinder implements MethodDefinition
         return false;
     }
 
+    private List<ActionMethodCandidate> findCandidates(Class<?> type, String methodName) {
+        ActionMethodTable methodTable = methodTableFor(type);
+        List<ActionMethodCandidate> candidates = methodTable.getCandidates(methodName);
+        if (candidates == null) {
+            candidates = methodTable.addCandidates(methodName, findMethods(type, methodName));
+        }
+        return candidates;
+    }
+
     // Protected methods, accessible by subclasses
 
+    /**
+     * Returns the dispatch table of a controller type, building it on first use
+     * 
+     * @param type the controller type
+     * @return The ActionMethodTable
+     */
+    protected ActionMethodTable methodTableFor(Class<?> type) {
+        ActionMethodTable methodTable = methodTables.get(type);
+        if (methodTable == null) {
+            methodTable = new ActionMethodTable(type);
+            ActionMethodTable existing = methodTables.putIfAbsent(type, methodTable);
+            if (existing != null) {
+                methodTable = existing;
+            }
+        }
+        return methodTable;
+    }
+
     /**
      * Wraps value in curly brackets to fit with default handling
      * 
@@ -307,6 +329,23 @@ public abstract class AbstractMethodDefinitionFinder implements MethodDefinition
         return format(ARGUMENT_FORMAT, value);
     }
 
+    /**
+     * Formats the parameter names of the {@link ActionMethod} annotation
+     * 
+     * @param actionMethod the ActionMethod annotation, may be <code>null</code>
+     * @return The List of formatted argument names
+     */
+    protected List<String> formatArguments(ActionMethod actionMethod) {
+        if (actionMethod == null) {
+            return new ArrayList<String>(0);
+        }
+        List<String> arguments = new ArrayList<String>(actionMethod.parameters().length);
+        for (String value : actionMethod.parameters()) {
+            arguments.add(formatArgument(value));
+        }
+        return arguments;
+    }
+
     /**
      * Resolves arguments by name
      * 
@@ -329,13 +368,13 @@ public abstract class AbstractMethodDefinitionFinder implements MethodDefinition
     // Abstract methods - implementable by subclasses
 
     /**
-     * Returns the resolved list of method arguments.
+     * Returns the formatted names of the arguments to be resolved for the action method. The names are determined once
+     * per candidate and cached in the candidate.
      * 
-     * @param method the action method to be invoked
-     * @param request the HttpServetRequest
-     * @return the resolved list of arguments needed to satisfy the action method invocation
+     * @param candidate the candidate action method
+     * @return the list of argument names needed to satisfy the action method invocation
      */
-    protected abstract List<Object> getArguments(Method method, HttpServletRequest request);
+    protected abstract List<String> getArgumentNames(ActionMethodCandidate candidate);
 
     /**
      * Returns the methods matching the type and name
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.action;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import org.codehaus.waffle.action.annotation.ActionMethod;
+import org.codehaus.waffle.action.annotation.PRG;
+
+/**
+ * Holds the reflective metadata of a candidate action method: parameter types and the {@link ActionMethod} and
+ * {@link PRG} annotation data. The metadata is read once, when the controller's {@link ActionMethodTable} is built,
+ * rather than on every request.
+ *
+ * @see ActionMethodTable
+ */
+public class ActionMethodCandidate {
+    private final Method method;
+    private final Class<?>[] parameterTypes;
+    private final Type[] genericParameterTypes;
+    private final ActionMethod actionMethod;
+    private final boolean usePRG;
+    private volatile List<String> argumentNames;
+    private volatile List<String> annotatedArgumentNames;
+
+    public ActionMethodCandidate(Method method) {
+        this.method = method;
+        this.parameterTypes = method.getParameterTypes();
+        this.genericParameterTypes = method.getGenericParameterTypes();
+        this.actionMethod = method.getAnnotation(ActionMethod.class);
+        PRG prg = method.getAnnotation(PRG.class);
+        this.usePRG = prg != null ? prg.value() : true;
+    }
+
+    /**
+     * The method that is to be invoked on the controller
+     */
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * The parameter types of the method. The array is shared and must not be modified.
+     */
+    public Class<?>[] getParameterTypes() {
+        return parameterTypes;
+    }
+
+    /**
+     * The generic parameter types of the method. The array is shared and must not be modified.
+     */
+    public Type[] getGenericParameterTypes() {
+        return genericParameterTypes;
+    }
+
+    /**
+     * The {@link ActionMethod} annotation of the method, or <code>null</code> if not annotated
+     */
+    public ActionMethod getActionMethod() {
+        return actionMethod;
+    }
+
+    /**
+     * Determines if the method is annotated with <code>@ActionMethod(asDefault=true)</code>
+     */
+    public boolean isDefault() {
+        return actionMethod != null && actionMethod.asDefault();
+    }
+
+    /**
+     * Determines if PRG paradigm is used from the {@link PRG} annotation of the method
+     *
+     * @return A boolean flag, defaults to <code>true</code> if no annotation found
+     */
+    public boolean usePRG() {
+        return usePRG;
+    }
+
+    /**
+     * The argument names resolved by the finder, or <code>null</code> if not yet resolved
+     */
+    List<String> getArgumentNames() {
+        return argumentNames;
+    }
+
+    void setArgumentNames(List<String> argumentNames) {
+        this.argumentNames = argumentNames;
+    }
+
+    /**
+     * The formatted argument names of the {@link ActionMethod} parameters, or <code>null</code> if not yet formatted
+     */
+    List<String> getAnnotatedArgumentNames() {
+        return annotatedArgumentNames;
+    }
+
+    void setAnnotatedArgumentNames(List<String> annotatedArgumentNames) {
+        this.annotatedArgumentNames = annotatedArgumentNames;
+    }
+
+    @Override
+    public String toString() {
+        return method.toString();
+    }
+}
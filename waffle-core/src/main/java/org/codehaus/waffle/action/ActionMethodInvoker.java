@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.action;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Invokes a single action method on a controller. Invokers are created once per action method by an
+ * {@link ActionMethodInvokerFactory}.
+ */
+public interface ActionMethodInvoker {
+
+    /**
+     * Invokes the action method
+     * 
+     * @param controller the controller instance which owns the action method
+     * @param arguments the argument values to satisfy the action method invocation
+     * @return The value returned by the action method, or <code>null</code> if the method is void
+     * @throws IllegalAccessException if the action method is not accessible
+     * @throws InvocationTargetException wrapping any exception thrown by the action method
+     */
+    Object invoke(Object controller, Object[] arguments) throws IllegalAccessException, InvocationTargetException;
+
+}
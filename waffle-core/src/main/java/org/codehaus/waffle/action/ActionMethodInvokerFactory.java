@@ -0,0 +1,22 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.action;
+
+import java.lang.reflect.Method;
+
+/**
+ * Strategy for creating the {@link ActionMethodInvoker} of an action method.
+ */
+public interface ActionMethodInvokerFactory {
+
+    /**
+     * Returns the invoker for the action method. Implementations are expected to cache the invokers, as this is called
+     * on every action method execution.
+     * 
+     * @param method the action method
+     * @return The ActionMethodInvoker
+     */
+    ActionMethodInvoker invokerFor(Method method);
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.action;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.codehaus.waffle.action.annotation.ActionMethod;
+
+/**
+ * Dispatch table of a controller type, mapping method names to the public candidate action methods. The table is
+ * built once per controller type and is safe for concurrent use, so that the method lookup and the reading of the
+ * method metadata is not repeated on every request.
+ *
+ * @see ActionMethodCandidate
+ */
+public class ActionMethodTable {
+    private final Class<?> type;
+    private final ActionMethodCandidate defaultCandidate;
+    private final ConcurrentMap<String, List<ActionMethodCandidate>> candidates = new ConcurrentHashMap<String, List<ActionMethodCandidate>>();
+
+    public ActionMethodTable(Class<?> type) {
+        this.type = type;
+        this.defaultCandidate = findDefaultCandidate(type);
+    }
+
+    private ActionMethodCandidate findDefaultCandidate(Class<?> type) {
+        for (Method method : type.getMethods()) {
+            ActionMethod actionMethod = method.getAnnotation(ActionMethod.class);
+            if (actionMethod != null && actionMethod.asDefault()) {
+                return new ActionMethodCandidate(method);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The controller type of the table
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * Returns the candidate annotated with <code>@ActionMethod(asDefault=true)</code>
+     *
+     * @return The default candidate or <code>null</code> if none found
+     */
+    public ActionMethodCandidate getDefaultCandidate() {
+        return defaultCandidate;
+    }
+
+    /**
+     * Returns the candidates for a method name
+     *
+     * @param methodName the method name
+     * @return The List of candidates or <code>null</code> if the method name has not been added
+     */
+    public List<ActionMethodCandidate> getCandidates(String methodName) {
+        return candidates.get(methodName);
+    }
+
+    /**
+     * Adds the public methods among the given methods as candidates for a method name. If the candidates have already
+     * been added concurrently, the existing ones are returned.
+     *
+     * @param methodName the method name
+     * @param methods the methods matching the name
+     * @return The List of candidates
+     */
+    public List<ActionMethodCandidate> addCandidates(String methodName, List<Method> methods) {
+        List<ActionMethodCandidate> added = new ArrayList<ActionMethodCandidate>(methods.size());
+        for (Method method : methods) {
+            if (Modifier.isPublic(method.getModifiers())) {
+                added.add(new ActionMethodCandidate(method));
+            }
+        }
+        added = Collections.unmodifiableList(added);
+        List<ActionMethodCandidate> existing = candidates.putIfAbsent(methodName, added);
+        return existing != null ? existing : added;
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.action;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.codehaus.waffle.io.CompressingHttpServletResponse;
+import org.codehaus.waffle.io.DeflaterPool;
+import org.codehaus.waffle.monitor.ActionMonitor;
+import org.codehaus.waffle.view.ViewDispatcher;
+
+/**
+ * ActionMethodResponseHandler which compresses the responses, including the views dispatched, in the gzip or deflate
+ * content encoding accepted by the client, as given by the <code>Accept-Encoding</code> header. The compression is
+ * configured via the {@link ResponseCompressionConfig}, and the deflaters and buffers are pooled. Responses to requests
+ * of byte ranges, ie with a <code>Range</code> or <code>If-Range</code> header, are not compressed, so that the ranges
+ * are of the content sent in full.
+ */
+public class CompressingActionMethodResponseHandler extends DefaultActionMethodResponseHandler {
+    static final String ACCEPT_ENCODING_HEADER = "Accept-Encoding";
+    static final String RANGE_HEADER = "Range";
+    static final String IF_RANGE_HEADER = "If-Range";
+    private static final int BUFFER_SIZE = 8192;
+    private static final int POOL_CAPACITY = 64;
+
+    private final ResponseCompressionConfig config;
+    private final DeflaterPool deflaterPool;
+
+    public CompressingActionMethodResponseHandler(ViewDispatcher viewDispatcher, ActionMonitor actionMonitor) {
+        this(viewDispatcher, actionMonitor, new DefaultResponseCompressionConfig());
+    }
+
+    public CompressingActionMethodResponseHandler(ViewDispatcher viewDispatcher, ActionMonitor actionMonitor,
+            ResponseCompressionConfig config) {
+        super(viewDispatcher, actionMonitor);
+        this.config = config;
+        this.deflaterPool = new DeflaterPool(config.getCompressionLevel(), Math.max(BUFFER_SIZE, config
+                .getMinimumSize()), POOL_CAPACITY);
+    }
+
+    @Override
+    public void handle(HttpServletRequest request, HttpServletResponse response,
+            ActionMethodResponse actionMethodResponse) throws IOException, ServletException {
+        String encoding = encodingOf(request.getHeader(ACCEPT_ENCODING_HEADER));
+        if (encoding == null || response.isCommitted() || isRangeRequested(request)) {
+            super.handle(request, response, actionMethodResponse);
+            return;
+        }
+        CompressingHttpServletResponse compressingResponse = new CompressingHttpServletResponse(response, encoding,
+                config.getMinimumSize(), config.getUncompressedContentTypes(), deflaterPool);
+        try {
+            super.handle(request, compressingResponse, actionMethodResponse);
+            compressingResponse.finish();
+        } finally {
+            compressingResponse.release();
+        }
+    }
+
+    private boolean isRangeRequested(HttpServletRequest request) {
+        return request.getHeader(RANGE_HEADER) != null || request.getHeader(IF_RANGE_HEADER) != null;
+    }
+
+    /**
+     * Returns the accepted content encoding, gzip or deflate, with the highest quality, preferring gzip, or
+     * <code>null</code> if neither is accepted
+     */
+    static String encodingOf(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+        float gzip = 0;
+        float deflate = 0;
+        float any = 0;
+        boolean gzipFound = false;
+        boolean deflateFound = false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            String name = parameters[0].trim().toLowerCase();
+            float quality = qualityOf(parameters);
+            if (name.equals(CompressingHttpServletResponse.GZIP) || name.equals("x-gzip")) {
+                gzip = Math.max(gzip, quality);
+                gzipFound = true;
+            } else if (name.equals(CompressingHttpServletResponse.DEFLATE)) {
+                deflate = Math.max(deflate, quality);
+                deflateFound = true;
+            } else if (name.equals("*")) {
+                any = quality;
+            }
+        }
+        // codings not listed are accepted with the quality of '*'
+        if (!gzipFound) {
+            gzip = any;
+        }
+        if (!deflateFound) {
+            deflate = any;
+        }
+        if (gzip > 0 && gzip >= deflate) {
+            return CompressingHttpServletResponse.GZIP;
+        }
+        return deflate > 0 ? CompressingHttpServletResponse.DEFLATE : null;
+    }
+
+    private static float qualityOf(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Float.parseFloat(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+}
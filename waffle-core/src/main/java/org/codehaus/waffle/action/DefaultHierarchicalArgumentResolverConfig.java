@@ -0,0 +1,23 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.action;
+
+public class DefaultHierarchicalArgumentResolverConfig implements HierarchicalArgumentResolverConfig {
+    static final boolean DEFAULT_CREATE_SESSION = true;
+
+    private boolean createSession;
+
+    public DefaultHierarchicalArgumentResolverConfig() {
+        this(DEFAULT_CREATE_SESSION);
+    }
+
+    public DefaultHierarchicalArgumentResolverConfig(boolean createSession) {
+        this.createSession = createSession;
+    }
+
+    public boolean createSession() {
+        return createSession;
+    }
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.action;
+
+import java.util.zip.Deflater;
+
+public class DefaultResponseCompressionConfig implements ResponseCompressionConfig {
+    static final int DEFAULT_MINIMUM_SIZE = 1024;
+    static final int DEFAULT_COMPRESSION_LEVEL = Deflater.DEFAULT_COMPRESSION;
+    static final String[] DEFAULT_UNCOMPRESSED_CONTENT_TYPES = { "image/gif", "image/jpeg", "image/png", "audio/",
+            "video/", "application/zip", "application/gzip", "application/x-gzip", "application/x-compress",
+            "application/x-bzip2", "application/x-7z-compressed", "application/x-rar-compressed", "application/pdf",
+            "application/octet-stream" };
+
+    private final int minimumSize;
+    private final int compressionLevel;
+    private final String[] uncompressedContentTypes;
+
+    public DefaultResponseCompressionConfig() {
+        this(DEFAULT_MINIMUM_SIZE, DEFAULT_COMPRESSION_LEVEL, DEFAULT_UNCOMPRESSED_CONTENT_TYPES);
+    }
+
+    public DefaultResponseCompressionConfig(int minimumSize, int compressionLevel, String[] uncompressedContentTypes) {
+        this.minimumSize = minimumSize;
+        this.compressionLevel = compressionLevel;
+        this.uncompressedContentTypes = uncompressedContentTypes;
+    }
+
+    public int getMinimumSize() {
+        return minimumSize;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public String[] getUncompressedContentTypes() {
+        return uncompressedContentTypes;
+    }
+
+}
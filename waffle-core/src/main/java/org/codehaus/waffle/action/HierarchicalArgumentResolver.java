@@ -3,6 +3,8 @@
  */
 package org.codehaus.waffle.action;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -13,18 +15,22 @@ import javax.servlet.http.HttpSession;
 import org.codehaus.waffle.monitor.ActionMonitor;
 
 /**
- * Hierarchical implementation attempts to resolve the arguments value through the 
+ * Hierarchical implementation attempts to resolve the arguments value through the
  * following ordered scoped (returning the first not null value found):
- * 
+ *
  * <ol>
  *  <li>1. PARAMETER</li>
  *  <li>2. REQUEST attribute</li>
  *  <li>3. SESSION attribute</li>
  *  <li>4. APPLICATION attribute</li>
  * </ol>
- * 
- * If none are found, returns <code>null</code>
- * 
+ *
+ * If none are found, returns <code>null</code>.
+ *
+ * The argument name may be prefixed by a scope, eg <code>{request:foo}</code> or <code>{application:bar}</code>, in
+ * which case the value is only looked up in that scope. Depending on the {@link HierarchicalArgumentResolverConfig},
+ * session attributes are only looked up in an existing session, without creating one.
+ *
  * @author Michael Ward
  * @author Mauro Talevi
  */
@@ -34,33 +40,47 @@ public class HierarchicalArgumentResolver implements ArgumentResolver {
         PARAMETER, REQUEST, SESSION, APPLICATION
     }
 
-    private final Pattern pattern = Pattern.compile("\\{(\\w+)\\}");
+    private static final int MAX_CACHED_ARGUMENTS = 1024;
+
+    private final Pattern pattern = Pattern.compile("\\{(?:(\\w+):)?(\\w+)\\}");
+    private final ConcurrentMap<String, Argument> arguments = new ConcurrentHashMap<String, Argument>();
     private final ServletContext servletContext;
     private final ActionMonitor actionMonitor;
+    private final boolean createSession;
 
     public HierarchicalArgumentResolver(ServletContext servletContext, ActionMonitor actionMonitor) {
+        this(servletContext, new DefaultHierarchicalArgumentResolverConfig(), actionMonitor);
+    }
+
+    public HierarchicalArgumentResolver(ServletContext servletContext, HierarchicalArgumentResolverConfig configuration,
+            ActionMonitor actionMonitor) {
         this.servletContext = servletContext;
+        this.createSession = configuration.createSession();
         this.actionMonitor = actionMonitor;
     }
 
     public Object resolve(HttpServletRequest request, String name) {
-        Matcher matcher = pattern.matcher(name);
+        Argument argument = argumentFor(name);
 
-        if (matcher.matches()) {
-            name = matcher.group(1);
-            Object value = request.getParameter(name);
-            Scope scope = Scope.PARAMETER;
+        if (argument == null) {
+            actionMonitor.argumentNameNotMatched(name, pattern.pattern());
+            return name; // return name as the value
+        }
+
+        name = argument.name;
+        Object value = null;
+        Scope scope = argument.scope;
+
+        if (scope == null) {
+            value = request.getParameter(name);
+            scope = Scope.PARAMETER;
 
             if (value == null) {
                 value = request.getAttribute(name);
                 scope = Scope.REQUEST;
                 if (value == null) {
-                    HttpSession session = request.getSession();
-
-                    if (session != null) {
-                        value = session.getAttribute(name);
-                        scope = Scope.SESSION;
-                    }
+                    value = sessionAttribute(request, name);
+                    scope = Scope.SESSION;
 
                     if (value == null) {
                         value = servletContext.getAttribute(name);
@@ -68,12 +88,81 @@ public class HierarchicalArgumentResolver implements ArgumentResolver {
                     }
                 }
             }
-            actionMonitor.argumentNameResolved(name, value, scope);
-            return value; // return value, could be null
+        } else {
+            switch (scope) {
+                case PARAMETER:
+                    value = request.getParameter(name);
+                    break;
+                case REQUEST:
+                    value = request.getAttribute(name);
+                    break;
+                case SESSION:
+                    value = sessionAttribute(request, name);
+                    break;
+                case APPLICATION:
+                    value = servletContext.getAttribute(name);
+                    break;
+            }
         }
+        actionMonitor.argumentNameResolved(name, value, scope);
+        return value; // return value, could be null
+    }
+
+    private Object sessionAttribute(HttpServletRequest request, String name) {
+        HttpSession session = createSession ? request.getSession() : request.getSession(false);
+        if (session != null) {
+            return session.getAttribute(name);
+        }
+        return null;
+    }
 
-        actionMonitor.argumentNameNotMatched(name, pattern.pattern());
-        return name; // return name as the value
+    /**
+     * Returns the parsed argument for the name, caching it as argument names are usually the same for every request.
+     * The cache is bounded, as names of pragmatic action methods come from the request.
+     *
+     * @param name the argument name
+     * @return The Argument or <code>null</code> if the name is not matched
+     */
+    private Argument argumentFor(String name) {
+        Argument argument = arguments.get(name);
+        if (argument == null) {
+            argument = parse(name);
+            if (arguments.size() < MAX_CACHED_ARGUMENTS) {
+                arguments.putIfAbsent(name, argument);
+            }
+        }
+        return argument.matched ? argument : null;
+    }
+
+    private Argument parse(String name) {
+        Matcher matcher = pattern.matcher(name);
+        if (matcher.matches()) {
+            String prefix = matcher.group(1);
+            if (prefix == null) {
+                return new Argument(matcher.group(2), null, true);
+            }
+            for (Scope scope : Scope.values()) {
+                if (scope.name().equalsIgnoreCase(prefix)) {
+                    return new Argument(matcher.group(2), scope, true);
+                }
+            }
+        }
+        return new Argument(name, null, false);
+    }
+
+    /**
+     * The parsed argument name, with the optional scope to look the value up in
+     */
+    private static class Argument {
+        private final String name;
+        private final Scope scope;
+        private final boolean matched;
+
+        Argument(String name, Scope scope, boolean matched) {
+            this.name = name;
+            this.scope = scope;
+            this.matched = matched;
+        }
     }
 
 }
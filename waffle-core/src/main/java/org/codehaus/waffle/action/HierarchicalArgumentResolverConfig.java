@@ -0,0 +1,19 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.action;
+
+/**
+ * Holds the configuration of the {@link HierarchicalArgumentResolver}
+ */
+public interface HierarchicalArgumentResolverConfig {
+
+    /**
+     * Determines if the resolution may create an HttpSession when looking up session attributes. If not, session
+     * attributes are only looked up in an existing session, so that stateless requests do not create sessions.
+     * 
+     * @return A boolean flag
+     */
+    boolean createSession();
+
+}
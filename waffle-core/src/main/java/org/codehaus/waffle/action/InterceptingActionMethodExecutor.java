@@ -5,11 +5,12 @@ package org.codehaus.waffle.action;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.codehaus.waffle.action.intercept.DefaultInterceptorChain;
 import org.codehaus.waffle.action.intercept.InterceptorChain;
@@ -19,18 +20,31 @@ import org.codehaus.waffle.controller.ControllerDefinition;
 import org.codehaus.waffle.monitor.ActionMonitor;
 
 /**
- * Implementation of action method executor, which uses an interceptor chain.
+ * Implementation of action method executor, which uses an interceptor chain. The sorted interceptors accepting an action
+ * method are determined once per method and cached per classes of the registered method interceptors. The cached
+ * chains hold the positions of the interceptors, so that the instances registered per request are bound to the chain
+ * of each request, while the chains bound to the same registered instances are reused.
  *
  * @author Michael Ward
  * @author Mauro Talevi
  */
 public class InterceptingActionMethodExecutor implements ActionMethodExecutor {
+    private static final String ACTION_METHOD_TIMED = "actionMethodTimed";
+    private static final int MAX_CACHED_CHAINS = 16;
    
     private final Comparator<MethodInterceptor> comparator = new MethodInterceptorComparator();
     private final ActionMonitor actionMonitor;
+    private final MethodInterceptor methodInvokingInterceptor;
+    private final ConcurrentMap<List<Class<?>>, InterceptorChains> interceptorChains = new ConcurrentHashMap<List<Class<?>>, InterceptorChains>();
+    private volatile InterceptorChains lastInterceptorChains;
 
     public InterceptingActionMethodExecutor(ActionMonitor actionMonitor) {
+        this(actionMonitor, new ReflectiveActionMethodInvokerFactory());
+    }
+
+    public InterceptingActionMethodExecutor(ActionMonitor actionMonitor, ActionMethodInvokerFactory invokerFactory) {
         this.actionMonitor = actionMonitor;
+        this.methodInvokingInterceptor = new MethodInvokingMethodInterceptor(invokerFactory);
     }
 
     /**
@@ -39,8 +53,12 @@ public class InterceptingActionMethodExecutor implements ActionMethodExecutor {
     public void execute(ActionMethodResponse actionMethodResponse,
                         ControllerDefinition controllerDefinition,
                         Collection<MethodInterceptor> methodInterceptors) throws ActionMethodInvocationException {
+        boolean timed = actionMonitor.isEnabled(ACTION_METHOD_TIMED);
+        long start = timed ? System.nanoTime() : 0;
+        boolean failed = true;
         try {
             Object returnValue = handleInvocation(controllerDefinition, methodInterceptors);
+            failed = false;
             actionMethodResponse.setReturnValue(returnValue);
             actionMonitor.actionMethodExecuted(actionMethodResponse);
         } catch (IllegalAccessException e) {
@@ -57,28 +75,171 @@ public class InterceptingActionMethodExecutor implements ActionMethodExecutor {
             } else {
                 throw new ActionMethodInvocationException(cause.getMessage(), cause);
             }
+        } finally {
+            if (timed) {
+                actionMonitor.actionMethodTimed(controllerDefinition.getName(), controllerDefinition
+                        .getMethodDefinition().getMethod(), System.nanoTime() - start, failed);
+            }
         }
     }
 
     private Object handleInvocation(ControllerDefinition controllerDefinition, Collection<MethodInterceptor> methodInterceptors) throws IllegalAccessException, InvocationTargetException {
-
-        List<MethodInterceptor> interceptors = new ArrayList<MethodInterceptor>();
-        interceptors.addAll(methodInterceptors);
-        Collections.sort(interceptors, comparator);
-
-        interceptors.add(new MethodInvokingMethodInterceptor());
-
-        InterceptorChain chain = new DefaultInterceptorChain(interceptors, actionMonitor);
         MethodDefinition methodDefinition = controllerDefinition.getMethodDefinition();
         Method method = methodDefinition.getMethod();
+
+        InterceptorChain chain = new DefaultInterceptorChain(interceptorChainsFor(methodInterceptors).interceptorsFor(
+                method, methodInterceptors), actionMonitor);
         List<Object> methodArguments = methodDefinition.getMethodArguments();
         return chain.proceed(controllerDefinition, method, methodArguments.toArray());
     }
 
+    private InterceptorChains interceptorChainsFor(Collection<MethodInterceptor> methodInterceptors) {
+        InterceptorChains chains = lastInterceptorChains;
+        if (chains != null && chains.isFor(methodInterceptors)) {
+            return chains;
+        }
+        MethodInterceptor[] interceptors = methodInterceptors.toArray(new MethodInterceptor[methodInterceptors.size()]);
+        List<Class<?>> classes = classesOf(interceptors);
+        chains = interceptorChains.get(classes);
+        if (chains == null) {
+            chains = new InterceptorChains(classes, interceptors);
+            if (interceptorChains.size() < MAX_CACHED_CHAINS) {
+                InterceptorChains existing = interceptorChains.putIfAbsent(classes, chains);
+                if (existing != null) {
+                    chains = existing;
+                }
+            }
+        }
+        lastInterceptorChains = chains;
+        return chains;
+    }
+
+    private List<Class<?>> classesOf(MethodInterceptor[] methodInterceptors) {
+        Class<?>[] classes = new Class<?>[methodInterceptors.length];
+        for (int i = 0; i < methodInterceptors.length; i++) {
+            classes[i] = methodInterceptors[i].getClass();
+        }
+        return Arrays.asList(classes);
+    }
+
+    /**
+     * Holds the positions of the sorted interceptors which accept each action method, for the registered interceptors
+     * of given classes. As stated by the {@link MethodInterceptor} contract, interceptors of a class are sorted, and
+     * accept or refuse a method, consistently. The chains bound to the last registered instances are reused for as
+     * long as the same instances are registered.
+     */
+    private class InterceptorChains {
+        private final List<Class<?>> registered;
+        private final Integer[] sorted;
+        private final ConcurrentMap<Method, int[]> positions = new ConcurrentHashMap<Method, int[]>();
+        private volatile BoundChains boundChains;
+
+        InterceptorChains(List<Class<?>> registered, final MethodInterceptor[] methodInterceptors) {
+            this.registered = registered;
+            this.sorted = new Integer[methodInterceptors.length];
+            for (int i = 0; i < methodInterceptors.length; i++) {
+                sorted[i] = i;
+            }
+            Arrays.sort(sorted, new Comparator<Integer>() {
+                public int compare(Integer first, Integer second) {
+                    return comparator.compare(methodInterceptors[first], methodInterceptors[second]);
+                }
+            });
+        }
+
+        boolean isFor(Collection<MethodInterceptor> methodInterceptors) {
+            if (methodInterceptors.size() != registered.size()) {
+                return false;
+            }
+            int i = 0;
+            for (MethodInterceptor methodInterceptor : methodInterceptors) {
+                if (methodInterceptor.getClass() != registered.get(i++)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns the chain of the interceptors accepting the method, bound to the registered interceptors and
+         * terminated by the method invoking interceptor
+         */
+        MethodInterceptor[] interceptorsFor(Method method, Collection<MethodInterceptor> methodInterceptors) {
+            BoundChains bound = boundChains;
+            if (bound == null || !bound.isFor(methodInterceptors)) {
+                bound = new BoundChains(methodInterceptors.toArray(new MethodInterceptor[methodInterceptors.size()]));
+                boundChains = bound;
+            }
+            return bound.interceptorsFor(method);
+        }
+
+        private int[] positionsFor(Method method, MethodInterceptor[] methodInterceptors) {
+            int[] accepting = positions.get(method);
+            if (accepting == null) {
+                int[] accepted = new int[sorted.length];
+                int count = 0;
+                for (int position : sorted) {
+                    if (methodInterceptors[position].accept(method)) {
+                        accepted[count++] = position;
+                    }
+                }
+                accepting = new int[count];
+                System.arraycopy(accepted, 0, accepting, 0, count);
+                positions.put(method, accepting);
+            }
+            return accepting;
+        }
+
+        /**
+         * Holds the chains of each action method, bound to given instances of the registered interceptors
+         */
+        private class BoundChains {
+            private final MethodInterceptor[] instances;
+            private final ConcurrentMap<Method, MethodInterceptor[]> chains = new ConcurrentHashMap<Method, MethodInterceptor[]>();
+
+            BoundChains(MethodInterceptor[] instances) {
+                this.instances = instances;
+            }
+
+            boolean isFor(Collection<MethodInterceptor> methodInterceptors) {
+                if (methodInterceptors.size() != instances.length) {
+                    return false;
+                }
+                int i = 0;
+                for (MethodInterceptor methodInterceptor : methodInterceptors) {
+                    if (methodInterceptor != instances[i++]) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            MethodInterceptor[] interceptorsFor(Method method) {
+                MethodInterceptor[] chain = chains.get(method);
+                if (chain == null) {
+                    int[] accepting = positionsFor(method, instances);
+                    chain = new MethodInterceptor[accepting.length + 1];
+                    for (int i = 0; i < accepting.length; i++) {
+                        chain[i] = instances[accepting[i]];
+                    }
+                    chain[accepting.length] = methodInvokingInterceptor;
+                    chains.put(method, chain);
+                }
+                return chain;
+            }
+        }
+    }
+
     /**
-     * This actually invokes the underlying action method
+     * This actually invokes the underlying action method, via the invoker of the method
      */
     private static class MethodInvokingMethodInterceptor implements MethodInterceptor {
+        private final ActionMethodInvokerFactory invokerFactory;
+
+        public MethodInvokingMethodInterceptor(ActionMethodInvokerFactory invokerFactory) {
+            this.invokerFactory = invokerFactory;
+        }
+
         public boolean accept(Method method) {
             return true;
         }
@@ -87,7 +248,7 @@ public class InterceptingActionMethodExecutor implements ActionMethodExecutor {
                                 Method method,
                                 InterceptorChain chain,
                                 Object... arguments) throws IllegalAccessException, InvocationTargetException {
-            return method.invoke(controllerDefinition.getController(), arguments);
+            return invokerFactory.invokerFor(method).invoke(controllerDefinition.getController(), arguments);
         }
     }
 
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.action;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javassist.ClassClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtMethod;
+import javassist.CtNewMethod;
+import javassist.LoaderClassPath;
+
+import org.codehaus.waffle.monitor.ActionMonitor;
+
+/**
+ * <p>
+ * Invoker factory which generates, via Javassist, a dedicated invoker class for each action method. The generated
+ * invoker calls the action method directly, casting and unboxing the arguments, so that the call site is monomorphic
+ * and can be inlined by the JIT compiler, as opposed to the reflective {@link Method#invoke(Object, Object[])}.
+ * As by <code>Method.invoke</code>, only the exceptions thrown by the action method are wrapped in an
+ * <code>InvocationTargetException</code>, while arguments which cannot be cast or unboxed throw an
+ * <code>IllegalArgumentException</code>.
+ * </p>
+ * <p>
+ * Invokers are generated on first use and cached. Methods that cannot be called directly, because either the method or
+ * its declaring class is not public, or whose invoker cannot be generated, fall back to reflective invocation.
+ * </p>
+ *
+ * @see ReflectiveActionMethodInvokerFactory
+ */
+public class JavassistActionMethodInvokerFactory implements ActionMethodInvokerFactory {
+
+    private static final String INVOKER_NAME_PREFIX = JavassistActionMethodInvokerFactory.class.getName() + "$Invoker";
+    private static final AtomicInteger invokerCount = new AtomicInteger();
+    private static final Class<?>[] ARGUMENT_EXCEPTIONS = { ClassCastException.class, NullPointerException.class,
+            ArrayIndexOutOfBoundsException.class };
+
+    private final ConcurrentMap<Method, ActionMethodInvoker> invokers = new ConcurrentHashMap<Method, ActionMethodInvoker>();
+    private final Map<ClassLoader, InvokerClassLoader> classLoaders = new HashMap<ClassLoader, InvokerClassLoader>();
+    private final ActionMonitor actionMonitor;
+
+    public JavassistActionMethodInvokerFactory(ActionMonitor actionMonitor) {
+        this.actionMonitor = actionMonitor;
+    }
+
+    public ActionMethodInvoker invokerFor(Method method) {
+        ActionMethodInvoker invoker = invokers.get(method);
+        if (invoker == null) {
+            invoker = createInvoker(method);
+            ActionMethodInvoker existing = invokers.putIfAbsent(method, invoker);
+            if (existing != null) {
+                invoker = existing;
+            }
+        }
+        return invoker;
+    }
+
+    private ActionMethodInvoker createInvoker(Method method) {
+        if (isDirectlyInvokable(method)) {
+            try {
+                return generateInvoker(method);
+            } catch (Exception e) {
+                actionMonitor.actionMethodInvokerNotGenerated(method, e);
+            } catch (LinkageError e) {
+                actionMonitor.actionMethodInvokerNotGenerated(method, new ActionMethodInvocationException(e.getMessage(), e));
+            }
+        }
+        return new ReflectiveActionMethodInvokerFactory.ReflectiveActionMethodInvoker(method);
+    }
+
+    private boolean isDirectlyInvokable(Method method) {
+        int modifiers = method.getModifiers();
+        return Modifier.isPublic(modifiers) && !Modifier.isStatic(modifiers)
+                && Modifier.isPublic(method.getDeclaringClass().getModifiers());
+    }
+
+    private ActionMethodInvoker generateInvoker(Method method) throws Exception {
+        Class<?> declaringClass = method.getDeclaringClass();
+        ClassLoader parent = declaringClass.getClassLoader();
+        if (parent == null) {
+            parent = ActionMethodInvoker.class.getClassLoader();
+        }
+
+        ClassPool pool = new ClassPool(false);
+        pool.appendClassPath(new LoaderClassPath(parent));
+        pool.appendClassPath(new ClassClassPath(ActionMethodInvoker.class));
+
+        CtClass invokerClass = pool.makeClass(INVOKER_NAME_PREFIX + invokerCount.incrementAndGet());
+        invokerClass.addInterface(pool.get(ActionMethodInvoker.class.getName()));
+        CtMethod invoke = CtNewMethod.make(invokeSource(method), invokerClass);
+        for (Class<?> exception : ARGUMENT_EXCEPTIONS) {
+            invoke.addCatch("throw new IllegalArgumentException(\"argument type mismatch\");", pool
+                    .get(exception.getName()));
+        }
+        invokerClass.addMethod(invoke);
+        invokerClass.addMethod(CtNewMethod.make("public String toString() { return \"[GeneratedActionMethodInvoker method="
+                + method + "]\"; }", invokerClass));
+
+        byte[] bytecode = invokerClass.toBytecode();
+        invokerClass.detach();
+        Class<?> type = classLoaderFor(parent).define(invokerClass.getName(), bytecode);
+        return (ActionMethodInvoker) type.getConstructor().newInstance();
+    }
+
+    /**
+     * Returns the source of the invoke method, which casts and unboxes the arguments before calling the action method,
+     * so that only the exceptions of the call are target exceptions
+     */
+    private String invokeSource(Method method) {
+        String declaringType = typeName(method.getDeclaringClass());
+        StringBuilder source = new StringBuilder();
+        source.append("public Object invoke(Object controller, Object[] arguments) ");
+        source.append("throws IllegalAccessException, java.lang.reflect.InvocationTargetException { ");
+        source.append(declaringType).append(" target = (").append(declaringType).append(") $1; ");
+        StringBuilder call = new StringBuilder("target.").append(method.getName()).append("(");
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            source.append(typeName(parameterTypes[i])).append(" argument").append(i).append(" = ");
+            source.append(argument(parameterTypes[i], "$2[" + i + "]")).append("; ");
+            call.append(i > 0 ? ", " : "").append("argument").append(i);
+        }
+        call.append(")");
+        source.append("try { ");
+        if (method.getReturnType() == Void.TYPE) {
+            source.append(call).append("; return null; ");
+        } else {
+            source.append("return ($w) ").append(call).append("; ");
+        }
+        source.append("} catch (Throwable e) { throw new java.lang.reflect.InvocationTargetException(e); } }");
+        return source.toString();
+    }
+
+    private String argument(Class<?> type, String value) {
+        if (type.isPrimitive()) {
+            Class<?> wrapper = wrapperOf(type);
+            return "((" + wrapper.getName() + ") " + value + ")." + type.getName() + "Value()";
+        }
+        return "(" + typeName(type) + ") " + value;
+    }
+
+    private Class<?> wrapperOf(Class<?> type) {
+        if (type == Boolean.TYPE) {
+            return Boolean.class;
+        } else if (type == Character.TYPE) {
+            return Character.class;
+        } else if (type == Byte.TYPE) {
+            return Byte.class;
+        } else if (type == Short.TYPE) {
+            return Short.class;
+        } else if (type == Integer.TYPE) {
+            return Integer.class;
+        } else if (type == Long.TYPE) {
+            return Long.class;
+        } else if (type == Float.TYPE) {
+            return Float.class;
+        }
+        return Double.class;
+    }
+
+    private String typeName(Class<?> type) {
+        if (type.isArray()) {
+            return typeName(type.getComponentType()) + "[]";
+        }
+        return type.getName();
+    }
+
+    private InvokerClassLoader classLoaderFor(ClassLoader parent) {
+        synchronized (classLoaders) {
+            InvokerClassLoader classLoader = classLoaders.get(parent);
+            if (classLoader == null) {
+                classLoader = new InvokerClassLoader(parent);
+                classLoaders.put(parent, classLoader);
+            }
+            return classLoader;
+        }
+    }
+
+    /**
+     * Defines the generated invokers as children of the controller's class loader
+     */
+    private static class InvokerClassLoader extends ClassLoader {
+
+        InvokerClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> define(String name, byte[] bytecode) {
+            return defineClass(name, bytecode, 0, bytecode.length);
+        }
+    }
+
+}
@@ -14,10 +14,16 @@ import java.util.ArrayList;
  */
 public class MethodDefinition {
     private final Method method;
+    private final ActionMethodCandidate candidate;
     private final List<Object> arguments = new ArrayList<Object>();
 
     public MethodDefinition(Method method) {
+        this(method, null);
+    }
+
+    public MethodDefinition(Method method, ActionMethodCandidate candidate) {
         this.method = method;
+        this.candidate = candidate;
     }
 
     /**
@@ -27,6 +33,13 @@ public class MethodDefinition {
         return method;
     }
 
+    /**
+     * The candidate holding the method metadata, or <code>null</code> if the definition was built from the method only
+     */
+    public ActionMethodCandidate getCandidate() {
+        return candidate;
+    }
+
     /**
      * The argument values that will be used to satisfy the invocation of the action method
      */
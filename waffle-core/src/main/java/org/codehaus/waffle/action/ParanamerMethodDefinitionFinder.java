@@ -45,8 +45,9 @@ public class ParanamerMethodDefinitionFinder extends AbstractOgnlMethodDefinitio
     /**
      * Overriden to allow Paranamer to not use generic parameter types.
      */
-    protected boolean hasEquivalentParameterTypes(MethodDefinition methodDefinition, StringTransmuter stringTransmuter) {
-        Class<?>[] methodParameterTypes = methodDefinition.getMethod().getParameterTypes();
+    protected boolean hasEquivalentParameterTypes(ActionMethodCandidate candidate, MethodDefinition methodDefinition,
+            StringTransmuter stringTransmuter) {
+        Class<?>[] methodParameterTypes = candidate.getParameterTypes();
         List<Object> methodArguments = methodDefinition.getMethodArguments();
 
         if (methodParameterTypes.length != methodArguments.size()) {
@@ -82,14 +83,13 @@ public class ParanamerMethodDefinitionFinder extends AbstractOgnlMethodDefinitio
     /**
      * Uses {@link Paranamer} to determine the parameter names to use to resolve the argument values.
      * 
-     * @param method the action method to be invoked
-     * @param request the HttpServetRequest
-     * @return the resolved list of arguments needed to satisfy the action method invocation
+     * @param candidate the candidate action method
+     * @return the list of argument names needed to satisfy the action method invocation
      */
-    protected List<Object> getArguments(Method method, HttpServletRequest request) {
-
+    protected List<String> getArgumentNames(ActionMethodCandidate candidate) {
+        Method method = candidate.getMethod();
         try {
-            return resolveArgs(request, method.getParameterTypes(), paranamer.lookupParameterNames(method));
+            return argumentNamesOf(candidate.getParameterTypes(), paranamer.lookupParameterNames(method));
         } catch (ParameterNamesNotFoundException e) {
             String message = messageResources.getMessageWithDefault("noParameterNamesListFound",
                     "No parameter names list found for method ''{0}'', class ''{1}''", method.toString(), method.getDeclaringClass().getName());
@@ -97,7 +97,7 @@ public class ParanamerMethodDefinitionFinder extends AbstractOgnlMethodDefinitio
         }
     }
 
-    private List<Object> resolveArgs(HttpServletRequest request, Class<?>[] parameterTypes, String[] parameterNames) {
+    private List<String> argumentNamesOf(Class<?>[] parameterTypes, String[] parameterNames) {
         List<String> arguments = new ArrayList<String>(parameterNames.length);
 
         // these should always be of the same length
@@ -116,7 +116,7 @@ public class ParanamerMethodDefinitionFinder extends AbstractOgnlMethodDefinitio
             }
         }
 
-        return resolveArguments(request, arguments.iterator());
+        return arguments;
     }
 
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.action;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Invoker factory which uses {@link Method#invoke(Object, Object[])}. It needs no class generation and works in any
+ * environment.
+ */
+public class ReflectiveActionMethodInvokerFactory implements ActionMethodInvokerFactory {
+
+    public ActionMethodInvoker invokerFor(Method method) {
+        return new ReflectiveActionMethodInvoker(method);
+    }
+
+    /**
+     * Invoker delegating to the reflective method
+     */
+    static class ReflectiveActionMethodInvoker implements ActionMethodInvoker {
+        private final Method method;
+
+        ReflectiveActionMethodInvoker(Method method) {
+            this.method = method;
+        }
+
+        public Object invoke(Object controller, Object[] arguments) throws IllegalAccessException,
+                InvocationTargetException {
+            return method.invoke(controller, arguments);
+        }
+
+        @Override
+        public String toString() {
+            return "[ReflectiveActionMethodInvoker method=" + method + "]";
+        }
+    }
+
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.action;
+
+/**
+ * Holds the configuration of the {@link CompressingActionMethodResponseHandler}
+ */
+public interface ResponseCompressionConfig {
+
+    /**
+     * Returns the minimum size in bytes of the content to compress. Smaller content is not worth the compression
+     * overhead and is written uncompressed.
+     * 
+     * @return The minimum size
+     */
+    int getMinimumSize();
+
+    /**
+     * Returns the compression level, from 0 to 9, or -1 for the default level of the <code>Deflater</code>
+     * 
+     * @return The compression level
+     */
+    int getCompressionLevel();
+
+    /**
+     * Returns the content types which are already compressed, eg images, and written uncompressed. Content types ending
+     * with '/' match all the content types of the given type.
+     * 
+     * @return The array of content types
+     */
+    String[] getUncompressedContentTypes();
+
+}
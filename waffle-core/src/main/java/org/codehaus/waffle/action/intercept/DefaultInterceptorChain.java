@@ -8,7 +8,6 @@ import org.codehaus.waffle.monitor.ActionMonitor;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -18,12 +17,31 @@ import java.util.List;
  * </p>
  */
 public class DefaultInterceptorChain implements InterceptorChain {
-    private final Iterator<MethodInterceptor> iterator;
+    private static final String METHOD_INTERCEPTOR_TIMED = "methodInterceptorTimed";
+    private final MethodInterceptor[] interceptors;
+    private final boolean accepted;
     private final ActionMonitor actionMonitor;
+    private int index;
     private Object returnValue;
 
     public DefaultInterceptorChain(List<MethodInterceptor> interceptors, ActionMonitor actionMonitor) {
-        this.iterator = interceptors.iterator();
+        this(interceptors.toArray(new MethodInterceptor[interceptors.size()]), false, actionMonitor);
+    }
+
+    /**
+     * Creates a chain over interceptors which have already accepted the action method, so that
+     * {@link MethodInterceptor#accept(Method)} is not called again.
+     * 
+     * @param acceptedInterceptors the ordered interceptors that accept the method
+     * @param actionMonitor the ActionMonitor
+     */
+    public DefaultInterceptorChain(MethodInterceptor[] acceptedInterceptors, ActionMonitor actionMonitor) {
+        this(acceptedInterceptors, true, actionMonitor);
+    }
+
+    private DefaultInterceptorChain(MethodInterceptor[] interceptors, boolean accepted, ActionMonitor actionMonitor) {
+        this.interceptors = interceptors;
+        this.accepted = accepted;
         this.actionMonitor = actionMonitor;
     }
 
@@ -33,13 +51,21 @@ public class DefaultInterceptorChain implements InterceptorChain {
     public Object proceed(ControllerDefinition controllerDefinition,
                           Method method,
                           Object... arguments) throws IllegalAccessException, InvocationTargetException {
-        if (iterator.hasNext()) {
-            MethodInterceptor methodInterceptor = iterator.next();
-            if (methodInterceptor.accept(method)) {
-                returnValue = methodInterceptor.intercept(controllerDefinition, method, this, arguments);
+        while (index < interceptors.length) {
+            MethodInterceptor methodInterceptor = interceptors[index++];
+            if (accepted || methodInterceptor.accept(method)) {
+                if (actionMonitor.isEnabled(METHOD_INTERCEPTOR_TIMED)) {
+                    long start = System.nanoTime();
+                    try {
+                        returnValue = methodInterceptor.intercept(controllerDefinition, method, this, arguments);
+                    } finally {
+                        actionMonitor.methodInterceptorTimed(methodInterceptor, method, System.nanoTime() - start);
+                    }
+                } else {
+                    returnValue = methodInterceptor.intercept(controllerDefinition, method, this, arguments);
+                }
                 actionMonitor.methodIntercepted(method, arguments, returnValue);
-            } else {
-                return proceed(controllerDefinition, method, arguments); // recursive
+                break;
             }
         }
 
@@ -15,7 +15,9 @@ import java.lang.reflect.Method;
 public interface MethodInterceptor {
 
     /**
-     * Determines if the implementation should intercept the call to the Action Method.
+     * Determines if the implementation should intercept the call to the Action Method. The result may only depend on
+     * the method and on the class of the interceptor, as it is cached per method for all interceptors of the class,
+     * and not asked again of each instance.
      *
      * @param method is the action method that is to be invoked (or intercepted)
      * @return true if this should intercept the invocation
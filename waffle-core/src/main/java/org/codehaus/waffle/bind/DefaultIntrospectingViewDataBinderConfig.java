@@ -0,0 +1,23 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.bind;
+
+public class DefaultIntrospectingViewDataBinderConfig implements IntrospectingViewDataBinderConfig {
+    static final boolean DEFAULT_BIND_LAZILY = false;
+
+    private boolean bindLazily;
+
+    public DefaultIntrospectingViewDataBinderConfig() {
+        this(DEFAULT_BIND_LAZILY);
+    }
+
+    public DefaultIntrospectingViewDataBinderConfig(boolean bindLazily) {
+        this.bindLazily = bindLazily;
+    }
+
+    public boolean bindLazily() {
+        return bindLazily;
+    }
+
+}
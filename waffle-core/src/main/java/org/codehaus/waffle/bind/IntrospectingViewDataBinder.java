@@ -9,45 +9,103 @@ import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
 
 import org.codehaus.waffle.WaffleException;
 import org.codehaus.waffle.monitor.BindMonitor;
 
 /**
  * ViewDataBinder implementation which uses Java beans introspector to bind {@link PropertyDescriptor#getReadMethod()
- * read methods}.
+ * read methods}. The read methods of each controller type are introspected once.
+ * <p/>
+ * If configured to bind lazily by the {@link IntrospectingViewDataBinderConfig}, the properties are exposed via a
+ * request wrapper and each read method is only invoked when the view first reads the request attribute.
  * 
  * @author Michael Ward
  * @author Mauro Talevi
  */
-public class IntrospectingViewDataBinder implements ViewDataBinder {
+public class IntrospectingViewDataBinder implements LazyViewDataBinder {
 
     private final BindMonitor bindMonitor;
+    private final boolean bindLazily;
+    private final ConcurrentMap<Class<?>, Map<String, Method>> readMethods = new ConcurrentHashMap<Class<?>, Map<String, Method>>();
 
     public IntrospectingViewDataBinder(BindMonitor bindMonitor) {
+        this(new DefaultIntrospectingViewDataBinderConfig(), bindMonitor);
+    }
+
+    public IntrospectingViewDataBinder(IntrospectingViewDataBinderConfig configuration, BindMonitor bindMonitor) {
         this.bindMonitor = bindMonitor;
+        this.bindLazily = configuration.bindLazily();
     }
 
     public void bind(HttpServletRequest request, Object controller) {
-        try {
-            BeanInfo beanInfo = Introspector.getBeanInfo(controller.getClass());
-            PropertyDescriptor[] propertyDescriptors = beanInfo.getPropertyDescriptors();
+        for (Map.Entry<String, Method> entry : readMethodsOf(controller).entrySet()) {
+            String name = entry.getKey();
+            request.setAttribute(name, read(entry.getValue(), controller));
+            Object value = request.getAttribute(name);
+            bindMonitor.viewValueBound(name, value, controller);
+        }
+    }
+
+    public HttpServletRequest bindLazily(HttpServletRequest request, Object controller) {
+        if (!bindLazily) {
+            bind(request, controller);
+            return request;
+        }
+        Map<String, Method> methods = readMethodsOf(controller);
+        if (methods.isEmpty()) {
+            return request;
+        }
+        return new ViewDataRequest(request, controller, methods);
+    }
 
-            for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
+    private Map<String, Method> readMethodsOf(Object controller) {
+        Class<?> type = controller.getClass();
+        Map<String, Method> methods = readMethods.get(type);
+        if (methods == null) {
+            methods = introspect(type, controller);
+            readMethods.putIfAbsent(type, methods);
+        }
+        return methods;
+    }
+
+    private Map<String, Method> introspect(Class<?> type, Object controller) {
+        try {
+            BeanInfo beanInfo = Introspector.getBeanInfo(type);
+            Map<String, Method> methods = new LinkedHashMap<String, Method>();
+            for (PropertyDescriptor propertyDescriptor : beanInfo.getPropertyDescriptors()) {
                 Method readMethod = propertyDescriptor.getReadMethod();
 
                 if (isBindable(readMethod)) {
-                    String name = propertyDescriptor.getName();
-                    request.setAttribute(name, readMethod.invoke(controller));
-                    Object value = request.getAttribute(name);
-                    bindMonitor.viewValueBound(name, value, controller);
+                    methods.put(propertyDescriptor.getName(), readMethod);
                 }
             }
+            return Collections.unmodifiableMap(methods);
         } catch (IntrospectionException e) {
             bindMonitor.viewBindFailed(controller, e);
             throw new WaffleException(e);
+        }
+    }
+
+    private boolean isBindable(Method method) {
+        return method != null && method.getParameterTypes().length == 0 && !method.getName().equals("getClass");
+    }
+
+    private Object read(Method readMethod, Object controller) {
+        try {
+            return readMethod.invoke(controller);
         } catch (IllegalAccessException e) {
             bindMonitor.viewBindFailed(controller, e);
             throw new WaffleException(e);
@@ -57,8 +115,59 @@ public class IntrospectingViewDataBinder implements ViewDataBinder {
         }
     }
 
-    private boolean isBindable(Method method) {
-        return method != null && method.getParameterTypes().length == 0 && !method.getName().equals("getClass");
+    /**
+     * Request wrapper which reads the properties of the controller when their attributes are first read, unless the
+     * attributes have been set or removed before.
+     */
+    private class ViewDataRequest extends HttpServletRequestWrapper {
+        private final Object controller;
+        private final Map<String, Method> methods;
+        private final Set<String> unread;
+
+        ViewDataRequest(HttpServletRequest request, Object controller, Map<String, Method> methods) {
+            super(request);
+            this.controller = controller;
+            this.methods = methods;
+            this.unread = new HashSet<String>(methods.keySet());
+        }
+
+        @Override
+        public Object getAttribute(String name) {
+            if (unread.remove(name)) {
+                super.setAttribute(name, read(methods.get(name), controller));
+                Object value = super.getAttribute(name);
+                bindMonitor.viewValueBound(name, value, controller);
+                return value;
+            }
+            return super.getAttribute(name);
+        }
+
+        // the raw Enumeration matches the signature of the servlet API
+        @Override
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        public Enumeration getAttributeNames() {
+            if (unread.isEmpty()) {
+                return super.getAttributeNames();
+            }
+            Set<String> names = new LinkedHashSet<String>();
+            for (Enumeration<String> e = super.getAttributeNames(); e.hasMoreElements();) {
+                names.add(e.nextElement());
+            }
+            names.addAll(unread);
+            return Collections.enumeration(names);
+        }
+
+        @Override
+        public void setAttribute(String name, Object value) {
+            unread.remove(name);
+            super.setAttribute(name, value);
+        }
+
+        @Override
+        public void removeAttribute(String name) {
+            unread.remove(name);
+            super.removeAttribute(name);
+        }
     }
 
 }
@@ -0,0 +1,19 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.bind;
+
+/**
+ * Holds the configuration of the {@link IntrospectingViewDataBinder}
+ */
+public interface IntrospectingViewDataBinderConfig {
+
+    /**
+     * Determines if the controller properties are bound lazily, ie if each read method is only invoked when the view
+     * first reads the request attribute of the property.
+     * 
+     * @return A boolean flag
+     */
+    boolean bindLazily();
+
+}
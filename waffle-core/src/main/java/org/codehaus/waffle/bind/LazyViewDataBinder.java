@@ -0,0 +1,23 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.bind;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * A ViewDataBinder which may expose the properties of the controller to the view lazily, via a request wrapper whose
+ * attributes are read from the controller when the view first reads them.
+ */
+public interface LazyViewDataBinder extends ViewDataBinder {
+
+    /**
+     * Binds the properties of the controller, returning the request the view must be rendered with
+     * 
+     * @param request the HttpServletRequest
+     * @param controller the controller instance
+     * @return The wrapped request, or the request itself if the properties have been bound to it
+     */
+    HttpServletRequest bindLazily(HttpServletRequest request, Object controller);
+
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.bind;
+
+import java.lang.reflect.Type;
+
+/**
+ * A <code>ValueConverter</code> which also converts the multiple values of a request parameter, as returned by
+ * <code>getParameterValues</code>, without them being joined into a single CSV value.
+ */
+public interface MultiValueConverter extends ValueConverter {
+
+    /**
+     * Converts multiple String values to an Object of a given type
+     * 
+     * @param propertyName the associated property name, which can be <code>null</code>, also needed to present
+     *                     customized error messages.
+     * @param values the String values
+     * @param toType the Object Type
+     * @return The converted Object
+     * @throws BindException if conversion fails
+     */
+    Object convertValues(String propertyName, String[] values, Type toType);
+
+}
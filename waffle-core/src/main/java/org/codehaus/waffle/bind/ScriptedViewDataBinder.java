@@ -30,6 +30,15 @@ public abstract class ScriptedViewDataBinder extends IntrospectingViewDataBinder
         super.bind(request, controller);
     }
 
+    @Override
+    public HttpServletRequest bindLazily(HttpServletRequest request, Object controller) {
+        if (controller instanceof ScriptedController) {
+            handleScriptController(request, (ScriptedController) controller);
+            return request;
+        }
+        return super.bindLazily(request, controller);
+    }
+
     protected abstract void handleScriptController(HttpServletRequest request, ScriptedController controller);
 
 }
@@ -71,6 +71,24 @@ public abstract class AbstractValueConverter implements ValueConverter {
         return false;
     }
 
+    /**
+     * Accepts array types of the given component classes, eg <code>int[]</code>
+     * 
+     * @param type the Type to accept or reject
+     * @param componentClasses the array component classes
+     */
+    protected boolean acceptArray(Type type, Class<?>... componentClasses) {
+        if (type instanceof Class && ((Class<?>) type).isArray()) {
+            Class<?> componentType = ((Class<?>) type).getComponentType();
+            for (Class<?> componentClass : componentClasses) {
+                if (componentClass.equals(componentType)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Accepts parameterized types of type Map<?,List<?>>
      * 
@@ -92,6 +110,10 @@ public abstract class AbstractValueConverter implements ValueConverter {
         return false;
     }
 
+    protected MessageResources getMessageResources() {
+        return messageResources;
+    }
+
     protected BindException newBindException(String key, String defaultMessage, Object... parameters) {
         String message = messageResources.getMessageWithDefault(key, defaultMessage, parameters);
         return new BindException(message);
@@ -7,7 +7,13 @@ import java.lang.reflect.Type;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
 
 import org.codehaus.waffle.i18n.MessageResources;
 
@@ -34,6 +40,9 @@ import org.codehaus.waffle.i18n.MessageResources;
  * </ul>
  * The patterns are also optionally injectable via <code>Properties</code> in the constructor and take precedence over
  * the ones configured in the messages resources.
+ * <p/>
+ * The patterns are resolved and cached per locale and resource URI, and resolved again when the values of the injected
+ * patterns change. The date type of each property name is cached too. As <code>SimpleDateFormat</code> is not thread-safe, the date formats are cached per thread and pattern.
  * 
  * @author Michael Ward
  * @author Mauro Talevi
@@ -53,6 +62,11 @@ public class DateValueConverter extends AbstractValueConverter {
     public static final String DEFAULT_DATE_FORMAT = "dd/MM/yyyy";
     public static final String DEFAULT_DATE_MESSAGE = "Invalid date {1} (using format {2}) for field {0}";
     public static final String DEFAULT_DATE_MISSING_MESSAGE = "Missing date value for field {0}";
+    private static final int MAX_CACHED_PROPERTIES = 1024;
+    private static final int MAX_CACHED_PATTERNS = 64;
+
+    private final ThreadLocal<Map<String, SimpleDateFormat>> dateFormats = new ThreadLocal<Map<String, SimpleDateFormat>>();
+    private final ConcurrentMap<PatternsKey, DatePatterns> datePatterns = new ConcurrentHashMap<PatternsKey, DatePatterns>();
 
     public DateValueConverter(MessageResources messageResources) {
         this(messageResources, new Properties());
@@ -70,17 +84,18 @@ public class DateValueConverter extends AbstractValueConverter {
     }
 
     public Object convertValue(String propertyName, String value, Type toType) {
-        String fieldName = messageFor(propertyName, propertyName);
         if (missingValue(value)) {
+            String fieldName = messageFor(propertyName, propertyName);
             return convertMissingValue(BIND_ERROR_DATE_MISSING_KEY, DEFAULT_DATE_MISSING_MESSAGE, fieldName);
         }
 
-        SimpleDateFormat dateFormat = dateFormatFor(propertyName);
+        String pattern = datePatterns().formatFor(propertyName);
 
         try {
-            return dateFormat.parse(value);
+            return dateFormatFor(pattern).parse(value);
         } catch (ParseException e) {
-            throw newBindException(BIND_ERROR_DATE_KEY, DEFAULT_DATE_MESSAGE, fieldName, value, dateFormat.toPattern());
+            String fieldName = messageFor(propertyName, propertyName);
+            throw newBindException(BIND_ERROR_DATE_KEY, DEFAULT_DATE_MESSAGE, fieldName, value, pattern);
         }
     }
 
@@ -89,34 +104,131 @@ public class DateValueConverter extends AbstractValueConverter {
     }
 
     /**
-     * Retrieves the date format for the given property name
+     * Retrieves the date format of the current thread for the given pattern
      * 
-     * @param propertyName the property name
+     * @param pattern the date pattern
      * @return The SimpleDateFormat
      */
-    private SimpleDateFormat dateFormatFor(String propertyName) {
-        DateType dateType = dateType(propertyName);
-        String pattern;
-        switch (dateType) {
-            case DAY:
-                pattern = patternFor(DAY_FORMAT_KEY, DEFAULT_DAY_FORMAT);
-                break;
-            case TIME:
-                pattern = patternFor(TIME_FORMAT_KEY, DEFAULT_TIME_FORMAT);
-                break;
-            default:
-                pattern = patternFor(DATE_FORMAT_KEY, DEFAULT_DATE_FORMAT);
+    private SimpleDateFormat dateFormatFor(String pattern) {
+        Map<String, SimpleDateFormat> formats = dateFormats.get();
+        if (formats == null) {
+            formats = new HashMap<String, SimpleDateFormat>();
+            dateFormats.set(formats);
+        }
+        SimpleDateFormat dateFormat = formats.get(pattern);
+        if (dateFormat == null) {
+            dateFormat = new SimpleDateFormat(pattern);
+            formats.put(pattern, dateFormat);
+        }
+        return dateFormat;
+    }
+
+    private DatePatterns datePatterns() {
+        PatternsKey key = new PatternsKey(getMessageResources().getLocale(), getMessageResources().getURI());
+        Properties patterns = getPatterns();
+        DatePatterns current = datePatterns.get(key);
+        if (current == null || !current.isFor(patterns)) {
+            current = new DatePatterns(patterns);
+            if (datePatterns.size() < MAX_CACHED_PATTERNS || datePatterns.containsKey(key)) {
+                datePatterns.put(key, current);
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Identifies the message resources the patterns are resolved from
+     */
+    private static final class PatternsKey {
+        private final Locale locale;
+        private final String uri;
+
+        PatternsKey(Locale locale, String uri) {
+            this.locale = locale;
+            this.uri = uri;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof PatternsKey)) {
+                return false;
+            }
+            PatternsKey key = (PatternsKey) object;
+            return equal(locale, key.locale) && equal(uri, key.uri);
+        }
+
+        @Override
+        public int hashCode() {
+            return (locale == null ? 0 : locale.hashCode()) * 31 + (uri == null ? 0 : uri.hashCode());
+        }
+
+        private static boolean equal(Object first, Object second) {
+            return first == null ? second == null : first.equals(second);
         }
-        return new SimpleDateFormat(pattern);
     }
 
-    private DateType dateType(String propertyName) {
-        if (matches(propertyName, patternFor(DAY_NAME_KEY, DEFAULT_DAY_NAME))) {
-            return DateType.DAY;
-        } else if (matches(propertyName, patternFor(TIME_NAME_KEY, DEFAULT_TIME_NAME))) {
-            return DateType.TIME;
+    /**
+     * Holds the patterns resolved with a snapshot of the injected patterns
+     */
+    private class DatePatterns {
+        private final Properties patterns = new Properties();
+        private final Pattern dayName;
+        private final Pattern timeName;
+        private final String dayFormat;
+        private final String timeFormat;
+        private final String dateFormat;
+        private final ConcurrentMap<String, DateType> dateTypes = new ConcurrentHashMap<String, DateType>();
+
+        DatePatterns(Properties patterns) {
+            this.patterns.putAll(patterns);
+            this.dayName = Pattern.compile(patternFor(DAY_NAME_KEY, DEFAULT_DAY_NAME));
+            this.timeName = Pattern.compile(patternFor(TIME_NAME_KEY, DEFAULT_TIME_NAME));
+            this.dayFormat = patternFor(DAY_FORMAT_KEY, DEFAULT_DAY_FORMAT);
+            this.timeFormat = patternFor(TIME_FORMAT_KEY, DEFAULT_TIME_FORMAT);
+            this.dateFormat = patternFor(DATE_FORMAT_KEY, DEFAULT_DATE_FORMAT);
+        }
+
+        boolean isFor(Properties patterns) {
+            return this.patterns.equals(patterns);
+        }
+
+        private String patternFor(String key, String defaultPattern) {
+            if (patterns.containsKey(key)) {
+                return patterns.getProperty(key);
+            }
+            return messageFor(key, defaultPattern);
+        }
+
+        String formatFor(String propertyName) {
+            switch (dateType(propertyName)) {
+                case DAY:
+                    return dayFormat;
+                case TIME:
+                    return timeFormat;
+                default:
+                    return dateFormat;
+            }
+        }
+
+        private DateType dateType(String propertyName) {
+            if (propertyName == null) {
+                return DateType.DATE;
+            }
+            DateType dateType = dateTypes.get(propertyName);
+            if (dateType == null) {
+                if (dayName.matcher(propertyName).matches()) {
+                    dateType = DateType.DAY;
+                } else if (timeName.matcher(propertyName).matches()) {
+                    dateType = DateType.TIME;
+                } else {
+                    dateType = DateType.DATE;
+                }
+                if (dateTypes.size() < MAX_CACHED_PROPERTIES) {
+                    dateTypes.putIfAbsent(propertyName, dateType);
+                }
+            }
+            return dateType;
         }
-        return DateType.DATE;
     }
 
 }
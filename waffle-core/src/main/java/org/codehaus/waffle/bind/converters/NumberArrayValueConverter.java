@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.bind.converters;
+
+import java.lang.reflect.Type;
+import java.text.NumberFormat;
+import java.text.ParseException;
+import java.util.Properties;
+
+import org.codehaus.waffle.bind.MultiValueConverter;
+import org.codehaus.waffle.i18n.MessageResources;
+
+/**
+ * <p>
+ * <code>ValueConverter</code> that converts a CSV value, or the multiple values of a request parameter, to an array of
+ * primitive numbers, ie <code>int[]</code>, <code>long[]</code> or <code>double[]</code>. The values are parsed
+ * using the <code>NumberFormat</code> instance provided (which defaults to <code>NumberFormat.getInstance()</code>)
+ * directly into the array, without boxing them or collecting them into a List.
+ * </p>
+ * The message keys and default values used are:
+ * <ul>
+ * <li>"bind.error.number" ({@link NumberValueConverter#BIND_ERROR_NUMBER_KEY}): bind error in number parsing (message
+ * defaults to {@link NumberValueConverter#DEFAULT_NUMBER_MESSAGE})</li>
+ * <li>"bind.error.list" ({@link StringListValueConverter#BIND_ERROR_LIST_KEY}): array is <code>null</code> or
+ * empty (message defaults to {@link StringListValueConverter#DEFAULT_LIST_MESSAGE})</li>
+ * </ul>
+ */
+public class NumberArrayValueConverter extends AbstractValueConverter implements MultiValueConverter {
+    private static final String COMMA = ",";
+
+    private NumberFormat numberFormat;
+    private NumberParser numberParser;
+
+    public NumberArrayValueConverter(MessageResources messageResources) {
+        this(messageResources, new Properties(), NumberFormat.getInstance());
+    }
+
+    public NumberArrayValueConverter(MessageResources messageResources, Properties patterns,
+            NumberFormat numberFormat) {
+        super(messageResources, patterns);
+        this.numberFormat = numberFormat;
+        this.numberParser = new NumberParser(numberFormat);
+    }
+
+    /**
+     * Accepts the array types int[], long[] and double[]
+     */
+    public boolean accept(Type type) {
+        return acceptArray(type, int.class, long.class, double.class);
+    }
+
+    public Object convertValue(String propertyName, String value, Type toType) {
+        if (missingValue(value)) {
+            return convertMissingValue(propertyName);
+        }
+        return convertValues(propertyName, value.split(COMMA), toType);
+    }
+
+    public Object convertValues(String propertyName, String[] values, Type toType) {
+        int size = 0;
+        for (String value : values) {
+            if (!missingValue(value)) {
+                size++;
+            }
+        }
+        if (size == 0) {
+            return convertMissingValue(propertyName);
+        }
+        String value = null;
+        try {
+            int index = 0;
+            if (toType == int[].class) {
+                int[] numbers = new int[size];
+                for (int i = 0; i < values.length; i++) {
+                    if (!missingValue(value = values[i])) {
+                        numbers[index++] = numberParser.parseInt(value.trim());
+                    }
+                }
+                return numbers;
+            } else if (toType == long[].class) {
+                long[] numbers = new long[size];
+                for (int i = 0; i < values.length; i++) {
+                    if (!missingValue(value = values[i])) {
+                        numbers[index++] = numberParser.parseLong(value.trim());
+                    }
+                }
+                return numbers;
+            } else {
+                double[] numbers = new double[size];
+                for (int i = 0; i < values.length; i++) {
+                    if (!missingValue(value = values[i])) {
+                        numbers[index++] = numberParser.parseDouble(value.trim());
+                    }
+                }
+                return numbers;
+            }
+        } catch (ParseException e) {
+            String fieldName = messageFor(propertyName, propertyName);
+            throw newBindException(NumberValueConverter.BIND_ERROR_NUMBER_KEY,
+                    NumberValueConverter.DEFAULT_NUMBER_MESSAGE, fieldName, value.trim(), numberFormat);
+        }
+    }
+
+    private Object convertMissingValue(String propertyName) {
+        String fieldName = messageFor(propertyName, propertyName);
+        return convertMissingValue(StringListValueConverter.BIND_ERROR_LIST_KEY,
+                StringListValueConverter.DEFAULT_LIST_MESSAGE, fieldName);
+    }
+
+}
@@ -17,14 +17,15 @@ import java.util.Properties;
  * <code>ValueConverter</code> that converts a CSV value to a List of Numbers. It extends
  * {@link org.codehaus.waffle.bind.converters.StringListValueConverter StringListValueConverter} to provide number
  * parsing of the string values using the <code>NumberFormat</code> instance provided (which defaults to
- * <code>NumberFormat.getInstance()</code>) and if not successful returns the string values themselves.
+ * <code>NumberFormat.getInstance()</code>) and if not successful returns the string values themselves. Multiple values
+ * of a request parameter are parsed without being split.
  * </p>
  * 
  * @author Mauro Talevi
  */
 public class NumberListValueConverter extends StringListValueConverter {
 
-    private NumberFormat numberFormat;
+    private NumberParser numberParser;
 
     public NumberListValueConverter(MessageResources messageResources) {
         this(messageResources, new Properties(), NumberFormat.getInstance());
@@ -32,7 +33,7 @@ public class NumberListValueConverter extends StringListValueConverter {
 
     public NumberListValueConverter(MessageResources messageResources, Properties patterns, NumberFormat numberFormat) {
         super(messageResources, patterns);
-        this.numberFormat = numberFormat;
+        this.numberParser = new NumberParser(numberFormat);
     }
 
     /**
@@ -50,11 +51,23 @@ public class NumberListValueConverter extends StringListValueConverter {
             return convertMissingValue(BIND_ERROR_LIST_KEY, DEFAULT_LIST_MESSAGE, fieldName);
         }
 
-        List<String> values = listValues(value);
+        return numberValues(listValues(value));
+    }
+
+    public Object convertValues(String propertyName, String[] values, Type toType) {
+        List<String> list = listValues(values);
+        if (list.isEmpty()) {
+            String fieldName = messageFor(propertyName, propertyName);
+            return convertMissingValue(BIND_ERROR_LIST_KEY, DEFAULT_LIST_MESSAGE, fieldName);
+        }
+        return numberValues(list);
+    }
+
+    private List<?> numberValues(List<String> values) {
         try {
-            List<Number> numbers = new ArrayList<Number>();
+            List<Number> numbers = new ArrayList<Number>(values.size());
             for (String numberValue : values) {
-                numbers.add(numberFormat.parse(numberValue));
+                numbers.add(numberParser.parse(numberValue));
             }
             return numbers;
         } catch (ParseException e) {
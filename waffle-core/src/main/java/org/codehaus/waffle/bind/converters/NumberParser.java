@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.bind.converters;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.text.ParseException;
+
+/**
+ * <p>
+ * Thread-safe parser of numbers with the semantics of a <code>NumberFormat</code>, which is not thread-safe itself.
+ * </p>
+ * <p>
+ * Plain decimal values, made of an optional minus sign, digits with optional grouping separators and an optional
+ * decimal separator followed by digits, are parsed directly using the locale symbols of the
+ * <code>DecimalFormat</code>. Any other value, or values of other <code>NumberFormat</code>s, are parsed by a copy of
+ * the <code>NumberFormat</code> held per thread.
+ * </p>
+ */
+final class NumberParser {
+    private static final long MAX_LONG_BEFORE_MULTIPLY = Long.MAX_VALUE / 10;
+
+    private final NumberFormat numberFormat;
+    private final ThreadLocal<NumberFormat> numberFormats = new ThreadLocal<NumberFormat>();
+    private final boolean plainDecimal;
+    private final boolean groupingUsed;
+    private final char groupingSeparator;
+    private final char decimalSeparator;
+    private final char minusSign;
+
+    NumberParser(NumberFormat numberFormat) {
+        this.numberFormat = (NumberFormat) numberFormat.clone();
+        if (numberFormat instanceof DecimalFormat) {
+            DecimalFormat decimalFormat = (DecimalFormat) numberFormat;
+            DecimalFormatSymbols symbols = decimalFormat.getDecimalFormatSymbols();
+            this.groupingUsed = decimalFormat.isGroupingUsed();
+            this.groupingSeparator = symbols.getGroupingSeparator();
+            this.decimalSeparator = symbols.getDecimalSeparator();
+            String negativePrefix = decimalFormat.getNegativePrefix();
+            this.minusSign = negativePrefix.length() == 1 ? negativePrefix.charAt(0) : symbols.getMinusSign();
+            this.plainDecimal = decimalFormat.getPositivePrefix().length() == 0
+                    && decimalFormat.getPositiveSuffix().length() == 0 && negativePrefix.length() == 1
+                    && decimalFormat.getNegativeSuffix().length() == 0 && decimalFormat.getMultiplier() == 1
+                    && !decimalFormat.isParseIntegerOnly() && !decimalFormat.isParseBigDecimal()
+                    && groupingSeparator != decimalSeparator && !Character.isDigit(minusSign);
+        } else {
+            this.plainDecimal = false;
+            this.groupingUsed = false;
+            this.groupingSeparator = 0;
+            this.decimalSeparator = 0;
+            this.minusSign = 0;
+        }
+    }
+
+    /**
+     * Parses the value as <code>NumberFormat.parse(String)</code> does, returning a Long if the value is integral and
+     * fits into a long, or a Double otherwise.
+     *
+     * @param value the String value
+     * @return The parsed Number
+     * @throws ParseException if the value cannot be parsed
+     */
+    Number parse(String value) throws ParseException {
+        if (plainDecimal) {
+            String decimal = toPlainDecimal(value);
+            if (decimal != null) {
+                return toNumber(decimal);
+            }
+        }
+        return numberFormat().parse(value);
+    }
+
+    /**
+     * Parses the value to the given type. Values of Integer, Long, Float, Double, BigInteger and BigDecimal types, and
+     * of their primitive types, are returned as instances of that type. Values of other types are parsed as by
+     * {@link #parse(String)}.
+     *
+     * @param value the String value
+     * @param type the type of the number
+     * @return The parsed Number
+     * @throws ParseException if the value cannot be parsed or cannot be represented in the type
+     */
+    Number parse(String value, Class<?> type) throws ParseException {
+        if (type == BigDecimal.class || type == BigInteger.class) {
+            BigDecimal decimal = parseBigDecimal(value);
+            if (type == BigDecimal.class) {
+                return decimal;
+            }
+            try {
+                return decimal.toBigIntegerExact();
+            } catch (ArithmeticException e) {
+                throw new ParseException(value, 0);
+            }
+        }
+        if (type == Integer.class || type == int.class) {
+            return Integer.valueOf(parseInt(value));
+        } else if (type == Long.class || type == long.class) {
+            return Long.valueOf(parseLong(value));
+        }
+        Number number = parse(value);
+        if (type == Double.class || type == double.class) {
+            return number instanceof Double ? number : Double.valueOf(number.doubleValue());
+        } else if (type == Float.class || type == float.class) {
+            return Float.valueOf(number.floatValue());
+        }
+        return number;
+    }
+
+    /**
+     * Parses the value to an int, without boxing plain decimal values.
+     *
+     * @param value the String value
+     * @return The parsed int
+     * @throws ParseException if the value cannot be parsed or is not an integral value in the int range
+     */
+    int parseInt(String value) throws ParseException {
+        long integral = parseLong(value);
+        if (integral < Integer.MIN_VALUE || integral > Integer.MAX_VALUE) {
+            throw new ParseException(value, 0);
+        }
+        return (int) integral;
+    }
+
+    /**
+     * Parses the value to a long, without boxing plain decimal values.
+     *
+     * @param value the String value
+     * @return The parsed long
+     * @throws ParseException if the value cannot be parsed or is not an integral value in the long range
+     */
+    long parseLong(String value) throws ParseException {
+        if (plainDecimal) {
+            String decimal = toPlainDecimal(value);
+            if (decimal != null) {
+                return toLong(decimal, value);
+            }
+        }
+        return integralValue(numberFormat().parse(value), value);
+    }
+
+    /**
+     * Parses the value to a double, without boxing plain decimal values.
+     *
+     * @param value the String value
+     * @return The parsed double
+     * @throws ParseException if the value cannot be parsed
+     */
+    double parseDouble(String value) throws ParseException {
+        if (plainDecimal) {
+            String decimal = toPlainDecimal(value);
+            if (decimal != null) {
+                return Double.parseDouble(decimal);
+            }
+        }
+        return numberFormat().parse(value).doubleValue();
+    }
+
+    private BigDecimal parseBigDecimal(String value) throws ParseException {
+        if (plainDecimal) {
+            String decimal = toPlainDecimal(value);
+            if (decimal != null) {
+                return new BigDecimal(decimal);
+            }
+        }
+        Number number = numberFormat().parse(value);
+        return new BigDecimal(number.toString());
+    }
+
+    private long integralValue(Number number, String value) throws ParseException {
+        if (number instanceof Long) {
+            return number.longValue();
+        }
+        double doubleValue = number.doubleValue();
+        if (doubleValue == Math.rint(doubleValue) && doubleValue >= Long.MIN_VALUE && doubleValue < Long.MAX_VALUE) {
+            return (long) doubleValue;
+        }
+        throw new ParseException(value, 0);
+    }
+
+    private NumberFormat numberFormat() {
+        NumberFormat format = numberFormats.get();
+        if (format == null) {
+            format = (NumberFormat) numberFormat.clone();
+            numberFormats.set(format);
+        }
+        return format;
+    }
+
+    /**
+     * Returns the value as a plain decimal, ie with no grouping separators and '.' as decimal separator, or
+     * <code>null</code> if the value is not a plain decimal.
+     */
+    private String toPlainDecimal(String value) {
+        int length = value.length();
+        char[] decimal = new char[length];
+        int size = 0;
+        int digits = 0;
+        boolean fraction = false;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                decimal[size++] = c;
+                digits++;
+            } else if (c == minusSign && i == 0) {
+                decimal[size++] = '-';
+            } else if (c == decimalSeparator && !fraction) {
+                decimal[size++] = '.';
+                fraction = true;
+            } else if (c == groupingSeparator && groupingUsed && !fraction && digits > 0 && i + 1 < length
+                    && isDigit(value.charAt(i + 1))) {
+                // grouping separators are ignored, as by DecimalFormat
+            } else {
+                return null;
+            }
+        }
+        return digits > 0 ? new String(decimal, 0, size) : null;
+    }
+
+    private boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Converts the plain decimal to a Long, if integral and in range, or a Double, as DecimalFormat does
+     */
+    private Number toNumber(String decimal) {
+        boolean negative = decimal.charAt(0) == '-';
+        long value = 0;
+        int i = negative ? 1 : 0;
+        for (; i < decimal.length(); i++) {
+            char c = decimal.charAt(i);
+            if (c == '.') {
+                break;
+            }
+            int digit = c - '0';
+            if (value > MAX_LONG_BEFORE_MULTIPLY || value * 10 > Long.MAX_VALUE - digit) {
+                return toLargeNumber(decimal);
+            }
+            value = value * 10 + digit;
+        }
+        for (int j = i + 1; j < decimal.length(); j++) {
+            if (decimal.charAt(j) != '0') {
+                return Double.valueOf(decimal);
+            }
+        }
+        if (negative && value == 0) {
+            return Double.valueOf(-0.0d);
+        }
+        return Long.valueOf(negative ? -value : value);
+    }
+
+    /**
+     * Converts the plain decimal to a long, if integral and in range
+     */
+    private long toLong(String decimal, String value) throws ParseException {
+        boolean negative = decimal.charAt(0) == '-';
+        long integral = 0;
+        int i = negative ? 1 : 0;
+        for (; i < decimal.length(); i++) {
+            char c = decimal.charAt(i);
+            if (c == '.') {
+                break;
+            }
+            int digit = c - '0';
+            if (integral > MAX_LONG_BEFORE_MULTIPLY || integral * 10 > Long.MAX_VALUE - digit) {
+                return integralValue(toLargeNumber(decimal), value);
+            }
+            integral = integral * 10 + digit;
+        }
+        for (int j = i + 1; j < decimal.length(); j++) {
+            if (decimal.charAt(j) != '0') {
+                throw new ParseException(value, 0);
+            }
+        }
+        return negative ? -integral : integral;
+    }
+
+    private Number toLargeNumber(String decimal) {
+        BigDecimal value = new BigDecimal(decimal);
+        try {
+            return Long.valueOf(value.longValueExact());
+        } catch (ArithmeticException e) {
+            return Double.valueOf(decimal);
+        }
+    }
+
+}
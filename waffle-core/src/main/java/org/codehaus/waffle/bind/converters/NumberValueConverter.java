@@ -13,7 +13,12 @@ import org.codehaus.waffle.i18n.MessageResources;
 /**
  * <p>
  * <code>ValueConverter</code> that converts a value to a Numbers using the <code>NumberFormat</code> instance
- * provided (which defaults to <code>NumberFormat.getInstance()</code>).
+ * provided (which defaults to <code>NumberFormat.getInstance()</code>). Values of Integer, Long, Float, Double,
+ * BigInteger and BigDecimal types, and of their primitive types, are converted to that type.
+ * </p>
+ * <p>
+ * The <code>NumberFormat</code> is not used concurrently, as plain decimal values are parsed using its locale symbols
+ * and any other value is parsed by a copy of it held per thread.
  * </p>
  * The message keys and default values used are:
  * <ul>
@@ -32,6 +37,7 @@ public class NumberValueConverter extends AbstractValueConverter {
     public static final String DEFAULT_NUMBER_MESSAGE = "Invalid number {1} (using format {2}) for field {0}";
 
     private NumberFormat numberFormat;
+    private NumberParser numberParser;
 
     public NumberValueConverter(MessageResources messageResources) {
         this(messageResources, new Properties(), NumberFormat.getInstance());
@@ -40,6 +46,7 @@ public class NumberValueConverter extends AbstractValueConverter {
     public NumberValueConverter(MessageResources messageResources, Properties patterns, NumberFormat numberFormat) {
         super(messageResources, patterns);
         this.numberFormat = numberFormat;
+        this.numberParser = new NumberParser(numberFormat);
     }
 
     public boolean accept(Type type) {
@@ -52,14 +59,18 @@ public class NumberValueConverter extends AbstractValueConverter {
     }
 
     public Object convertValue(String propertyName, String value, Type toType) {
-        String fieldName = messageFor(propertyName, propertyName);
         if (missingValue(value)) {
+            String fieldName = messageFor(propertyName, propertyName);
             return convertMissingValue(BIND_ERROR_NUMBER_MISSING_KEY, DEFAULT_NUMBER_MISSING_MESSAGE, fieldName);
         }
 
         try {
-            return numberFormat.parse(value);
+            if (toType instanceof Class) {
+                return numberParser.parse(value, (Class<?>) toType);
+            }
+            return numberParser.parse(value);
         } catch (ParseException e) {
+            String fieldName = messageFor(propertyName, propertyName);
             throw newBindException(BIND_ERROR_NUMBER_KEY, DEFAULT_NUMBER_MESSAGE, fieldName, value, numberFormat);
         }
     }
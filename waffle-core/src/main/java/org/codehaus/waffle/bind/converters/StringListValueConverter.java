@@ -3,6 +3,7 @@
  */
 package org.codehaus.waffle.bind.converters;
 
+import org.codehaus.waffle.bind.MultiValueConverter;
 import org.codehaus.waffle.i18n.MessageResources;
 
 import java.lang.reflect.Type;
@@ -22,10 +23,13 @@ import java.util.Properties;
  * The patterns are also optionally injectable via <code>Properties</code> in the constructor and take precedence over
  * the ones configured in the messages resources.
  * </p>
+ * <p>
+ * Multiple values of a request parameter are converted to a List of the values, without being split.
+ * </p>
  * 
  * @author Mauro Talevi
  */
-public class StringListValueConverter extends AbstractValueConverter {
+public class StringListValueConverter extends AbstractValueConverter implements MultiValueConverter {
 
     public static final String BIND_ERROR_LIST_KEY = "bind.error.list";
     public static final String DEFAULT_LIST_MESSAGE = "Invalid list value for field {0}";
@@ -58,10 +62,29 @@ public class StringListValueConverter extends AbstractValueConverter {
         return listValues(value);
     }
 
+    public Object convertValues(String propertyName, String[] values, Type toType) {
+        List<String> list = listValues(values);
+        if (list.isEmpty()) {
+            String fieldName = messageFor(propertyName, propertyName);
+            return convertMissingValue(BIND_ERROR_LIST_KEY, DEFAULT_LIST_MESSAGE, fieldName);
+        }
+        return list;
+    }
+
     protected List<String> listValues(String value) {
         return split(value, COMMA);
     }
 
+    protected List<String> listValues(String[] values) {
+        List<String> list = new ArrayList<String>(values.length);
+        for (String value : values) {
+            if (value != null && value.trim().length() > 0) {
+                list.add(value.trim());
+            }
+        }
+        return list;
+    }
+
     protected Object convertMissingValue(String key, String defaultMessage, Object... parameters) {
         return new ArrayList<String>();
     }
@@ -48,7 +48,7 @@ import org.codehaus.waffle.i18n.MessageResources;
  */
 public class StringNumberListMapValueConverter extends StringListMapValueConverter {
 
-    private NumberFormat numberFormat;
+    private NumberParser numberParser;
 
     public StringNumberListMapValueConverter(MessageResources messageResources) {
         this(messageResources, new Properties(), NumberFormat.getInstance());
@@ -61,7 +61,7 @@ public class StringNumberListMapValueConverter extends StringListMapValueConvert
     public StringNumberListMapValueConverter(MessageResources messageResources, Properties patterns,
             NumberFormat numberFormat) {
         super(messageResources, patterns);
-        this.numberFormat = numberFormat;
+        this.numberParser = new NumberParser(numberFormat);
     }
 
     /**
@@ -91,7 +91,7 @@ public class StringNumberListMapValueConverter extends StringListMapValueConvert
                     List<String> values = split(csv, listSeparator);
                     List<Number> numbers = new ArrayList<Number>();
                     for (String numberValue : values) {
-                        numbers.add(numberFormat.parse(numberValue));
+                        numbers.add(numberParser.parse(numberValue));
                     }
                     map.put(parts.get(0), numbers);
                 } catch (ParseException e) {
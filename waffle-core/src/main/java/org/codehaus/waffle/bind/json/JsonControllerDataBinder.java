@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.bind.json;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.codehaus.waffle.action.ActionMethodInvokerFactory;
+import org.codehaus.waffle.bind.BindErrorMessageResolver;
+import org.codehaus.waffle.bind.ValueConverterFinder;
+import org.codehaus.waffle.bind.ognl.PropertyControllerDataBinder;
+import org.codehaus.waffle.monitor.BindMonitor;
+import org.codehaus.waffle.validation.ErrorsContext;
+
+/**
+ * <p>
+ * ControllerDataBinder implementation which, in addition to the request parameters, binds the body of requests of
+ * content type <code>application/json</code>. The body is read token by token and each value is bound as it is read,
+ * without the document being held in memory.
+ * </p>
+ * <p>
+ * The JSON object is mapped to property names as the request parameters would be: nested objects map to dotted names,
+ * eg <code>{"person":{"address":{"city":"London"}}}</code> binds <code>person.address.city</code>, arrays of
+ * scalar values are bound as multiple values and any other array elements are bound by index, eg
+ * <code>people[0].name</code>. Values are converted by the converters of the {@link ValueConverterFinder} and bind
+ * failures, including malformed documents, are added to the ErrorsContext, as by the
+ * {@link PropertyControllerDataBinder}. Member names which are not Java identifiers are skipped.
+ * </p>
+ */
+public class JsonControllerDataBinder extends PropertyControllerDataBinder {
+    private static final String JSON_CONTENT_TYPE = "application/json";
+    private static final String DEFAULT_ENCODING = "UTF-8";
+    private static final int MAX_DEPTH = 64;
+
+    private final BindMonitor bindMonitor;
+
+    public JsonControllerDataBinder(ValueConverterFinder valueConverterFinder,
+            BindErrorMessageResolver bindErrorMessageResolver, ActionMethodInvokerFactory actionMethodInvokerFactory,
+            BindMonitor bindMonitor) {
+        super(valueConverterFinder, bindErrorMessageResolver, actionMethodInvokerFactory, bindMonitor);
+        this.bindMonitor = bindMonitor;
+    }
+
+    @Override
+    public void bind(HttpServletRequest request, HttpServletResponse response, ErrorsContext errorsContext,
+            Object controller) {
+        super.bind(request, response, errorsContext, controller);
+        if (isJson(request.getContentType())) {
+            JsonBinding binding = new JsonBinding(errorsContext, controller);
+            try {
+                binding.bind(readerOf(request));
+            } catch (IOException e) {
+                bindFailed(binding.path, null, e, errorsContext, controller);
+            }
+        }
+    }
+
+    private boolean isJson(String contentType) {
+        return contentType != null
+                && contentType.regionMatches(true, 0, JSON_CONTENT_TYPE, 0, JSON_CONTENT_TYPE.length());
+    }
+
+    private Reader readerOf(HttpServletRequest request) throws IOException {
+        if (request.getCharacterEncoding() == null) {
+            return new InputStreamReader(request.getInputStream(), DEFAULT_ENCODING);
+        }
+        return request.getReader();
+    }
+
+    private boolean isIdentifier(String name) {
+        if (name.length() == 0 || !Character.isJavaIdentifierStart(name.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < name.length(); i++) {
+            if (!Character.isJavaIdentifierPart(name.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Holds the state of the binding of a JSON document, ie the path of the value being read
+     */
+    private class JsonBinding {
+        private final ErrorsContext errorsContext;
+        private final Object controller;
+        private String path = "";
+
+        JsonBinding(ErrorsContext errorsContext, Object controller) {
+            this.errorsContext = errorsContext;
+            this.controller = controller;
+        }
+
+        void bind(Reader reader) throws IOException {
+            JsonReader jsonReader = new JsonReader(reader, MAX_DEPTH);
+            if (jsonReader.peek() != -1) {
+                readObject(jsonReader, null);
+                jsonReader.endDocument();
+            }
+        }
+
+        private void readObject(JsonReader reader, String prefix) throws IOException {
+            if (!reader.beginObject()) {
+                return;
+            }
+            do {
+                String name = reader.readName();
+                String memberPath = prefix == null ? name : prefix + '.' + name;
+                if (!isIdentifier(name) || (prefix == null && !isBindable(name, controller))) {
+                    bindMonitor.controllerValueSkipped(memberPath, controller);
+                    reader.skipValue();
+                } else {
+                    readValue(reader, memberPath);
+                }
+            } while (reader.hasNext('}'));
+        }
+
+        private void readValue(JsonReader reader, String valuePath) throws IOException {
+            path = valuePath;
+            int c = reader.peek();
+            if (c == '{') {
+                readObject(reader, valuePath);
+            } else if (c == '[') {
+                readArray(reader, valuePath);
+            } else {
+                bindValue(valuePath, reader.readScalar(), errorsContext, controller);
+            }
+        }
+
+        /**
+         * Binds arrays of scalar values as multiple values, and the elements of any other array by index
+         */
+        private void readArray(JsonReader reader, String arrayPath) throws IOException {
+            List<String> values = new ArrayList<String>();
+            boolean scalars = true;
+            if (reader.beginArray()) {
+                int index = 0;
+                do {
+                    int c = reader.peek();
+                    if (scalars && c != '{' && c != '[') {
+                        values.add(reader.readScalar());
+                    } else {
+                        if (scalars) {
+                            for (int i = 0; i < values.size(); i++) {
+                                bindValue(elementPath(arrayPath, i), values.get(i), errorsContext, controller);
+                            }
+                            scalars = false;
+                        }
+                        readValue(reader, elementPath(arrayPath, index));
+                    }
+                    index++;
+                } while (reader.hasNext(']'));
+            }
+            if (scalars) {
+                path = arrayPath;
+                bindValues(arrayPath, values.toArray(new String[values.size()]), errorsContext, controller);
+            }
+        }
+
+        private String elementPath(String arrayPath, int index) {
+            return arrayPath + '[' + index + ']';
+        }
+    }
+
+}
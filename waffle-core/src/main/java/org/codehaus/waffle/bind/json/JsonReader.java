@@ -0,0 +1,309 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.bind.json;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads a JSON document from a Reader one token at a time, without holding the document in memory. Only the name or
+ * scalar value being read is materialised as a String.
+ */
+class JsonReader {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final int maxDepth;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private long offset;
+    private int depth;
+
+    JsonReader(Reader reader, int maxDepth) {
+        this.reader = reader;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Returns the next character which is not whitespace, without consuming it, or -1 at the end of the document
+     */
+    int peek() throws IOException {
+        while (true) {
+            if (position == limit && !fill()) {
+                return -1;
+            }
+            char c = buffer[position];
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return c;
+            }
+            position++;
+        }
+    }
+
+    /**
+     * Consumes the opening brace of an object, returning <code>true</code> if the object has members
+     */
+    boolean beginObject() throws IOException {
+        return begin('{', '}');
+    }
+
+    /**
+     * Consumes the opening bracket of an array, returning <code>true</code> if the array has elements
+     */
+    boolean beginArray() throws IOException {
+        return begin('[', ']');
+    }
+
+    private boolean begin(char opening, char closing) throws IOException {
+        expect(opening);
+        if (++depth > maxDepth) {
+            throw syntaxError("Nesting deeper than " + maxDepth);
+        }
+        if (peek() == closing) {
+            position++;
+            depth--;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Consumes the separator between members or elements, returning <code>true</code> if there is a next one, or the
+     * closing character, returning <code>false</code>
+     */
+    boolean hasNext(char closing) throws IOException {
+        int c = peek();
+        if (c == ',') {
+            position++;
+            return true;
+        } else if (c == closing) {
+            position++;
+            depth--;
+            return false;
+        }
+        throw syntaxError("Expected ',' or '" + closing + "'");
+    }
+
+    /**
+     * Reads a member name, followed by its ':' separator
+     */
+    String readName() throws IOException {
+        if (peek() != '"') {
+            throw syntaxError("Expected member name");
+        }
+        String name = readString();
+        expect(':');
+        return name;
+    }
+
+    /**
+     * Reads a string, number, boolean or null value, returning the text of the value or <code>null</code>
+     */
+    String readScalar() throws IOException {
+        int c = peek();
+        if (c == '"') {
+            return readString();
+        }
+        String literal = readLiteral();
+        if (literal.equals("null")) {
+            return null;
+        }
+        if (literal.equals("true") || literal.equals("false") || isNumber(literal)) {
+            return literal;
+        }
+        throw syntaxError("Unexpected value '" + literal + "'");
+    }
+
+    /**
+     * Skips the next value, of any type, without materialising it
+     */
+    void skipValue() throws IOException {
+        int c = peek();
+        if (c == '{') {
+            if (beginObject()) {
+                do {
+                    skipString();
+                    expect(':');
+                    skipValue();
+                } while (hasNext('}'));
+            }
+        } else if (c == '[') {
+            if (beginArray()) {
+                do {
+                    skipValue();
+                } while (hasNext(']'));
+            }
+        } else if (c == '"') {
+            skipString();
+        } else {
+            readScalar();
+        }
+    }
+
+    /**
+     * Verifies that nothing but whitespace follows the value read
+     */
+    void endDocument() throws IOException {
+        if (peek() != -1) {
+            throw syntaxError("Unexpected content after document");
+        }
+    }
+
+    private void expect(char expected) throws IOException {
+        int c = peek();
+        if (c != expected) {
+            throw syntaxError("Expected '" + expected + "'");
+        }
+        position++;
+    }
+
+    private String readString() throws IOException {
+        position++; // opening quote
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            if (position == limit && !fill()) {
+                throw syntaxError("Unterminated string");
+            }
+            char c = buffer[position++];
+            if (c == '"') {
+                return sb.toString();
+            } else if (c == '\\') {
+                sb.append(readEscaped());
+            } else if (c < 0x20) {
+                throw syntaxError("Unescaped control character in string");
+            } else {
+                sb.append(c);
+            }
+        }
+    }
+
+    private void skipString() throws IOException {
+        if (peek() != '"') {
+            throw syntaxError("Expected member name");
+        }
+        position++;
+        while (true) {
+            if (position == limit && !fill()) {
+                throw syntaxError("Unterminated string");
+            }
+            char c = buffer[position++];
+            if (c == '"') {
+                return;
+            } else if (c == '\\') {
+                readEscaped();
+            }
+        }
+    }
+
+    private char readEscaped() throws IOException {
+        char c = read();
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0) {
+                        throw syntaxError("Invalid unicode escape");
+                    }
+                    value = value * 16 + digit;
+                }
+                return (char) value;
+            default:
+                throw syntaxError("Invalid escape '\\" + c + "'");
+        }
+    }
+
+    private String readLiteral() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        while (position < limit || fill()) {
+            char c = buffer[position];
+            if ((c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || c == '-' || c == '+' || c == '.' || c == 'E') {
+                sb.append(c);
+                position++;
+            } else {
+                break;
+            }
+        }
+        if (sb.length() == 0) {
+            throw syntaxError(position < limit ? "Unexpected character '" + buffer[position] + "'"
+                    : "Unexpected end of document");
+        }
+        return sb.toString();
+    }
+
+    private boolean isNumber(String literal) {
+        int i = literal.charAt(0) == '-' ? 1 : 0;
+        int digits = skipDigits(literal, i);
+        if (digits == i || (literal.charAt(i) == '0' && digits > i + 1)) {
+            return false;
+        }
+        i = digits;
+        if (i < literal.length() && literal.charAt(i) == '.') {
+            digits = skipDigits(literal, ++i);
+            if (digits == i) {
+                return false;
+            }
+            i = digits;
+        }
+        if (i < literal.length() && (literal.charAt(i) == 'e' || literal.charAt(i) == 'E')) {
+            i++;
+            if (i < literal.length() && (literal.charAt(i) == '+' || literal.charAt(i) == '-')) {
+                i++;
+            }
+            digits = skipDigits(literal, i);
+            if (digits == i) {
+                return false;
+            }
+            i = digits;
+        }
+        return i == literal.length();
+    }
+
+    private int skipDigits(String literal, int start) {
+        int i = start;
+        while (i < literal.length() && literal.charAt(i) >= '0' && literal.charAt(i) <= '9') {
+            i++;
+        }
+        return i;
+    }
+
+    private char read() throws IOException {
+        if (position == limit && !fill()) {
+            throw syntaxError("Unexpected end of document");
+        }
+        return buffer[position++];
+    }
+
+    private boolean fill() throws IOException {
+        offset += limit;
+        position = 0;
+        limit = 0;
+        int read = reader.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        limit = read;
+        return true;
+    }
+
+    IOException syntaxError(String message) {
+        return new IOException(message + " at character " + (offset + position));
+    }
+
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.bind.ognl;
+
+public class DefaultOgnlControllerDataBinderConfig implements OgnlControllerDataBinderConfig {
+    static final int DEFAULT_MAX_CACHED_EXPRESSIONS = 1024;
+    static final boolean DEFAULT_COMPILE_EXPRESSIONS = false;
+
+    private int maxCachedExpressions;
+    private boolean compileExpressions;
+
+    public DefaultOgnlControllerDataBinderConfig() {
+        this(DEFAULT_MAX_CACHED_EXPRESSIONS, DEFAULT_COMPILE_EXPRESSIONS);
+    }
+
+    public DefaultOgnlControllerDataBinderConfig(int maxCachedExpressions, boolean compileExpressions) {
+        this.maxCachedExpressions = maxCachedExpressions;
+        this.compileExpressions = compileExpressions;
+    }
+
+    public int getMaxCachedExpressions() {
+        return maxCachedExpressions;
+    }
+
+    public boolean compileExpressions() {
+        return compileExpressions;
+    }
+
+}
@@ -3,13 +3,23 @@
  */
 package org.codehaus.waffle.bind.ognl;
 
+import java.lang.reflect.Array;
 import java.lang.reflect.Member;
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import ognl.TypeConverter;
 
+import org.codehaus.waffle.bind.MultiValueConverter;
 import org.codehaus.waffle.bind.ValueConverter;
 import org.codehaus.waffle.bind.ValueConverterFinder;
 import org.codehaus.waffle.monitor.BindMonitor;
@@ -19,6 +29,10 @@ import org.codehaus.waffle.monitor.SilentMonitor;
  * An implementation of Ognl's <code>TypeConverter</code> which delegates to 
  * <code>ValueConverter</code>'s registered per application and retrieved via the the
  * <code>ValueConverterFinder</code>.  
+ * <p/>
+ * Multiple values are passed as a <code>String[]</code> to {@link MultiValueConverter}s. If no specific converter
+ * is registered for the type, values of array, <code>List</code>, <code>Set</code> and <code>Collection</code> types
+ * are converted element by element.
  * 
  * @author Michael Ward
  * @author Mauro Talevi
@@ -26,6 +40,7 @@ import org.codehaus.waffle.monitor.SilentMonitor;
 public class DelegatingTypeConverter implements TypeConverter {
     private final ValueConverterFinder valueConverterFinder;
     private final BindMonitor bindMonitor;
+    private final ConcurrentMap<Method, Type> genericParameterTypes = new ConcurrentHashMap<Method, Type>();
 
     public DelegatingTypeConverter() {
         this(new OgnlValueConverterFinder(), new SilentMonitor());
@@ -53,13 +68,23 @@ public class DelegatingTypeConverter implements TypeConverter {
     @SuppressWarnings("unchecked")
     public Object convertValue(Map context, Object target, Member member, String propertyName, Object value,
             Class toType) {
-        return convertValue(propertyName, (String) value, genericParameterTypeFor((Method) member));
+        Type type = genericParameterTypeFor((Method) member);
+        if (value instanceof String[]) {
+            return convertValues(propertyName, (String[]) value, type);
+        }
+        return convertValue(propertyName, (String) value, type);
     }
 
     private Type genericParameterTypeFor(Method method) {
+        Type type = genericParameterTypes.get(method);
+        if (type != null) {
+            bindMonitor.genericParameterTypeFound(type, method);
+            return type;
+        }
         Type[] parameterTypes = method.getGenericParameterTypes();
         if (parameterTypes.length > 0) {
-            Type type = parameterTypes[0];
+            type = parameterTypes[0];
+            genericParameterTypes.putIfAbsent(method, type);
             bindMonitor.genericParameterTypeFound(type, method);
             return type;
         }
@@ -87,4 +112,95 @@ public class DelegatingTypeConverter implements TypeConverter {
         }
     }
 
+    /**
+     * Simplified entry point for the conversion of multiple values
+     * 
+     * @param propertyName property name being set
+     * @param values values to be converted
+     * @param type Type to which values are converted
+     * @return Converted value Object for type or the values joined as CSV if no converter found
+     */
+    public Object convertValues(String propertyName, String[] values, Type type) {
+        ValueConverter converter = valueConverterFinder.findConverter(type);
+
+        if (converter instanceof MultiValueConverter) {
+            bindMonitor.valueConverterFound(type, converter);
+            return ((MultiValueConverter) converter).convertValues(propertyName, values, type);
+        }
+        if (converter == null || converter instanceof OgnlValueConverter) {
+            Type elementType = elementTypeOf(type);
+            if (elementType != null) {
+                return convertElements(propertyName, values, type, elementType);
+            }
+        }
+        // converters of single values receive the values joined as CSV
+        return convertValue(propertyName, join(values), type);
+    }
+
+    /**
+     * Returns the element type of array, List, Set and Collection types, or <code>null</code> for other types
+     */
+    private Type elementTypeOf(Type type) {
+        if (type instanceof Class) {
+            Class<?> rawType = (Class<?>) type;
+            if (rawType.isArray()) {
+                return rawType.getComponentType();
+            }
+            return isCollection(rawType) ? String.class : null;
+        }
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType) type;
+            Type elementType = parameterizedType.getActualTypeArguments()[0];
+            if (isCollection(parameterizedType.getRawType())
+                    && (elementType instanceof Class || elementType instanceof ParameterizedType)) {
+                return elementType;
+            }
+        }
+        return null;
+    }
+
+    private boolean isCollection(Type rawType) {
+        return rawType == List.class || rawType == Set.class || rawType == Collection.class;
+    }
+
+    private Object convertElements(String propertyName, String[] values, Type type, Type elementType) {
+        if (elementType == String.class && type == String[].class) {
+            return values.clone();
+        }
+        ValueConverter converter = elementType == String.class ? null : valueConverterFinder.findConverter(elementType);
+        if (converter != null) {
+            bindMonitor.valueConverterFound(elementType, converter);
+        } else if (elementType != String.class) {
+            bindMonitor.valueConverterNotFound(elementType);
+        }
+        if (type instanceof Class && ((Class<?>) type).isArray()) {
+            Object array = Array.newInstance((Class<?>) elementType, values.length);
+            for (int i = 0; i < values.length; i++) {
+                Array.set(array, i, convertElement(converter, propertyName, values[i], elementType));
+            }
+            return array;
+        }
+        Class<?> rawType = (Class<?>) (type instanceof ParameterizedType ? ((ParameterizedType) type).getRawType() : type);
+        Collection<Object> collection = rawType == Set.class ? new LinkedHashSet<Object>() : new ArrayList<Object>();
+        for (String value : values) {
+            collection.add(convertElement(converter, propertyName, value, elementType));
+        }
+        return collection;
+    }
+
+    private Object convertElement(ValueConverter converter, String propertyName, String value, Type elementType) {
+        return converter != null ? converter.convertValue(propertyName, value, elementType) : value;
+    }
+
+    private String join(String[] values) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(values[i]);
+        }
+        return sb.toString();
+    }
+
 }
@@ -3,17 +3,30 @@
  */
 package org.codehaus.waffle.bind.ognl;
 
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import ognl.InappropriateExpressionException;
 import ognl.NoSuchPropertyException;
+import ognl.Node;
 import ognl.Ognl;
+import ognl.OgnlContext;
 import ognl.OgnlException;
 import ognl.TypeConverter;
+import ognl.enhance.ExpressionAccessor;
 
 import org.codehaus.waffle.bind.BindErrorMessageResolver;
 import org.codehaus.waffle.bind.BindException;
@@ -26,21 +39,47 @@ import org.codehaus.waffle.validation.ErrorsContext;
 /**
  * ControllerDataBinder implementation backed by <a href="http://www.ognl.org">Object Graph Notation Language</a>. The
  * {@link TypeConverter} allows for any custom conversion to be defined.
+ * <p/>
+ * The parsed expressions are cached, up to the maximum number configured by the
+ * {@link OgnlControllerDataBinderConfig}. Optionally, the expressions reading the bound values are compiled to
+ * bytecode, for each controller type. The values are always set via the parsed expressions, so that the conversion
+ * goes through the {@link TypeConverter}.
+ * <p/>
+ * Parameters whose name is not rooted in a property or public field of the controller are skipped, without being
+ * evaluated as expressions.
+ * <p/>
+ * Parameters with multiple values are bound as a <code>String[]</code>, which is passed to the
+ * {@link org.codehaus.waffle.bind.MultiValueConverter}s or converted element by element for array and collection
+ * types. The values are only joined as CSV for converters of single values and for bind error messages.
  * 
  * @author Michael Ward
  * @author Mauro Talevi
  */
 public class OgnlControllerDataBinder implements ControllerDataBinder {
     private static final String COMMA = ",";
+    private static final Object NOT_COMPILABLE = new Object();
     private final TypeConverter typeConverter;
     private final BindErrorMessageResolver bindErrorMessageResolver;
     private final BindMonitor bindMonitor;
+    private final int maxCachedExpressions;
+    private final boolean compileExpressions;
+    private final ConcurrentMap<String, Object> expressions = new ConcurrentHashMap<String, Object>();
+    private final ConcurrentMap<Class<?>, ConcurrentMap<String, Object>> compiledExpressions = new ConcurrentHashMap<Class<?>, ConcurrentMap<String, Object>>();
+    private final ConcurrentMap<Class<?>, Set<String>> bindableProperties = new ConcurrentHashMap<Class<?>, Set<String>>();
 
     public OgnlControllerDataBinder(ValueConverterFinder valueConverterFinder,
             BindErrorMessageResolver bindErrorMessageResolver, BindMonitor bindMonitor) {
+        this(valueConverterFinder, bindErrorMessageResolver, new DefaultOgnlControllerDataBinderConfig(), bindMonitor);
+    }
+
+    public OgnlControllerDataBinder(ValueConverterFinder valueConverterFinder,
+            BindErrorMessageResolver bindErrorMessageResolver, OgnlControllerDataBinderConfig configuration,
+            BindMonitor bindMonitor) {
         this.typeConverter = new DelegatingTypeConverter(valueConverterFinder, bindMonitor);
         this.bindErrorMessageResolver = bindErrorMessageResolver;
         this.bindMonitor = bindMonitor;
+        this.maxCachedExpressions = configuration.getMaxCachedExpressions();
+        this.compileExpressions = configuration.compileExpressions();
     }
 
     @SuppressWarnings( { "unchecked" })
@@ -50,33 +89,143 @@ public class OgnlControllerDataBinder implements ControllerDataBinder {
 
         while (parameterNames.hasMoreElements()) {
             String parameterName = parameterNames.nextElement();
-            String parameterValue = csvParameterValue(request, parameterName);
+            String[] parameterValues = request.getParameterValues(parameterName);
+
+            if (parameterValues != null && parameterValues.length > 1) {
+                bindValues(parameterName, parameterValues, errorsContext, controller);
+            } else {
+                bindValue(parameterName, csvParameterValue(parameterValues), errorsContext, controller);
+            }
+        }
+    }
+
+    /**
+     * Binds a single value to the controller, unless the name is not bindable. Bind failures are added to the
+     * ErrorsContext.
+     * 
+     * @param name the property name
+     * @param value the String value
+     * @param errorsContext the ErrorsContext
+     * @param controller the controller instance
+     */
+    protected void bindValue(String name, String value, ErrorsContext errorsContext, Object controller) {
+        bind(name, value, errorsContext, controller);
+    }
+
+    /**
+     * Binds multiple values to the controller, unless the name is not bindable. Bind failures are added to the
+     * ErrorsContext, with the values joined as CSV.
+     * 
+     * @param name the property name
+     * @param values the String values
+     * @param errorsContext the ErrorsContext
+     * @param controller the controller instance
+     */
+    protected void bindValues(String name, String[] values, ErrorsContext errorsContext, Object controller) {
+        bind(name, values, errorsContext, controller);
+    }
+
+    private void bind(String name, Object value, ErrorsContext errorsContext, Object controller) {
+        if (!isBindable(name, controller)) {
+            bindMonitor.controllerValueSkipped(name, controller);
+            return;
+        }
+
+        try {
+            Object dataValue;
+            if (value instanceof String[]) {
+                dataValue = handleConvert(name, (String[]) value, controller);
+            } else {
+                dataValue = handleConvert(name, (String) value, controller);
+            }
+            bindMonitor.controllerValueBound(name, dataValue, controller);
+        } catch (OgnlException e) {
+            bindFailed(name, csvValue(value), e, errorsContext, controller);
+        } catch (BindException e) {
+            // by convention BindExceptions should provide the correct bind error message to display to the end-user
+            BindErrorMessage errorMessage = new BindErrorMessage(name, csvValue(value), e.getMessage(), e);
+            errorsContext.addErrorMessage(errorMessage);
+            bindMonitor.controllerBindFailed(controller, errorMessage, e);
+        }
+    }
+
+    /**
+     * Adds the bind error, with the message resolved by the {@link BindErrorMessageResolver}, to the ErrorsContext.
+     * 
+     * @param name the property name
+     * @param value the value which failed to bind
+     * @param cause the cause of the failure
+     * @param errorsContext the ErrorsContext
+     * @param controller the controller instance
+     */
+    protected void bindFailed(String name, String value, Exception cause, ErrorsContext errorsContext,
+            Object controller) {
+        String message = bindErrorMessageResolver.resolve(controller, name, value);
+        BindErrorMessage errorMessage = new BindErrorMessage(name, value, message, cause);
+        errorsContext.addErrorMessage(errorMessage);
+        bindMonitor.controllerBindFailed(controller, errorMessage, cause);
+    }
+
+    private String csvValue(Object value) {
+        return value instanceof String[] ? csvParameterValue((String[]) value) : (String) value;
+    }
+
+    /**
+     * Determines if the parameter name can be bound to the controller, ie if the root of the name is a property or a
+     * public field of the controller. Map controllers accept any name.
+     * 
+     * @param parameterName the parameter name
+     * @param controller the controller instance
+     * @return A boolean <code>true</code> if bindable
+     */
+    protected boolean isBindable(String parameterName, Object controller) {
+        if (controller == null || controller instanceof Map) {
+            return true;
+        }
+        int end = 0;
+        while (end < parameterName.length() && Character.isJavaIdentifierPart(parameterName.charAt(end))) {
+            end++;
+        }
+        if (end == 0) {
+            return false;
+        }
+        String root = end == parameterName.length() ? parameterName : parameterName.substring(0, end);
+        return bindablePropertiesOf(controller.getClass()).contains(root);
+    }
 
+    private Set<String> bindablePropertiesOf(Class<?> type) {
+        Set<String> properties = bindableProperties.get(type);
+        if (properties == null) {
+            properties = new HashSet<String>();
             try {
-                Object dataValue = handleConvert(parameterName, parameterValue, controller);
-                bindMonitor.controllerValueBound(parameterName, dataValue, controller);
-            } catch (OgnlException e) {
-                String message = bindErrorMessageResolver.resolve(controller, parameterName, parameterValue);
-                BindErrorMessage errorMessage = new BindErrorMessage(parameterName, parameterValue, message, e);
-                errorsContext.addErrorMessage(errorMessage);
-                bindMonitor.controllerBindFailed(controller, errorMessage, e);
-            } catch (BindException e) {
-                // by convention BindExceptions should provide the correct bind error message to display to the end-user
-                BindErrorMessage errorMessage = new BindErrorMessage(parameterName, parameterValue, e.getMessage(), e);
-                errorsContext.addErrorMessage(errorMessage);
-                bindMonitor.controllerBindFailed(controller, errorMessage, e);
+                BeanInfo beanInfo = Introspector.getBeanInfo(type);
+                for (PropertyDescriptor descriptor : beanInfo.getPropertyDescriptors()) {
+                    if (descriptor.getReadMethod() != null || descriptor.getWriteMethod() != null) {
+                        properties.add(descriptor.getName());
+                    }
+                }
+            } catch (IntrospectionException e) {
+                // only public fields are bindable
+            }
+            for (Field field : type.getFields()) {
+                properties.add(field.getName());
             }
+            properties = Collections.unmodifiableSet(properties);
+            bindableProperties.putIfAbsent(type, properties);
         }
+        return properties;
     }
 
     /**
      * Looks for multiple parameter values and join them if found
      */
-    private String csvParameterValue(HttpServletRequest request, String name) {
-        String[] values = request.getParameterValues(name);
+    private String csvParameterValue(String[] values) {
         if (values == null) {
             return null;
         }
+        if (values.length == 1) {
+            return values[0];
+        }
         // Joining a single value will return the equivalent of request.getParameter(name)
         return join(values, COMMA);
     }
@@ -93,14 +242,44 @@ public class OgnlControllerDataBinder implements ControllerDataBinder {
         return sb.toString();
     }
 
-    @SuppressWarnings("unchecked")
     protected Object handleConvert(String propertyName, String parameterValue, Object controller) throws OgnlException,
             BindException {
+        return convert(propertyName, parameterValue, controller);
+    }
+
+    /**
+     * Binds the multiple values of a parameter, passing them to the {@link TypeConverter} as a <code>String[]</code>.
+     * 
+     * @param propertyName the property name
+     * @param parameterValues the parameter values
+     * @param controller the controller instance
+     * @return The bound value
+     * @throws OgnlException if the value cannot be bound
+     * @throws BindException if the value cannot be converted
+     */
+    protected Object handleConvert(String propertyName, String[] parameterValues, Object controller)
+            throws OgnlException, BindException {
+        return convert(propertyName, parameterValues, controller);
+    }
+
+    private Object convert(String propertyName, Object parameterValue, Object controller) throws OgnlException,
+            BindException {
         try {
-            Object tree = Ognl.parseExpression(propertyName);
-            Map ognlContext = Ognl.createDefaultContext(controller);
+            Object tree = parseExpression(propertyName);
+            OgnlContext ognlContext = (OgnlContext) Ognl.createDefaultContext(controller);
             Ognl.setTypeConverter(ognlContext, typeConverter);
             Ognl.setValue(tree, ognlContext, controller, parameterValue);
+            if (compileExpressions) {
+                ExpressionAccessor accessor = compiledExpression(propertyName, ognlContext, controller);
+                if (accessor != null) {
+                    try {
+                        return accessor.get(ognlContext, controller);
+                    } catch (RuntimeException e) {
+                        // compiled for other runtime types of the nested values
+                        notCompilable(propertyName, controller);
+                    }
+                }
+            }
             return Ognl.getValue(tree, ognlContext, controller);
         } catch (NoSuchPropertyException ignore) {
             // ignore NoSuchPropertyException
@@ -115,4 +294,57 @@ public class OgnlControllerDataBinder implements ControllerDataBinder {
         return parameterValue;
     }
 
+    private Object parseExpression(String expression) throws OgnlException {
+        Object tree = expressions.get(expression);
+        if (tree == null) {
+            tree = Ognl.parseExpression(expression);
+            if (expressions.size() < maxCachedExpressions) {
+                expressions.putIfAbsent(expression, tree);
+            }
+        }
+        return tree;
+    }
+
+    /**
+     * Returns the accessor compiled for the controller type, or <code>null</code> if the expression cannot be
+     * compiled or the cache is full. Compilation uses the bound values of the controller, so it is only attempted once
+     * the value has been set. The expressions which cannot be compiled are cached as NOT_COMPILABLE.
+     */
+    private ExpressionAccessor compiledExpression(String expression, OgnlContext ognlContext, Object controller) {
+        Class<?> type = controller.getClass();
+        ConcurrentMap<String, Object> accessors = compiledExpressions.get(type);
+        if (accessors == null) {
+            accessors = new ConcurrentHashMap<String, Object>();
+            ConcurrentMap<String, Object> existing = compiledExpressions.putIfAbsent(type, accessors);
+            if (existing != null) {
+                accessors = existing;
+            }
+        }
+        Object accessor = accessors.get(expression);
+        if (accessor == null) {
+            if (accessors.size() >= maxCachedExpressions) {
+                return null;
+            }
+            try {
+                Node node = Ognl.compileExpression(ognlContext, controller, expression);
+                accessor = node.getAccessor() != null ? node.getAccessor() : NOT_COMPILABLE;
+            } catch (Exception e) {
+                accessor = NOT_COMPILABLE;
+            }
+            accessors.putIfAbsent(expression, accessor);
+        }
+        return accessor != NOT_COMPILABLE ? (ExpressionAccessor) accessor : null;
+    }
+
+    /**
+     * Marks the expression as NOT_COMPILABLE for the controller type, once its compiled accessor failed on values of
+     * other runtime types than the ones it was compiled against.
+     */
+    private void notCompilable(String expression, Object controller) {
+        ConcurrentMap<String, Object> accessors = compiledExpressions.get(controller.getClass());
+        if (accessors != null) {
+            accessors.put(expression, NOT_COMPILABLE);
+        }
+    }
+
 }
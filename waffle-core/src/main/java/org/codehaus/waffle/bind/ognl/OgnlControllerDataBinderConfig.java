@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.bind.ognl;
+
+/**
+ * Holds the configuration of the {@link OgnlControllerDataBinder}
+ */
+public interface OgnlControllerDataBinderConfig {
+
+    /**
+     * Returns the maximum number of parsed expressions to cache. As the expressions are the request parameter names,
+     * the cache must be bounded.
+     * 
+     * @return The maximum number of cached expressions
+     */
+    int getMaxCachedExpressions();
+
+    /**
+     * Determines if the expressions are compiled to bytecode, via OGNL's expression compiler, to read the bound values
+     * 
+     * @return A boolean flag
+     */
+    boolean compileExpressions();
+
+}
@@ -6,8 +6,10 @@ package org.codehaus.waffle.bind.ognl;
 import static java.util.Arrays.asList;
 
 import java.lang.reflect.Type;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.codehaus.waffle.bind.ValueConverter;
 import org.codehaus.waffle.bind.ValueConverterFinder;
@@ -21,6 +23,9 @@ import org.codehaus.waffle.bind.converters.EnumValueConverter;
  * <p>
  * Converters can be either injected at instantiation or registered after instantiation.
  * </p>
+ * <p>
+ * The converter found for a type is cached, until a converter is registered.
+ * </p>
  * 
  * @author Michael Ward
  * @author Mauro Talevi
@@ -33,13 +38,14 @@ public class OgnlValueConverterFinder implements ValueConverterFinder {
     private static final List<? extends ValueConverter> INITIAL_CONVERTERS = asList(new EnumValueConverter());
     
     private final List<ValueConverter> converters;
+    private volatile ConcurrentMap<Type, ValueConverter> cache = new ConcurrentHashMap<Type, ValueConverter>();
 
     public OgnlValueConverterFinder() {
         this(new ValueConverter[] {});
     }
 
     public OgnlValueConverterFinder(ValueConverter... converters) {
-        this.converters = new ArrayList<ValueConverter>();
+        this.converters = new CopyOnWriteArrayList<ValueConverter>();
         if (converters != null) {
             this.converters.addAll(asList(converters));
             this.converters.addAll(INITIAL_CONVERTERS);
@@ -49,6 +55,19 @@ public class OgnlValueConverterFinder implements ValueConverterFinder {
     }
 
     public ValueConverter findConverter(Type type) {
+        if (type == null) {
+            return lookupConverter(type);
+        }
+        ConcurrentMap<Type, ValueConverter> cache = this.cache;
+        ValueConverter converter = cache.get(type);
+        if (converter == null) {
+            converter = lookupConverter(type);
+            cache.putIfAbsent(type, converter);
+        }
+        return converter;
+    }
+
+    private ValueConverter lookupConverter(Type type) {
         for (ValueConverter converter : converters) {
             if (converter.accept(type)) {
                 return converter;
@@ -59,6 +78,7 @@ public class OgnlValueConverterFinder implements ValueConverterFinder {
 
     public void registerConverter(ValueConverter converter) {
         converters.add(converter);
+        cache = new ConcurrentHashMap<Type, ValueConverter>();
     }
 
 }
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.bind.ognl;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+import ognl.OgnlException;
+
+import org.codehaus.waffle.action.ActionMethodInvoker;
+import org.codehaus.waffle.action.ActionMethodInvokerFactory;
+import org.codehaus.waffle.bind.BindErrorMessageResolver;
+import org.codehaus.waffle.bind.BindException;
+import org.codehaus.waffle.bind.ValueConverterFinder;
+import org.codehaus.waffle.monitor.BindMonitor;
+
+/**
+ * <p>
+ * ControllerDataBinder implementation which binds simple and dotted property names, eg <code>person.address.city</code>,
+ * by calling the bean property accessors directly, without parsing and evaluating OGNL expressions. The accessors of
+ * each controller type are introspected once and invoked via the {@link ActionMethodInvokerFactory}, which may
+ * generate direct-call invokers.
+ * </p>
+ * <p>
+ * Property names which are not bean property paths of the controller, or whose path cannot be followed, eg because an
+ * intermediate value is <code>null</code> or a Map, are bound by the {@link OgnlControllerDataBinder}. Values are
+ * converted, and bind errors reported, as by the {@link OgnlControllerDataBinder}, with multiple values passed to the
+ * converters as a <code>String[]</code>.
+ * </p>
+ */
+public class PropertyControllerDataBinder extends OgnlControllerDataBinder {
+    private static final Pattern PROPERTY_PATH = Pattern.compile("\\w+(\\.\\w+)*");
+    private static final String[] NOT_A_PATH = new String[0];
+    private static final int MAX_CACHED_PATHS = 1024;
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+    private static final Object NOT_BOUND = new Object();
+
+    private final DelegatingTypeConverter typeConverter;
+    private final ActionMethodInvokerFactory actionMethodInvokerFactory;
+    private final BindMonitor bindMonitor;
+    private final ConcurrentMap<String, String[]> paths = new ConcurrentHashMap<String, String[]>();
+    private final ConcurrentMap<Class<?>, Map<String, PropertyAccessor>> accessors = new ConcurrentHashMap<Class<?>, Map<String, PropertyAccessor>>();
+
+    public PropertyControllerDataBinder(ValueConverterFinder valueConverterFinder,
+            BindErrorMessageResolver bindErrorMessageResolver, ActionMethodInvokerFactory actionMethodInvokerFactory,
+            BindMonitor bindMonitor) {
+        super(valueConverterFinder, bindErrorMessageResolver, bindMonitor);
+        this.typeConverter = new DelegatingTypeConverter(valueConverterFinder, bindMonitor);
+        this.actionMethodInvokerFactory = actionMethodInvokerFactory;
+        this.bindMonitor = bindMonitor;
+    }
+
+    @Override
+    protected Object handleConvert(String propertyName, String parameterValue, Object controller)
+            throws OgnlException, BindException {
+        Object value = bindProperty(propertyName, parameterValue, controller);
+        if (value != NOT_BOUND) {
+            return value;
+        }
+        // default to OGNL binding
+        return super.handleConvert(propertyName, parameterValue, controller);
+    }
+
+    @Override
+    protected Object handleConvert(String propertyName, String[] parameterValues, Object controller)
+            throws OgnlException, BindException {
+        Object value = bindProperty(propertyName, parameterValues, controller);
+        if (value != NOT_BOUND) {
+            return value;
+        }
+        // default to OGNL binding
+        return super.handleConvert(propertyName, parameterValues, controller);
+    }
+
+    /**
+     * Binds the String or String[] parameter value via the property accessors, returning NOT_BOUND if the property
+     * name is not a path which can be followed
+     */
+    private Object bindProperty(String propertyName, Object parameterValue, Object controller) throws OgnlException,
+            BindException {
+        String[] path = pathOf(propertyName);
+        if (path != NOT_A_PATH) {
+            try {
+                Object target = controller;
+                int last = path.length - 1;
+                for (int i = 0; i < last && target != null; i++) {
+                    PropertyAccessor accessor = accessorFor(target, path[i]);
+                    target = accessor != null && accessor.canRead() ? accessor.read(target) : null;
+                }
+                PropertyAccessor accessor = target != null ? accessorFor(target, path[last]) : null;
+                if (accessor != null && accessor.canWrite()) {
+                    Object value = accessor.convert(propertyName, parameterValue);
+                    if (value != null || !accessor.isPrimitive()) {
+                        return accessor.writeAndRead(target, value);
+                    }
+                }
+            } catch (InvocationTargetException e) {
+                throw bindFailed(propertyName, e.getTargetException());
+            } catch (IllegalAccessException e) {
+                throw bindFailed(propertyName, e);
+            }
+        }
+        return NOT_BOUND;
+    }
+
+    private OgnlException bindFailed(String propertyName, Throwable cause) throws BindException {
+        if (cause instanceof BindException) {
+            throw (BindException) cause;
+        }
+        return new OgnlException(propertyName, cause);
+    }
+
+    private String[] pathOf(String propertyName) {
+        String[] path = paths.get(propertyName);
+        if (path == null) {
+            path = PROPERTY_PATH.matcher(propertyName).matches() ? propertyName.split("\\.") : NOT_A_PATH;
+            if (paths.size() < MAX_CACHED_PATHS) {
+                paths.putIfAbsent(propertyName, path);
+            }
+        }
+        return path;
+    }
+
+    private PropertyAccessor accessorFor(Object target, String name) {
+        if (target instanceof Map) {
+            return null; // OGNL binds Map entries as properties
+        }
+        Class<?> type = target.getClass();
+        Map<String, PropertyAccessor> typeAccessors = accessors.get(type);
+        if (typeAccessors == null) {
+            typeAccessors = introspect(type);
+            accessors.putIfAbsent(type, typeAccessors);
+        }
+        return typeAccessors.get(name);
+    }
+
+    private Map<String, PropertyAccessor> introspect(Class<?> type) {
+        Map<String, PropertyAccessor> typeAccessors = new HashMap<String, PropertyAccessor>();
+        try {
+            BeanInfo beanInfo = Introspector.getBeanInfo(type);
+            for (PropertyDescriptor descriptor : beanInfo.getPropertyDescriptors()) {
+                Method reader = publicOrNull(descriptor.getReadMethod());
+                Method writer = publicOrNull(descriptor.getWriteMethod());
+                if (reader != null || writer != null) {
+                    typeAccessors.put(descriptor.getName(), new PropertyAccessor(reader, writer));
+                }
+            }
+        } catch (IntrospectionException e) {
+            // no accessors, all properties are bound via OGNL
+        }
+        return Collections.unmodifiableMap(typeAccessors);
+    }
+
+    /**
+     * Returns the method if the invokers can call it, ie if it is public and declared by a public class, or
+     * <code>null</code> so that the property is bound via OGNL
+     */
+    private Method publicOrNull(Method method) {
+        if (method != null && Modifier.isPublic(method.getModifiers())
+                && Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+            return method;
+        }
+        return null;
+    }
+
+    /**
+     * Holds the read and write methods of a bean property, whose invokers are created on first use
+     */
+    private class PropertyAccessor {
+        private final Method readMethod;
+        private final Method writeMethod;
+        private final Type writeType;
+        private volatile ActionMethodInvoker reader;
+        private volatile ActionMethodInvoker writer;
+
+        PropertyAccessor(Method readMethod, Method writeMethod) {
+            this.readMethod = readMethod;
+            this.writeMethod = writeMethod;
+            this.writeType = writeMethod != null ? writeMethod.getGenericParameterTypes()[0] : null;
+        }
+
+        boolean canRead() {
+            return readMethod != null;
+        }
+
+        boolean canWrite() {
+            return writeMethod != null;
+        }
+
+        Object read(Object target) throws IllegalAccessException, InvocationTargetException {
+            if (reader == null) {
+                reader = actionMethodInvokerFactory.invokerFor(readMethod);
+            }
+            return reader.invoke(target, NO_ARGUMENTS);
+        }
+
+        boolean isPrimitive() {
+            return writeType instanceof Class && ((Class<?>) writeType).isPrimitive();
+        }
+
+        Object convert(String propertyName, Object value) throws InvocationTargetException {
+            bindMonitor.genericParameterTypeFound(writeType, writeMethod);
+            try {
+                if (value instanceof String[]) {
+                    return typeConverter.convertValues(propertyName, (String[]) value, writeType);
+                }
+                return typeConverter.convertValue(propertyName, (String) value, writeType);
+            } catch (RuntimeException e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+
+        Object writeAndRead(Object target, Object value) throws IllegalAccessException, InvocationTargetException {
+            if (writer == null) {
+                writer = actionMethodInvokerFactory.invokerFor(writeMethod);
+            }
+            writer.invoke(target, new Object[] { value });
+            return canRead() ? read(target) : value;
+        }
+    }
+
+}
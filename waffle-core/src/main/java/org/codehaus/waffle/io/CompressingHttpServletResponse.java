@@ -0,0 +1,417 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * <p>
+ * Response wrapper which compresses the content in the gzip or deflate content encoding as it is written. The first
+ * bytes of the content are buffered, until more than the minimum size is written, and the content is compressed only
+ * if larger than the minimum size and not of a content type which is already compressed. The content is not
+ * compressed either if the Content-Range or Content-Encoding headers are set, or if a Content-Length smaller than the
+ * minimum size is set. The Accept-Ranges header is only sent with content which is not compressed, as the ranges are
+ * requested, and sent uncompressed, in the identity encoding.
+ * </p>
+ * <p>
+ * The deflaters and buffers are taken from a {@link DeflaterPool} and must be returned by calling {@link #finish()},
+ * once the content is written, or {@link #release()} if the response fails.
+ * </p>
+ */
+public class CompressingHttpServletResponse extends HttpServletResponseWrapper {
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+    static final String CONTENT_LENGTH_HEADER = "Content-Length";
+    static final String CONTENT_ENCODING_HEADER = "Content-Encoding";
+    static final String CONTENT_RANGE_HEADER = "Content-Range";
+    static final String ACCEPT_RANGES_HEADER = "Accept-Ranges";
+    static final String VARY_HEADER = "Vary";
+    static final String ACCEPT_ENCODING_HEADER = "Accept-Encoding";
+    private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0 };
+
+    private final String encoding;
+    private final boolean gzip;
+    private final int minimumSize;
+    private final String[] uncompressedContentTypes;
+    private final DeflaterPool deflaterPool;
+    private CompressingOutputStream outputStream;
+    private PrintWriter writer;
+    private long contentLength = -1;
+    private String acceptRanges;
+    private boolean uncompressed;
+
+    /**
+     * Creates a CompressingHttpServletResponse
+     * 
+     * @param response the HttpServletResponse to write the content to
+     * @param encoding the content encoding, {@link #GZIP} or {@link #DEFLATE}
+     * @param minimumSize the minimum size of compressed content, which is at most the buffer size of the pool
+     * @param uncompressedContentTypes the content types which are not compressed, or their prefixes ending with '/'
+     * @param deflaterPool the DeflaterPool
+     */
+    public CompressingHttpServletResponse(HttpServletResponse response, String encoding, int minimumSize,
+            String[] uncompressedContentTypes, DeflaterPool deflaterPool) {
+        super(response);
+        this.encoding = encoding;
+        this.gzip = GZIP.equals(encoding);
+        this.minimumSize = Math.min(minimumSize, deflaterPool.getBufferSize());
+        this.uncompressedContentTypes = uncompressedContentTypes;
+        this.deflaterPool = deflaterPool;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called");
+        }
+        return outputStream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (outputStream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called");
+            }
+            writer = new PrintWriter(new OutputStreamWriter(outputStream(), getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    private CompressingOutputStream outputStream() {
+        if (outputStream == null) {
+            outputStream = new CompressingOutputStream();
+        }
+        return outputStream;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        // the response must not be committed before the content encoding is known
+        if (outputStream != null && outputStream.isStarted()) {
+            outputStream.flush();
+            super.flushBuffer();
+        }
+    }
+
+    @Override
+    public void reset() {
+        resetContent();
+        contentLength = -1;
+        acceptRanges = null;
+        uncompressed = false;
+        super.reset();
+    }
+
+    @Override
+    public void resetBuffer() {
+        resetContent();
+        super.resetBuffer();
+    }
+
+    private void resetContent() {
+        if (outputStream != null) {
+            if (outputStream.isStarted()) {
+                throw new IllegalStateException("Content has already been written");
+            }
+            outputStream.buffered = 0;
+        }
+    }
+
+    @Override
+    public void setContentLength(int length) {
+        setContentLength((long) length);
+    }
+
+    private void setContentLength(long length) {
+        if (outputStream != null && outputStream.isStarted()) {
+            if (outputStream.deflater == null) {
+                super.setHeader(CONTENT_LENGTH_HEADER, Long.toString(length));
+            }
+            return;
+        }
+        contentLength = length;
+        if (length < minimumSize) {
+            uncompressed = true;
+        }
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (!intercepted(name, value)) {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (!intercepted(name, value)) {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        if (!intercepted(name, Integer.toString(value))) {
+            super.setIntHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        if (!intercepted(name, Integer.toString(value))) {
+            super.addIntHeader(name, value);
+        }
+    }
+
+    /**
+     * Intercepts the Content-Length header, which is only known once the content is compressed, and disables the
+     * compression of ranges and of content already encoded. The Accept-Ranges header is held until the content
+     * encoding is known and dropped if the content is compressed.
+     */
+    private boolean intercepted(String name, String value) {
+        if (CONTENT_LENGTH_HEADER.equalsIgnoreCase(name)) {
+            try {
+                setContentLength(Long.parseLong(value.trim()));
+                return true;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+        if (ACCEPT_RANGES_HEADER.equalsIgnoreCase(name)) {
+            if (outputStream != null && outputStream.isStarted()) {
+                return outputStream.deflater != null;
+            }
+            acceptRanges = value;
+            return true;
+        }
+        if (CONTENT_RANGE_HEADER.equalsIgnoreCase(name) || CONTENT_ENCODING_HEADER.equalsIgnoreCase(name)) {
+            uncompressed = true;
+        }
+        return false;
+    }
+
+    /**
+     * Writes any buffered content and completes the compressed content, releasing the pooled resources
+     * 
+     * @throws IOException if the content cannot be written
+     */
+    public void finish() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (outputStream != null) {
+            outputStream.finish();
+        } else {
+            setUncompressedHeaders();
+        }
+    }
+
+    /**
+     * Releases the pooled resources, if not released by {@link #finish()}
+     */
+    public void release() {
+        if (outputStream != null) {
+            outputStream.release();
+        }
+    }
+
+    private void setUncompressedHeaders() {
+        if (contentLength >= 0) {
+            super.setHeader(CONTENT_LENGTH_HEADER, Long.toString(contentLength));
+        }
+        if (acceptRanges != null) {
+            super.setHeader(ACCEPT_RANGES_HEADER, acceptRanges);
+        }
+    }
+
+    private boolean isCompressible() {
+        if (uncompressed) {
+            return false;
+        }
+        String contentType = getContentType();
+        if (contentType != null) {
+            int parameters = contentType.indexOf(';');
+            String mediaType = (parameters < 0 ? contentType : contentType.substring(0, parameters)).trim()
+                    .toLowerCase();
+            for (String uncompressedContentType : uncompressedContentTypes) {
+                if (uncompressedContentType.endsWith("/") ? mediaType.startsWith(uncompressedContentType) : mediaType
+                        .equals(uncompressedContentType)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Buffers the first bytes of the content, then writes the content to the wrapped response, compressed or not
+     */
+    private class CompressingOutputStream extends ServletOutputStream {
+        private final byte[] single = new byte[1];
+        private byte[] buffer;
+        private int buffered;
+        private OutputStream target;
+        private Deflater deflater;
+        private byte[] deflated;
+        private CRC32 crc;
+        private long size;
+        private boolean finished;
+
+        boolean isStarted() {
+            return target != null;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            single[0] = (byte) b;
+            write(single, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (finished) {
+                throw new IOException("Stream closed");
+            }
+            if (target == null) {
+                if (!uncompressed && buffered + length <= minimumSize) {
+                    if (buffer == null) {
+                        buffer = deflaterPool.acquireBuffer();
+                    }
+                    System.arraycopy(bytes, offset, buffer, buffered, length);
+                    buffered += length;
+                    return;
+                }
+                start(false);
+            }
+            if (deflater != null) {
+                deflate(bytes, offset, length);
+            } else {
+                target.write(bytes, offset, length);
+            }
+        }
+
+        private void start(boolean finishing) throws IOException {
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            if (!finishing && isCompressible()) {
+                response.setHeader(CONTENT_ENCODING_HEADER, encoding);
+                response.addHeader(VARY_HEADER, ACCEPT_ENCODING_HEADER);
+                target = response.getOutputStream();
+                deflater = deflaterPool.acquireDeflater(gzip);
+                deflated = deflaterPool.acquireBuffer();
+                if (gzip) {
+                    crc = new CRC32();
+                    target.write(GZIP_HEADER);
+                }
+                if (buffered > 0) {
+                    deflate(buffer, 0, buffered);
+                }
+            } else {
+                setUncompressedHeaders();
+                target = response.getOutputStream();
+                if (buffered > 0) {
+                    target.write(buffer, 0, buffered);
+                }
+            }
+            releaseBuffer();
+        }
+
+        private void deflate(byte[] bytes, int offset, int length) throws IOException {
+            deflater.setInput(bytes, offset, length);
+            while (!deflater.needsInput()) {
+                writeDeflated();
+            }
+            if (crc != null) {
+                crc.update(bytes, offset, length);
+            }
+            size += length;
+        }
+
+        private void writeDeflated() throws IOException {
+            int count = deflater.deflate(deflated, 0, deflated.length);
+            if (count > 0) {
+                target.write(deflated, 0, count);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (target != null) {
+                target.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+            target.close();
+        }
+
+        void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            try {
+                if (target == null) {
+                    start(true);
+                }
+                if (deflater != null) {
+                    deflater.finish();
+                    while (!deflater.finished()) {
+                        writeDeflated();
+                    }
+                    if (crc != null) {
+                        writeInt((int) crc.getValue());
+                        writeInt((int) size);
+                    }
+                }
+                target.flush();
+            } finally {
+                release();
+            }
+        }
+
+        /**
+         * Writes the int in little-endian order, as required by the gzip trailer
+         */
+        private void writeInt(int value) throws IOException {
+            target.write(value & 0xff);
+            target.write((value >> 8) & 0xff);
+            target.write((value >> 16) & 0xff);
+            target.write((value >> 24) & 0xff);
+        }
+
+        void release() {
+            finished = true;
+            releaseBuffer();
+            if (deflater != null) {
+                deflaterPool.releaseDeflater(deflater, gzip);
+                deflaterPool.releaseBuffer(deflated);
+                deflater = null;
+                deflated = null;
+            }
+        }
+
+        private void releaseBuffer() {
+            if (buffer != null) {
+                deflaterPool.releaseBuffer(buffer);
+                buffer = null;
+            }
+        }
+    }
+
+}
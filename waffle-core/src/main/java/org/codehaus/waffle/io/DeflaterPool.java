@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.io;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * Thread-safe pool of <code>Deflater</code>s and byte buffers, which are expensive to create per response. At most a
+ * given number of each is pooled: deflaters released when the pool is full are ended, and buffers dropped.
+ */
+public class DeflaterPool {
+    private final int level;
+    private final int bufferSize;
+    private final BlockingQueue<Deflater> gzipDeflaters;
+    private final BlockingQueue<Deflater> zlibDeflaters;
+    private final BlockingQueue<byte[]> buffers;
+
+    /**
+     * Creates a DeflaterPool
+     * 
+     * @param level the compression level of the deflaters
+     * @param bufferSize the size of the buffers
+     * @param capacity the maximum number of deflaters of each format and of buffers pooled
+     */
+    public DeflaterPool(int level, int bufferSize, int capacity) {
+        this.level = level;
+        this.bufferSize = bufferSize;
+        this.gzipDeflaters = new ArrayBlockingQueue<Deflater>(capacity);
+        this.zlibDeflaters = new ArrayBlockingQueue<Deflater>(capacity);
+        this.buffers = new ArrayBlockingQueue<byte[]>(2 * capacity);
+    }
+
+    /**
+     * Returns a deflater, writing raw deflate data for the gzip format or the zlib format otherwise
+     * 
+     * @param gzip <code>true</code> for the gzip format
+     * @return A Deflater
+     */
+    public Deflater acquireDeflater(boolean gzip) {
+        Deflater deflater = (gzip ? gzipDeflaters : zlibDeflaters).poll();
+        return deflater != null ? deflater : new Deflater(level, gzip);
+    }
+
+    public void releaseDeflater(Deflater deflater, boolean gzip) {
+        deflater.reset();
+        if (!(gzip ? gzipDeflaters : zlibDeflaters).offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    public byte[] acquireBuffer() {
+        byte[] buffer = buffers.poll();
+        return buffer != null ? buffer : new byte[bufferSize];
+    }
+
+    public void releaseBuffer(byte[] buffer) {
+        buffers.offer(buffer);
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+}
@@ -24,9 +24,11 @@ import javax.servlet.http.HttpServletResponse;
 import org.codehaus.waffle.WaffleException;
 import org.codehaus.waffle.action.ActionMethodResponse;
 import org.codehaus.waffle.action.MethodDefinition;
+import org.codehaus.waffle.action.intercept.MethodInterceptor;
 import org.codehaus.waffle.action.HierarchicalArgumentResolver.Scope;
 import org.codehaus.waffle.bind.ValueConverter;
 import org.codehaus.waffle.controller.ControllerDefinition;
+import org.codehaus.waffle.servlet.StageTimer;
 import org.codehaus.waffle.validation.BindErrorMessage;
 import org.codehaus.waffle.view.RedirectView;
 import org.codehaus.waffle.view.ResponderView;
@@ -40,12 +42,22 @@ import org.codehaus.waffle.view.View;
 public abstract class AbstractWritingMonitor implements ActionMonitor, BindMonitor, ContextMonitor, ControllerMonitor,
         ServletMonitor, ValidationMonitor, ViewMonitor, Monitor {
 
-    private Map<String, Level> levels;
-    private Map<String, String> messages;
+    private final Map<String, Event> events;
     
     protected AbstractWritingMonitor(){
-        this.levels = monitorLevels();
-        this.messages = monitorMessages();
+        this.events = events(monitorLevels(), monitorMessages());
+    }
+
+    /**
+     * Resolves the level and message template of each event once, so that writing an event takes a single lookup
+     */
+    private Map<String, Event> events(Map<String, Level> levels, Map<String, String> messages) {
+        Map<String, Event> events = new HashMap<String, Event>();
+        for (Map.Entry<String, String> message : messages.entrySet()) {
+            Level level = levels.get(message.getKey());
+            events.put(message.getKey(), new Event(level != null ? level : Level.INFO, message.getValue()));
+        }
+        return events;
     }
    
     /**
@@ -64,6 +76,9 @@ public abstract class AbstractWritingMonitor implements ActionMonitor, BindMonit
         levels.put("actionMethodFound", INFO);
         levels.put("actionMethodExecuted", INFO);
         levels.put("actionMethodExecutionFailed", WARN);
+        levels.put("actionMethodTimed", DEBUG);
+        levels.put("methodInterceptorTimed", DEBUG);
+        levels.put("actionMethodInvokerNotGenerated", WARN);
         levels.put("methodNameResolved", INFO);
         levels.put("methodIntercepted", INFO);
         levels.put("argumentNameResolved", INFO);
@@ -74,6 +89,7 @@ public abstract class AbstractWritingMonitor implements ActionMonitor, BindMonit
         levels.put("viewValueBound", DEBUG);
         levels.put("controllerBindFailed", WARN);
         levels.put("controllerValueBound", DEBUG);
+        levels.put("controllerValueSkipped", DEBUG);
         levels.put("genericParameterTypeFound", DEBUG);
         levels.put("genericParameterTypeNotFound", DEBUG);
         levels.put("valueConverterFound", DEBUG);
@@ -97,6 +113,7 @@ public abstract class AbstractWritingMonitor implements ActionMonitor, BindMonit
         levels.put("servletInitialized", INFO);
         levels.put("servletServiceFailed", WARN);
         levels.put("servletServiceRequested", DEBUG);
+        levels.put("servletServiceTimed", DEBUG);
         levels.put("controllerValidatorNotFound", WARN);
         levels.put("methodDefinitionNotFound", WARN);        
         levels.put("validationFailed", WARN);  
@@ -124,6 +141,9 @@ public abstract class AbstractWritingMonitor implements ActionMonitor, BindMonit
         messages.put("actionMethodFound", "ActionMethod found: {0}");
         messages.put("actionMethodExecuted", "ActionMethod executed with response: {0}");
         messages.put("actionMethodExecutionFailed", "ActionMethod failed: {0}");
+        messages.put("actionMethodTimed", "ActionMethod ''{1}'' of controller ''{0}'' executed in {2} ns, failed: {3}");
+        messages.put("methodInterceptorTimed", "MethodInterceptor ''{0}'' intercepted ''{1}'' in {2} ns");
+        messages.put("actionMethodInvokerNotGenerated", "ActionMethod invoker not generated for method ''{0}'', defaulting to reflection: {1}");
         messages.put("methodNameResolved", "Method name ''{0}'' found for key ''{1}'' among keys ''{2}''");
         messages.put("methodIntercepted", "Method ''{0}'' intercepted with arguments {1} and returned value ''{2}''");
         messages.put("argumentNameResolved", "Argument name ''{0}'' resolved to ''{1}'' in scope ''{2}''");
@@ -134,6 +154,7 @@ public abstract class AbstractWritingMonitor implements ActionMonitor, BindMonit
         messages.put("viewValueBound", "View value ''{1}'' bound for name ''{0}'' from controller ''{2}''");        
         messages.put("controllerBindFailed", "Controller bind failed to controller ''{0}'' with message {1}: {2}");
         messages.put("controllerValueBound", "Controller value ''{1}'' bound for name ''{0}'' to controller ''{2}''");
+        messages.put("controllerValueSkipped", "Controller value skipped for name ''{0}'' not bindable to controller ''{1}''");
         messages.put("genericParameterTypeFound", "Generic parameter type ''{0}'' found for method ''{1}''");
         messages.put("genericParameterTypeNotFound", "Generic parameter type not found for method ''{0}''");
         messages.put("valueConverterFound", "Value converter ''{1}'' found for type ''{0}''");
@@ -157,6 +178,7 @@ public abstract class AbstractWritingMonitor implements ActionMonitor, BindMonit
         messages.put("servletInitialized", "Servlet initialized: {0}");
         messages.put("servletServiceFailed", "Servlet service failed: {0}");
         messages.put("servletServiceRequested", "Servlet service requested with parameters: {0}");
+        messages.put("servletServiceTimed", "Servlet service of controller ''{0}'' timed: {1}");
         messages.put("controllerValidatorNotFound", "Controller validator ''{0}'' not found: defaulting to controller ''{1}''");
         messages.put("methodDefinitionNotFound", "Method definition not found in controller definition ''{0}''");        
         messages.put("validationFailed", "Validation failed: {0}");  
@@ -166,23 +188,36 @@ public abstract class AbstractWritingMonitor implements ActionMonitor, BindMonit
         return messages;
     }
 
-    private Level level(String event) {
-        if ( !levels.containsKey(event) ){
-            return Level.INFO;
+    private Event event(String name) {
+        Event event = events.get(name);
+        if ( event == null ){
+            throw new NoSuchElementException(name);
         }
-        return levels.get(event);
+        return event;
     }
 
-    private String template(String event) {
-        if ( !messages.containsKey(event) ){
-            throw new NoSuchElementException(event);
-        }
-        return messages.get(event);
+    public boolean isEnabled(String event) {
+        return isEnabled(event(event).level);
+    }
+
+    /**
+     * Determines if messages of a given level are written. Messages of disabled levels are neither formatted nor
+     * written. Concrete implementations may override it, by default all levels are enabled.
+     * 
+     * @param level the Level
+     * @return A boolean flag
+     */
+    protected boolean isEnabled(Level level) {
+        return true;
     }
 
-    protected void write(String event, Object... arguments) {
-        String message = format(template(event), arguments);
-        write(level(event), message);
+    protected void write(String name, Object... arguments) {
+        Event event = event(name);
+        if ( !isEnabled(event.level) ){
+            return;
+        }
+        String message = format(event.template, arguments);
+        write(event.level, message);
         for ( Exception exception : findExceptions(arguments) ){
             trace(exception);
         }
@@ -238,6 +273,18 @@ public abstract class AbstractWritingMonitor implements ActionMonitor, BindMonit
         write("actionMethodExecutionFailed", cause); 
     }
     
+    public void actionMethodTimed(String controllerName, Method method, long duration, boolean failed) {
+        write("actionMethodTimed", controllerName, method, duration, failed);
+    }
+
+    public void methodInterceptorTimed(MethodInterceptor methodInterceptor, Method method, long duration) {
+        write("methodInterceptorTimed", methodInterceptor, method, duration);
+    }
+
+    public void actionMethodInvokerNotGenerated(Method method, Exception cause) {
+        write("actionMethodInvokerNotGenerated", method, cause);
+    }
+
     public void methodNameResolved(String methodName, String methodKey, Set<String> keys) {
         write("methodNameResolved", methodName, methodKey, keys);
     }
@@ -293,6 +340,10 @@ public abstract class AbstractWritingMonitor implements ActionMonitor, BindMonit
     public void controllerValueBound(String name, Object value, Object controller) {
         write("controllerValueBound", name, value, controller);
     }
+
+    public void controllerValueSkipped(String name, Object controller) {
+        write("controllerValueSkipped", name, controller);
+    }
     
     public void contextInitialized() {
         write("contextInitialized");        
@@ -334,6 +385,10 @@ public abstract class AbstractWritingMonitor implements ActionMonitor, BindMonit
         write("servletServiceRequested", parameters);        
     }
 
+    public void servletServiceTimed(String controllerName, StageTimer stageTimer) {
+        write("servletServiceTimed", controllerName, stageTimer);
+    }
+
     public void controllerValidatorNotFound(String controllerValidatorName, String controllerName) {
         write("controllerValidatorNotFound", controllerValidatorName, controllerName);
     }
@@ -358,4 +413,14 @@ public abstract class AbstractWritingMonitor implements ActionMonitor, BindMonit
         write("viewResponded", responderView);        
     }
 
+    private static class Event {
+        private final Level level;
+        private final String template;
+
+        Event(Level level, String template) {
+            this.level = level;
+            this.template = template;
+        }
+    }
+
 }
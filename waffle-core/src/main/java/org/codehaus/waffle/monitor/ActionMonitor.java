@@ -10,6 +10,7 @@ import javax.servlet.http.HttpServletResponse;
 
 import org.codehaus.waffle.action.ActionMethodResponse;
 import org.codehaus.waffle.action.MethodDefinition;
+import org.codehaus.waffle.action.intercept.MethodInterceptor;
 import org.codehaus.waffle.action.HierarchicalArgumentResolver.Scope;
 import org.codehaus.waffle.view.View;
 
@@ -32,6 +33,18 @@ public interface ActionMonitor extends Monitor {
 
     void actionMethodExecutionFailed(Exception cause);
 
+    /**
+     * Reports the time taken to execute an action method, including its interceptors
+     * 
+     * @param controllerName the name of the controller
+     * @param method the action method
+     * @param duration the duration in nanoseconds
+     * @param failed <code>true</code> if the action method threw an exception
+     */
+    void actionMethodTimed(String controllerName, Method method, long duration, boolean failed);
+
+    void actionMethodInvokerNotGenerated(Method method, Exception cause);
+
     void argumentNameResolved(String name, Object value, Scope scope);
 
     void argumentNameNotMatched(String name, String pattern);
@@ -40,6 +53,15 @@ public interface ActionMonitor extends Monitor {
 
     void methodIntercepted(Method method, Object[] arguments, Object returnValue);
 
+    /**
+     * Reports the time taken by a method interceptor, including the rest of the interceptor chain
+     * 
+     * @param methodInterceptor the MethodInterceptor
+     * @param method the action method intercepted
+     * @param duration the duration in nanoseconds
+     */
+    void methodInterceptorTimed(MethodInterceptor methodInterceptor, Method method, long duration);
+
     void responseIsCommitted(HttpServletResponse response);
 
     void viewDispatched(View view);
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.monitor;
+
+/**
+ * Holds the configuration of the {@link AsyncWritingMonitor}
+ */
+public interface AsyncWritingConfig {
+
+    /**
+     * The policy applied to events written while the buffer is full
+     */
+    enum OverflowPolicy {
+        /**
+         * The event is discarded
+         */
+        DROP,
+        /**
+         * The event is discarded and counted, and the count of discarded events is written once the buffer has room
+         */
+        COUNT,
+        /**
+         * The writing thread waits until the buffer has room
+         */
+        BLOCK
+    }
+
+    /**
+     * Returns the capacity of the buffer of events, rounded up to a power of two
+     * 
+     * @return The capacity
+     */
+    int getCapacity();
+
+    /**
+     * @return The OverflowPolicy
+     */
+    OverflowPolicy getOverflowPolicy();
+
+    /**
+     * Returns the maximum time to wait for the buffered events to be written when flushing or stopping
+     * 
+     * @return The timeout in milliseconds
+     */
+    long getFlushTimeout();
+
+}
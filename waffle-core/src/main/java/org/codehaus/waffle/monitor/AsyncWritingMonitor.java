@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.monitor;
+
+import static java.text.MessageFormat.format;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.codehaus.waffle.Startable;
+import org.codehaus.waffle.monitor.AsyncWritingConfig.OverflowPolicy;
+import org.codehaus.waffle.servlet.StageTimer;
+
+/**
+ * <p>
+ * Writing monitor that writes its messages asynchronously, via a delegate writing monitor, by default a
+ * {@link CommonsLoggingMonitor}: the events of enabled levels are added, with their arguments, to a preallocated
+ * lock-free ring buffer, and a background thread formats them and writes the messages. Events written while the
+ * buffer is full are handled as configured by the {@link AsyncWritingConfig}. Note that the arguments are formatted
+ * after the event, so mutable arguments may be written with a later state.
+ * </p>
+ * <p>
+ * The levels and messages of the events are those of this monitor, which subclasses may override, while the delegate
+ * determines the levels enabled and writes the messages. The background thread is started with the context and, when
+ * the context is stopped, writes the buffered events before ending. Events are written synchronously while the thread
+ * is not running. Each instance has its own thread, so a single class should be registered for the monitors written
+ * asynchronously. Subclasses may write via another monitor, eg a {@link ConsoleMonitor}, via the protected
+ * constructor.
+ * </p>
+ */
+public class AsyncWritingMonitor extends AbstractWritingMonitor implements Startable {
+    private static final String THREAD_NAME = "waffle-monitor-writer";
+    private static final String SERVLET_SERVICE_TIMED = "servletServiceTimed";
+    private static final String EVENTS_DROPPED = "{0} monitor events dropped as the buffer was full";
+    private static final long IDLE_NANOS = 100000000L;
+    private static final long WAIT_NANOS = 100000L;
+
+    private final AbstractWritingMonitor delegate;
+    private final AsyncWritingConfig configuration;
+    private final EventRingBuffer buffer;
+    private final AtomicLong dropped = new AtomicLong();
+    private long droppedReported;
+    private volatile Thread writer;
+    private volatile boolean running;
+    private volatile boolean idle;
+
+    public AsyncWritingMonitor() {
+        this(new DefaultAsyncWritingConfig());
+    }
+
+    public AsyncWritingMonitor(AsyncWritingConfig configuration) {
+        this(new CommonsLoggingMonitor(), configuration);
+    }
+
+    /**
+     * Creates an AsyncWritingMonitor. The constructor is protected so that the delegate is not resolved by the
+     * container among the registered monitors.
+     * 
+     * @param delegate the AbstractWritingMonitor which writes the messages
+     * @param configuration the AsyncWritingConfig
+     */
+    protected AsyncWritingMonitor(AbstractWritingMonitor delegate, AsyncWritingConfig configuration) {
+        this.delegate = delegate;
+        this.configuration = configuration;
+        this.buffer = new EventRingBuffer(configuration.getCapacity());
+    }
+
+    public synchronized void start() {
+        if (writer == null) {
+            running = true;
+            writer = new Thread(new Runnable() {
+                public void run() {
+                    writeEvents();
+                }
+            }, THREAD_NAME);
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    /**
+     * Stops the background thread, once it has written the buffered events or the flush timeout has elapsed
+     */
+    public synchronized void stop() {
+        Thread thread = writer;
+        if (thread != null) {
+            running = false;
+            LockSupport.unpark(thread);
+            try {
+                thread.join(configuration.getFlushTimeout());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writer = null;
+        }
+    }
+
+    /**
+     * Waits until the events added so far are written or the flush timeout has elapsed
+     * 
+     * @return <code>true</code> if the events were written
+     */
+    public boolean flush() {
+        long target = buffer.claimed();
+        long deadline = System.nanoTime() + configuration.getFlushTimeout() * 1000000;
+        while (buffer.written() < target) {
+            Thread thread = writer;
+            if (thread == null || !thread.isAlive() || System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            LockSupport.unpark(thread);
+            LockSupport.parkNanos(WAIT_NANOS);
+        }
+        return true;
+    }
+
+    /**
+     * @return The number of events dropped as the buffer was full
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Writes the timings of the stage timer as a String, as the timer is reused by the next request of the thread
+     * before the event is formatted
+     */
+    @Override
+    public void servletServiceTimed(String controllerName, StageTimer stageTimer) {
+        if (isEnabled(SERVLET_SERVICE_TIMED)) {
+            write(SERVLET_SERVICE_TIMED, controllerName, stageTimer.toString());
+        }
+    }
+
+    @Override
+    protected boolean isEnabled(Level level) {
+        return delegate.isEnabled(level);
+    }
+
+    @Override
+    protected void write(String name, Object... arguments) {
+        if (!isEnabled(name)) {
+            return;
+        }
+        Thread thread = writer;
+        if (thread == null) {
+            super.write(name, arguments);
+        } else if (buffer.offer(name, arguments)) {
+            if (idle) {
+                LockSupport.unpark(thread);
+            }
+        } else {
+            overflow(name, arguments);
+        }
+    }
+
+    private void overflow(String name, Object[] arguments) {
+        if (configuration.getOverflowPolicy() != OverflowPolicy.BLOCK) {
+            dropped.incrementAndGet();
+            return;
+        }
+        while (!buffer.offer(name, arguments)) {
+            Thread thread = writer;
+            if (thread == null) {
+                super.write(name, arguments);
+                return;
+            }
+            LockSupport.unpark(thread);
+            LockSupport.parkNanos(WAIT_NANOS);
+        }
+    }
+
+    private void writeEvents() {
+        while (running || !buffer.isEmpty()) {
+            if (!writeNext()) {
+                reportDropped();
+                idle = true;
+                if (running && buffer.isEmpty()) {
+                    LockSupport.parkNanos(IDLE_NANOS);
+                }
+                idle = false;
+            }
+        }
+        reportDropped();
+    }
+
+    /**
+     * Formats the event and writes the message, as an event written synchronously. Called by the background thread.
+     */
+    void writeEvent(String name, Object[] arguments) {
+        super.write(name, arguments);
+    }
+
+    private boolean writeNext() {
+        try {
+            return buffer.writeNext(this);
+        } catch (RuntimeException e) {
+            // the writer must survive events failing to be formatted
+            delegate.trace(e);
+            return true;
+        }
+    }
+
+    private void reportDropped() {
+        if (configuration.getOverflowPolicy() == OverflowPolicy.COUNT) {
+            long count = dropped.get();
+            if (count > droppedReported) {
+                delegate.write(Level.WARN, format(EVENTS_DROPPED, count - droppedReported));
+                droppedReported = count;
+            }
+        }
+    }
+
+    @Override
+    protected void write(Level level, String message) {
+        delegate.write(level, message);
+    }
+
+    @Override
+    protected void trace(Throwable exception) {
+        delegate.trace(exception);
+    }
+
+}
@@ -24,6 +24,8 @@ public interface BindMonitor extends Monitor {
 
     void controllerValueBound(String name, Object value, Object controller);
 
+    void controllerValueSkipped(String name, Object controller);
+
     void genericParameterTypeFound(Type type, Method method);
 
     void genericParameterTypeNotFound(Method method);
@@ -44,6 +44,21 @@ public class CommonsLoggingMonitor extends AbstractWritingMonitor {
         this.log = log;
     }
 
+    @Override
+    protected boolean isEnabled(Level level) {
+        switch (level) {
+            case ERROR:
+                return log.isErrorEnabled();
+            case INFO:
+                return log.isInfoEnabled();
+            case WARN:
+                return log.isWarnEnabled();
+            case DEBUG:
+                return log.isDebugEnabled();
+        }
+        return true;
+    }
+
     @Override
     protected void write(Level level, String message) {
         switch (level) {
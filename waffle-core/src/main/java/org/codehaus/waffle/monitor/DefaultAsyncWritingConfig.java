@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.monitor;
+
+public class DefaultAsyncWritingConfig implements AsyncWritingConfig {
+    static final int DEFAULT_CAPACITY = 4096;
+    static final OverflowPolicy DEFAULT_OVERFLOW_POLICY = OverflowPolicy.COUNT;
+    static final long DEFAULT_FLUSH_TIMEOUT = 5000;
+
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final long flushTimeout;
+
+    public DefaultAsyncWritingConfig() {
+        this(DEFAULT_CAPACITY, DEFAULT_OVERFLOW_POLICY, DEFAULT_FLUSH_TIMEOUT);
+    }
+
+    public DefaultAsyncWritingConfig(int capacity, OverflowPolicy overflowPolicy, long flushTimeout) {
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.flushTimeout = flushTimeout;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public long getFlushTimeout() {
+        return flushTimeout;
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.monitor;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * Bounded lock-free ring buffer of monitor events, with multiple producers and a single consumer. The slots are
+ * preallocated and each holds the event name and its arguments.
+ * </p>
+ * <p>
+ * Each slot has a sequence number, which tells producers when the slot is free for a position and the consumer when
+ * the event of a position has been published: producers claim a position by incrementing the tail, write the event in
+ * its slot and then publish it by setting the sequence.
+ * </p>
+ */
+final class EventRingBuffer {
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final String[] names;
+    private final Object[][] arguments;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    EventRingBuffer(int capacity) {
+        int size = 2;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        this.names = new String[size];
+        this.arguments = new Object[size][];
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Adds an event, unless the buffer is full
+     * 
+     * @return <code>true</code> if added
+     */
+    boolean offer(String name, Object[] eventArguments) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    names[index] = name;
+                    arguments[index] = eventArguments;
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (sequence < position) {
+                return false;
+            }
+            position = tail.get();
+        }
+    }
+
+    /**
+     * Determines if the next event is not yet published. Only called by the consumer.
+     */
+    boolean isEmpty() {
+        long position = head;
+        return sequences.get((int) position & mask) != position + 1;
+    }
+
+    /**
+     * Removes the next event, if published, and writes it via the monitor. Only called by the consumer.
+     * 
+     * @return <code>true</code> if an event was removed
+     */
+    boolean writeNext(AsyncWritingMonitor monitor) {
+        long position = head;
+        int index = (int) position & mask;
+        if (sequences.get(index) != position + 1) {
+            return false;
+        }
+        String name = names[index];
+        Object[] eventArguments = arguments[index];
+        names[index] = null;
+        arguments[index] = null;
+        sequences.set(index, position + mask + 1);
+        try {
+            monitor.writeEvent(name, eventArguments);
+        } finally {
+            head = position + 1;
+        }
+        return true;
+    }
+
+    /**
+     * @return The number of events claimed by producers
+     */
+    long claimed() {
+        return tail.get();
+    }
+
+    /**
+     * @return The number of events written by the consumer
+     */
+    long written() {
+        return head;
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.monitor;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ * Event type of the JDK Flight Recorder, created via the dynamic <code>jdk.jfr.EventFactory</code> of Java 9 or later
+ * and accessed reflectively, so that Waffle does not depend on it. If the Flight Recorder is not available, the event
+ * type is never enabled and events are not committed.
+ * </p>
+ * <p>
+ * The <code>long</code> fields of the event are durations in nanoseconds.
+ * </p>
+ */
+final class FlightRecorderEventType {
+    private static final String CATEGORY = "Waffle";
+    private static final Method CREATE_FACTORY;
+    private static final Method GET_EVENT_TYPE;
+    private static final Method NEW_EVENT;
+    private static final Method IS_ENABLED;
+    private static final Method SET;
+    private static final Method COMMIT;
+    private static final Constructor<?> ANNOTATION_ELEMENT;
+    private static final Constructor<?> VALUE_DESCRIPTOR;
+    private static final Class<?> NAME;
+    private static final Class<?> LABEL;
+    private static final Class<?> CATEGORY_ANNOTATION;
+    private static final Class<?> TIMESPAN;
+    static {
+        Method[] methods = new Method[6];
+        Constructor<?>[] constructors = new Constructor<?>[2];
+        Class<?>[] annotations = new Class<?>[4];
+        try {
+            Class<?> eventFactory = Class.forName("jdk.jfr.EventFactory");
+            Class<?> event = Class.forName("jdk.jfr.Event");
+            methods[0] = eventFactory.getMethod("create", List.class, List.class);
+            methods[1] = eventFactory.getMethod("getEventType");
+            methods[2] = eventFactory.getMethod("newEvent");
+            methods[3] = Class.forName("jdk.jfr.EventType").getMethod("isEnabled");
+            methods[4] = event.getMethod("set", int.class, Object.class);
+            methods[5] = event.getMethod("commit");
+            Class<?> annotationElement = Class.forName("jdk.jfr.AnnotationElement");
+            constructors[0] = annotationElement.getConstructor(Class.class, Object.class);
+            constructors[1] = Class.forName("jdk.jfr.ValueDescriptor").getConstructor(Class.class, String.class,
+                    List.class);
+            annotations[0] = Class.forName("jdk.jfr.Name");
+            annotations[1] = Class.forName("jdk.jfr.Label");
+            annotations[2] = Class.forName("jdk.jfr.Category");
+            annotations[3] = Class.forName("jdk.jfr.Timespan");
+        } catch (Exception e) {
+            // Flight Recorder not available
+            methods = new Method[6];
+        }
+        CREATE_FACTORY = methods[0];
+        GET_EVENT_TYPE = methods[1];
+        NEW_EVENT = methods[2];
+        IS_ENABLED = methods[3];
+        SET = methods[4];
+        COMMIT = methods[5];
+        ANNOTATION_ELEMENT = constructors[0];
+        VALUE_DESCRIPTOR = constructors[1];
+        NAME = annotations[0];
+        LABEL = annotations[1];
+        CATEGORY_ANNOTATION = annotations[2];
+        TIMESPAN = annotations[3];
+    }
+
+    private final Object factory;
+    private final Object eventType;
+
+    /**
+     * Creates the event type
+     * 
+     * @param name the name of the event type, eg <code>org.codehaus.waffle.Request</code>
+     * @param label the human-readable label
+     * @param fieldNames the names of the fields
+     * @param fieldTypes the types of the fields, either <code>String</code>, <code>int</code> or <code>long</code>
+     */
+    FlightRecorderEventType(String name, String label, String[] fieldNames, Class<?>[] fieldTypes) {
+        Object factory = null;
+        Object eventType = null;
+        if (isAvailable()) {
+            try {
+                List<Object> annotations = new ArrayList<Object>();
+                annotations.add(annotation(NAME, name));
+                annotations.add(annotation(LABEL, label));
+                annotations.add(annotation(CATEGORY_ANNOTATION, new String[] { CATEGORY }));
+                List<Object> fields = new ArrayList<Object>();
+                for (int i = 0; i < fieldNames.length; i++) {
+                    List<Object> fieldAnnotations = Collections.emptyList();
+                    if (fieldTypes[i] == long.class) {
+                        fieldAnnotations = Collections.singletonList(annotation(TIMESPAN, "NANOSECONDS"));
+                    }
+                    fields.add(VALUE_DESCRIPTOR.newInstance(fieldTypes[i], fieldNames[i], fieldAnnotations));
+                }
+                factory = CREATE_FACTORY.invoke(null, annotations, fields);
+                eventType = GET_EVENT_TYPE.invoke(factory);
+            } catch (Exception e) {
+                factory = null;
+            }
+        }
+        this.factory = factory;
+        this.eventType = eventType;
+    }
+
+    private static Object annotation(Class<?> type, Object value) throws Exception {
+        return ANNOTATION_ELEMENT.newInstance(type.asSubclass(Annotation.class), value);
+    }
+
+    static boolean isAvailable() {
+        return CREATE_FACTORY != null;
+    }
+
+    /**
+     * Determines if the event type is enabled, ie if a recording is running which records it
+     * 
+     * @return A boolean flag
+     */
+    boolean isEnabled() {
+        if (factory == null) {
+            return false;
+        }
+        try {
+            return (Boolean) IS_ENABLED.invoke(eventType);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Commits an event of this type, if enabled
+     * 
+     * @param values the values of the fields, in the order of the field names
+     */
+    void commit(Object... values) {
+        if (isEnabled()) {
+            try {
+                Object event = NEW_EVENT.invoke(factory);
+                for (int i = 0; i < values.length; i++) {
+                    SET.invoke(event, i, values[i]);
+                }
+                COMMIT.invoke(event);
+            } catch (Exception e) {
+                // events are dropped rather than failing the request
+            }
+        }
+    }
+
+}
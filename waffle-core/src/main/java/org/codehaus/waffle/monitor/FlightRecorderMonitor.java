@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.monitor;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.servlet.Servlet;
+import javax.servlet.http.HttpServletResponse;
+
+import org.codehaus.waffle.action.ActionMethodResponse;
+import org.codehaus.waffle.action.MethodDefinition;
+import org.codehaus.waffle.action.intercept.MethodInterceptor;
+import org.codehaus.waffle.action.HierarchicalArgumentResolver.Scope;
+import org.codehaus.waffle.servlet.StageTimer;
+import org.codehaus.waffle.servlet.StageTimer.Stage;
+import org.codehaus.waffle.view.View;
+
+/**
+ * <p>
+ * Monitor that emits JDK Flight Recorder events, in the <i>Waffle</i> category, when running on Java 9 or later:
+ * </p>
+ * <ul>
+ * <li><code>org.codehaus.waffle.Request</code>: the controller name, the outcome and the durations of the stages of
+ * the request, ie the controller resolution, binding, validation, action method execution, view data binding and
+ * response handling</li>
+ * <li><code>org.codehaus.waffle.ActionInvoke</code>: the controller and method names, the outcome, the number of
+ * interceptors and the execution time of an action method</li>
+ * <li><code>org.codehaus.waffle.ViewDispatch</code>: the controller name, view path and view type</li>
+ * </ul>
+ * <p>
+ * Events are only built if a recording enables them. On earlier Java versions no event is emitted. The monitor can be
+ * registered as the ActionMonitor and the ServletMonitor.
+ * </p>
+ */
+public class FlightRecorderMonitor implements ActionMonitor, ServletMonitor {
+    private static final String SUCCEEDED = "succeeded";
+    private static final String FAILED = "failed";
+    private static final String ACTION_FAILED = "actionFailed";
+    private static final Stage[] STAGES = Stage.values();
+    private static final Set<String> EMITTING_EVENTS = new HashSet<String>(Arrays.asList("servletServiceTimed",
+            "servletServiceFailed", "actionMethodInvocationFailed", "methodInterceptorTimed", "actionMethodTimed",
+            "viewDispatched"));
+
+    private static final FlightRecorderEventType REQUEST = new FlightRecorderEventType("org.codehaus.waffle.Request",
+            "Waffle Request", new String[] { "controllerName", "outcome", "controllerDuration", "bindDuration",
+                    "validateDuration", "executeDuration", "viewBindDuration", "handleDuration", "totalDuration" },
+            new Class<?>[] { String.class, String.class, long.class, long.class, long.class, long.class, long.class,
+                    long.class, long.class });
+    private static final FlightRecorderEventType ACTION_INVOKE = new FlightRecorderEventType(
+            "org.codehaus.waffle.ActionInvoke", "Waffle Action Invoke", new String[] { "controllerName", "methodName",
+                    "outcome", "interceptors", "executionTime" }, new Class<?>[] { String.class, String.class,
+                    String.class, int.class, long.class });
+    private static final FlightRecorderEventType VIEW_DISPATCH = new FlightRecorderEventType(
+            "org.codehaus.waffle.ViewDispatch", "Waffle View Dispatch", new String[] { "controllerName", "path",
+                    "viewType" }, new Class<?>[] { String.class, String.class, String.class });
+
+    private final ThreadLocal<RequestState> states = new ThreadLocal<RequestState>() {
+        protected RequestState initialValue() {
+            return new RequestState();
+        }
+    };
+
+    /**
+     * Determines if the Flight Recorder is available, ie if events can be emitted
+     * 
+     * @return A boolean flag
+     */
+    public static boolean isAvailable() {
+        return FlightRecorderEventType.isAvailable();
+    }
+
+    public boolean isEnabled(String event) {
+        // the events are enabled if available, even if not recorded, so that the state of the requests is reset
+        return EMITTING_EVENTS.contains(event) && isAvailable();
+    }
+
+    public void servletServiceTimed(String controllerName, StageTimer stageTimer) {
+        RequestState state = states.get();
+        String outcome = state.outcome;
+        state.outcome = SUCCEEDED;
+        if (REQUEST.isEnabled()) {
+            Object[] values = new Object[STAGES.length + 3];
+            values[0] = controllerName;
+            values[1] = outcome;
+            for (Stage stage : STAGES) {
+                values[stage.ordinal() + 2] = stageTimer.getDuration(stage);
+            }
+            values[values.length - 1] = stageTimer.getTotal();
+            REQUEST.commit(values);
+        }
+    }
+
+    public void servletServiceFailed(Exception cause) {
+        states.get().outcome = FAILED;
+    }
+
+    public void actionMethodInvocationFailed(Exception cause) {
+        states.get().outcome = ACTION_FAILED;
+    }
+
+    public void methodIntercepted(Method method, Object[] arguments, Object returnValue) {
+    }
+
+    public void methodInterceptorTimed(MethodInterceptor methodInterceptor, Method method, long duration) {
+        // counts the interceptors invoked, whether they returned or failed
+        states.get().interceptors++;
+    }
+
+    public void actionMethodTimed(String controllerName, Method method, long duration, boolean failed) {
+        RequestState state = states.get();
+        int interceptors = state.interceptors;
+        state.interceptors = 0;
+        if (ACTION_INVOKE.isEnabled()) {
+            ACTION_INVOKE.commit(controllerName, method.getName(), failed ? FAILED : SUCCEEDED, interceptors,
+                    duration);
+        }
+    }
+
+    public void viewDispatched(View view) {
+        if (VIEW_DISPATCH.isEnabled()) {
+            String controllerName = view.getControllerDefinition() != null ? view.getControllerDefinition().getName()
+                    : null;
+            VIEW_DISPATCH.commit(controllerName, view.getPath(), view.getClass().getSimpleName());
+        }
+    }
+
+    public void defaultActionMethodFound(MethodDefinition methodDefinition) {
+    }
+
+    public void defaultActionMethodCached(Class<?> controllerType, MethodDefinition methodDefinition) {
+    }
+
+    public void pragmaticActionMethodFound(MethodDefinition methodDefinition) {
+    }
+
+    public void actionMethodFound(MethodDefinition methodDefinition) {
+    }
+
+    public void actionMethodExecuted(ActionMethodResponse actionMethodResponse) {
+    }
+
+    public void actionMethodExecutionFailed(Exception cause) {
+    }
+
+    public void actionMethodInvokerNotGenerated(Method method, Exception cause) {
+    }
+
+    public void argumentNameResolved(String name, Object value, Scope scope) {
+    }
+
+    public void argumentNameNotMatched(String name, String pattern) {
+    }
+
+    public void methodNameResolved(String methodName, String methodKey, Set<String> keys) {
+    }
+
+    public void responseIsCommitted(HttpServletResponse response) {
+    }
+
+    public void servletInitialized(Servlet servlet) {
+    }
+
+    public void servletServiceRequested(Map<String, List<String>> parameters) {
+    }
+
+    /**
+     * Holds the state of the request serviced by a thread, which is reset when its event is emitted
+     */
+    private static class RequestState {
+        private String outcome = SUCCEEDED;
+        private int interceptors;
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.monitor;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of latencies, recorded in logarithmic buckets of microseconds with four sub-buckets per power of
+ * two, ie with a relative error of at most 25%. The bucket counts are striped by thread to reduce contention between
+ * concurrent recorders, and recording does not allocate.
+ */
+final class LatencyHistogram {
+    static final int BUCKETS = 144;
+    private static final int STRIPES = 4;
+    private static final int LINEAR_BUCKETS = 8;
+
+    private final AtomicLongArray counts = new AtomicLongArray(STRIPES * BUCKETS);
+
+    void record(long nanos) {
+        int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+        counts.incrementAndGet(stripe * BUCKETS + bucketOf(nanos / 1000));
+    }
+
+    /**
+     * Returns the counts per bucket, summed over the stripes
+     */
+    long[] snapshot() {
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < counts.length(); i++) {
+            snapshot[i % BUCKETS] += counts.get(i);
+        }
+        return snapshot;
+    }
+
+    void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    /**
+     * Returns the upper bound, in microseconds, of the bucket holding the given percentile of the bucket counts
+     * 
+     * @param snapshot the counts per bucket
+     * @param percentile the percentile, between 0 and 1
+     * @return The upper bound of the percentile, or 0 if no latency is recorded
+     */
+    static long percentileOf(long[] snapshot, double percentile) {
+        long total = 0;
+        for (long count : snapshot) {
+            total += count;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile));
+        long cumulative = 0;
+        for (int bucket = 0; bucket < snapshot.length && total > 0; bucket++) {
+            cumulative += snapshot[bucket];
+            if (cumulative >= rank) {
+                return upperBoundOf(bucket);
+            }
+        }
+        return 0;
+    }
+
+    static int bucketOf(long micros) {
+        if (micros < LINEAR_BUCKETS) {
+            return (int) Math.max(micros, 0);
+        }
+        int log = 63 - Long.numberOfLeadingZeros(micros);
+        int bucket = LINEAR_BUCKETS + (log - 3) * 4 + (int) ((micros >> (log - 2)) & 3);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    static long upperBoundOf(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket + 1;
+        }
+        int log = 3 + (bucket - LINEAR_BUCKETS) / 4;
+        int subBucket = (bucket - LINEAR_BUCKETS) % 4;
+        return (long) (5 + subBucket) << (log - 2);
+    }
+
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.monitor;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * Aggregates counts of monitored events and latencies of action methods, per controller and action method, as
+ * recorded by the {@link MetricsMonitor}.
+ * </p>
+ * <p>
+ * Recording is lock-free and, once an action method has been recorded for the first time, does not allocate. Latency
+ * percentiles are computed from {@link LatencyHistogram}s when a snapshot is taken.
+ * </p>
+ */
+public class Metrics implements MetricsMBean {
+    private static final Metrics SHARED = new Metrics();
+
+    public enum Event {
+        CONTROLLER_NOT_FOUND("controllerNotFound"),
+        METHOD_DEFINITION_NOT_FOUND("methodDefinitionNotFound"),
+        CONTROLLER_BIND_FAILED("controllerBindFailed"),
+        VIEW_BIND_FAILED("viewBindFailed"),
+        VALIDATION_FAILED("validationFailed"),
+        ACTION_METHOD_EXECUTION_FAILED("actionMethodExecutionFailed"),
+        ACTION_METHOD_INVOCATION_FAILED("actionMethodInvocationFailed"),
+        SERVLET_SERVICE_FAILED("servletServiceFailed"),
+        RESPONSE_IS_COMMITTED("responseIsCommitted"),
+        VIEW_FORWARDED("viewForwarded"),
+        VIEW_REDIRECTED("viewRedirected"),
+        VIEW_RESPONDED("viewResponded");
+
+        private final String monitorEvent;
+
+        Event(String monitorEvent) {
+            this.monitorEvent = monitorEvent;
+        }
+
+        /**
+         * @return The name of the monitor event counted
+         */
+        public String getMonitorEvent() {
+            return monitorEvent;
+        }
+    }
+
+    private final AtomicLongArray counts = new AtomicLongArray(Event.values().length);
+    private final ConcurrentMap<String, ConcurrentMap<Method, ActionMetrics>> actions
+            = new ConcurrentHashMap<String, ConcurrentMap<Method, ActionMetrics>>();
+
+    /**
+     * Returns the metrics shared by default within the class loader, ie by the web application
+     * 
+     * @return The shared Metrics
+     */
+    public static Metrics shared() {
+        return SHARED;
+    }
+
+    public void increment(Event event) {
+        counts.incrementAndGet(event.ordinal());
+    }
+
+    public void recordAction(String controllerName, Method method, long duration, boolean failed) {
+        actionMetricsFor(controllerName, method).record(duration, failed);
+    }
+
+    private ActionMetrics actionMetricsFor(String controllerName, Method method) {
+        ConcurrentMap<Method, ActionMetrics> controllerActions = actions.get(controllerName);
+        if (controllerActions == null) {
+            ConcurrentMap<Method, ActionMetrics> created = new ConcurrentHashMap<Method, ActionMetrics>();
+            controllerActions = actions.putIfAbsent(controllerName, created);
+            if (controllerActions == null) {
+                controllerActions = created;
+            }
+        }
+        ActionMetrics actionMetrics = controllerActions.get(method);
+        if (actionMetrics == null) {
+            ActionMetrics created = new ActionMetrics();
+            actionMetrics = controllerActions.putIfAbsent(method, created);
+            if (actionMetrics == null) {
+                actionMetrics = created;
+            }
+        }
+        return actionMetrics;
+    }
+
+    /**
+     * Takes a snapshot of the metrics, which is a bean that may be rendered, eg by a JsonView
+     * 
+     * @return The Snapshot
+     */
+    public Snapshot snapshot() {
+        Map<String, Long> events = new LinkedHashMap<String, Long>();
+        for (Event event : Event.values()) {
+            events.put(event.getMonitorEvent(), counts.get(event.ordinal()));
+        }
+        List<ActionSnapshot> actionSnapshots = new ArrayList<ActionSnapshot>();
+        for (Map.Entry<String, ConcurrentMap<Method, ActionMetrics>> controller : actions.entrySet()) {
+            for (Map.Entry<Method, ActionMetrics> action : controller.getValue().entrySet()) {
+                actionSnapshots.add(action.getValue().snapshot(controller.getKey(), action.getKey().getName()));
+            }
+        }
+        Collections.sort(actionSnapshots);
+        return new Snapshot(events, actionSnapshots);
+    }
+
+    public String[] getEventCounts() {
+        Map<String, Long> events = snapshot().getEvents();
+        List<String> eventCounts = new ArrayList<String>();
+        for (Map.Entry<String, Long> entry : events.entrySet()) {
+            eventCounts.add(entry.getKey() + "=" + entry.getValue());
+        }
+        return eventCounts.toArray(new String[eventCounts.size()]);
+    }
+
+    public String[] getActionLatencies() {
+        List<String> latencies = new ArrayList<String>();
+        for (ActionSnapshot action : snapshot().getActions()) {
+            latencies.add(action.toString());
+        }
+        return latencies.toArray(new String[latencies.size()]);
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        for (ConcurrentMap<Method, ActionMetrics> controllerActions : actions.values()) {
+            for (ActionMetrics actionMetrics : controllerActions.values()) {
+                actionMetrics.reset();
+            }
+        }
+    }
+
+    private static class ActionMetrics {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        void record(long duration, boolean failed) {
+            count.incrementAndGet();
+            if (failed) {
+                failures.incrementAndGet();
+            }
+            totalNanos.addAndGet(duration);
+            long max = maxNanos.get();
+            while (duration > max && !maxNanos.compareAndSet(max, duration)) {
+                max = maxNanos.get();
+            }
+            histogram.record(duration);
+        }
+
+        ActionSnapshot snapshot(String controllerName, String methodName) {
+            long[] buckets = histogram.snapshot();
+            long actionCount = count.get();
+            double meanMillis = actionCount > 0 ? totalNanos.get() / 1e6 / actionCount : 0;
+            return new ActionSnapshot(controllerName, methodName, actionCount, failures.get(), meanMillis,
+                    LatencyHistogram.percentileOf(buckets, 0.5) / 1e3,
+                    LatencyHistogram.percentileOf(buckets, 0.99) / 1e3, maxNanos.get() / 1e6);
+        }
+
+        void reset() {
+            count.set(0);
+            failures.set(0);
+            totalNanos.set(0);
+            maxNanos.set(0);
+            histogram.reset();
+        }
+    }
+
+    public static class Snapshot {
+        private final Map<String, Long> events;
+        private final List<ActionSnapshot> actions;
+
+        Snapshot(Map<String, Long> events, List<ActionSnapshot> actions) {
+            this.events = events;
+            this.actions = actions;
+        }
+
+        public Map<String, Long> getEvents() {
+            return events;
+        }
+
+        public List<ActionSnapshot> getActions() {
+            return actions;
+        }
+    }
+
+    /**
+     * The latencies of an action method, in milliseconds. Percentiles are upper bounds of the histogram buckets.
+     */
+    public static class ActionSnapshot implements Comparable<ActionSnapshot> {
+        private final String controller;
+        private final String method;
+        private final long count;
+        private final long failures;
+        private final double meanMillis;
+        private final double p50Millis;
+        private final double p99Millis;
+        private final double maxMillis;
+
+        ActionSnapshot(String controller, String method, long count, long failures, double meanMillis,
+                double p50Millis, double p99Millis, double maxMillis) {
+            this.controller = controller;
+            this.method = method;
+            this.count = count;
+            this.failures = failures;
+            this.meanMillis = meanMillis;
+            this.p50Millis = p50Millis;
+            this.p99Millis = p99Millis;
+            this.maxMillis = maxMillis;
+        }
+
+        public String getController() {
+            return controller;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        public double getMeanMillis() {
+            return meanMillis;
+        }
+
+        public double getP50Millis() {
+            return p50Millis;
+        }
+
+        public double getP99Millis() {
+            return p99Millis;
+        }
+
+        public double getMaxMillis() {
+            return maxMillis;
+        }
+
+        public int compareTo(ActionSnapshot other) {
+            int compared = controller.compareTo(other.controller);
+            return compared != 0 ? compared : method.compareTo(other.method);
+        }
+
+        public String toString() {
+            return controller + "." + method + ": count=" + count + ", failures=" + failures + ", mean=" + meanMillis
+                    + "ms, p50=" + p50Millis + "ms, p99=" + p99Millis + "ms, max=" + maxMillis + "ms";
+        }
+    }
+
+}
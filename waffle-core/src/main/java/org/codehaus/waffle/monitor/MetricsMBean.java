@@ -0,0 +1,24 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.monitor;
+
+/**
+ * Management interface of the {@link Metrics}
+ */
+public interface MetricsMBean {
+
+    /**
+     * @return The counts of the monitored events, as <code>name=count</code>
+     */
+    String[] getEventCounts();
+
+    /**
+     * @return The latencies of the action methods, as
+     *         <code>controller.method: count=.., failures=.., mean=..ms, p50=..ms, p99=..ms, max=..ms</code>
+     */
+    String[] getActionLatencies();
+
+    void reset();
+
+}
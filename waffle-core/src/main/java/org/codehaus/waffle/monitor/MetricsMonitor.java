@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.monitor;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.servlet.Servlet;
+import javax.servlet.http.HttpServletResponse;
+
+import org.codehaus.waffle.action.ActionMethodResponse;
+import org.codehaus.waffle.action.MethodDefinition;
+import org.codehaus.waffle.action.intercept.MethodInterceptor;
+import org.codehaus.waffle.action.HierarchicalArgumentResolver.Scope;
+import org.codehaus.waffle.bind.ValueConverter;
+import org.codehaus.waffle.controller.ControllerDefinition;
+import org.codehaus.waffle.monitor.Metrics.Event;
+import org.codehaus.waffle.servlet.StageTimer;
+import org.codehaus.waffle.validation.BindErrorMessage;
+import org.codehaus.waffle.view.RedirectView;
+import org.codehaus.waffle.view.ResponderView;
+import org.codehaus.waffle.view.View;
+
+/**
+ * <p>
+ * Monitor that aggregates counts of failure and view events, and latencies of action methods per controller, in
+ * {@link Metrics}, which are shared by default. Other events are ignored and reported as not enabled, so that their
+ * arguments are not built.
+ * </p>
+ * <p>
+ * The metrics may be read via the <code>MetricsServlet</code>, as JSON or via JMX.
+ * </p>
+ */
+public class MetricsMonitor implements ActionMonitor, BindMonitor, ControllerMonitor, ServletMonitor,
+        ValidationMonitor, ViewMonitor {
+    private static final String ACTION_METHOD_TIMED = "actionMethodTimed";
+    private static final Set<String> RECORDED_EVENTS = new HashSet<String>();
+    static {
+        RECORDED_EVENTS.add(ACTION_METHOD_TIMED);
+        for (Event event : Event.values()) {
+            RECORDED_EVENTS.add(event.getMonitorEvent());
+        }
+    }
+
+    private final Metrics metrics;
+
+    public MetricsMonitor() {
+        this(Metrics.shared());
+    }
+
+    public MetricsMonitor(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public boolean isEnabled(String event) {
+        return RECORDED_EVENTS.contains(event);
+    }
+
+    public void actionMethodTimed(String controllerName, Method method, long duration, boolean failed) {
+        metrics.recordAction(controllerName, method, duration, failed);
+    }
+
+    public void actionMethodExecutionFailed(Exception cause) {
+        metrics.increment(Event.ACTION_METHOD_EXECUTION_FAILED);
+    }
+
+    public void responseIsCommitted(HttpServletResponse response) {
+        metrics.increment(Event.RESPONSE_IS_COMMITTED);
+    }
+
+    public void viewBindFailed(Object controller, Exception cause) {
+        metrics.increment(Event.VIEW_BIND_FAILED);
+    }
+
+    public void controllerBindFailed(Object controller, BindErrorMessage errorMessage, Exception cause) {
+        metrics.increment(Event.CONTROLLER_BIND_FAILED);
+    }
+
+    public void controllerNotFound(String name) {
+        metrics.increment(Event.CONTROLLER_NOT_FOUND);
+    }
+
+    public void methodDefinitionNotFound(String controllerName) {
+        metrics.increment(Event.METHOD_DEFINITION_NOT_FOUND);
+    }
+
+    public void actionMethodInvocationFailed(Exception cause) {
+        metrics.increment(Event.ACTION_METHOD_INVOCATION_FAILED);
+    }
+
+    public void servletServiceFailed(Exception cause) {
+        metrics.increment(Event.SERVLET_SERVICE_FAILED);
+    }
+
+    public void validationFailed(Exception cause) {
+        metrics.increment(Event.VALIDATION_FAILED);
+    }
+
+    public void viewForwarded(String path) {
+        metrics.increment(Event.VIEW_FORWARDED);
+    }
+
+    public void viewRedirected(RedirectView redirectView) {
+        metrics.increment(Event.VIEW_REDIRECTED);
+    }
+
+    public void viewResponded(ResponderView responderView) {
+        metrics.increment(Event.VIEW_RESPONDED);
+    }
+
+    public void defaultActionMethodFound(MethodDefinition methodDefinition) {
+    }
+
+    public void defaultActionMethodCached(Class<?> controllerType, MethodDefinition methodDefinition) {
+    }
+
+    public void pragmaticActionMethodFound(MethodDefinition methodDefinition) {
+    }
+
+    public void actionMethodFound(MethodDefinition methodDefinition) {
+    }
+
+    public void actionMethodExecuted(ActionMethodResponse actionMethodResponse) {
+    }
+
+    public void actionMethodInvokerNotGenerated(Method method, Exception cause) {
+    }
+
+    public void argumentNameResolved(String name, Object value, Scope scope) {
+    }
+
+    public void argumentNameNotMatched(String name, String pattern) {
+    }
+
+    public void methodNameResolved(String methodName, String methodKey, Set<String> keys) {
+    }
+
+    public void methodIntercepted(Method method, Object[] arguments, Object returnValue) {
+    }
+
+    public void methodInterceptorTimed(MethodInterceptor methodInterceptor, Method method, long duration) {
+    }
+
+    public void viewDispatched(View view) {
+    }
+
+    public void viewValueBound(String name, Object value, Object controller) {
+    }
+
+    public void controllerValueBound(String name, Object value, Object controller) {
+    }
+
+    public void controllerValueSkipped(String name, Object controller) {
+    }
+
+    public void genericParameterTypeFound(Type type, Method method) {
+    }
+
+    public void genericParameterTypeNotFound(Method method) {
+    }
+
+    public void valueConverterFound(Type type, ValueConverter converter) {
+    }
+
+    public void valueConverterNotFound(Type type) {
+    }
+
+    public void controllerNameResolved(String name, String path) {
+    }
+
+    public void servletInitialized(Servlet servlet) {
+    }
+
+    public void servletServiceRequested(Map<String, List<String>> parameters) {
+    }
+
+    public void servletServiceTimed(String controllerName, StageTimer stageTimer) {
+    }
+
+    public void controllerValidatorNotFound(String controllerValidatorName, String controllerName) {
+    }
+
+    public void methodDefinitionNotFound(ControllerDefinition controllerDefinition) {
+    }
+
+}
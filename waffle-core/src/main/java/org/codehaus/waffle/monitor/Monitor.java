@@ -17,4 +17,12 @@ public interface Monitor {
     enum Level {
         ERROR, INFO, WARN, DEBUG
     }
+
+    /**
+     * Determines if the event is monitored, so that callers may skip building costly event arguments if not
+     * 
+     * @param event the name of the event, ie of the monitor method
+     * @return A boolean flag
+     */
+    boolean isEnabled(String event);
 }
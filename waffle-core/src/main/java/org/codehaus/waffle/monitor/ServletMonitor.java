@@ -8,6 +8,8 @@ import java.util.Map;
 
 import javax.servlet.Servlet;
 
+import org.codehaus.waffle.servlet.StageTimer;
+
 
 /**
  * A monitor for servlet-related events
@@ -24,4 +26,13 @@ public interface ServletMonitor extends Monitor {
 
     void servletServiceFailed(Exception cause);
 
+    /**
+     * Reports the durations of the stages of servicing a request. The timer is reused by later requests and must not
+     * be retained.
+     * 
+     * @param controllerName the name of the controller, or <code>null</code> if not found
+     * @param stageTimer the StageTimer holding the durations
+     */
+    void servletServiceTimed(String controllerName, StageTimer stageTimer);
+
 }
@@ -10,6 +10,10 @@ package org.codehaus.waffle.monitor;
  */
 public class SilentMonitor extends AbstractWritingMonitor {
 
+    protected boolean isEnabled(Level level) {
+        return false;
+    }
+
     protected void write(Level level, String message) {
         // write nothing
     }
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.monitor;
+
+/**
+ * A request trace retained by the {@link Traces}, with the reason it was retained, ie <code>threshold</code> or
+ * <code>sample</code>, and the tree of its spans.
+ */
+public class Trace {
+    private final long timestamp;
+    private final String reason;
+    private final TraceSpan root;
+
+    Trace(long timestamp, String reason, TraceSpan root) {
+        this.timestamp = timestamp;
+        this.reason = reason;
+        this.root = root;
+    }
+
+    /**
+     * @return The time the request completed, in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public TraceSpan getRoot() {
+        return root;
+    }
+
+    public String toString() {
+        return "[Trace " + reason + " at " + timestamp + "]\n" + root;
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.monitor;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.codehaus.waffle.action.InterceptingActionMethodExecutor;
+import org.codehaus.waffle.action.MethodDefinition;
+import org.codehaus.waffle.action.intercept.MethodInterceptor;
+import org.codehaus.waffle.servlet.StageTimer;
+import org.codehaus.waffle.servlet.StageTimer.Stage;
+import org.codehaus.waffle.validation.BindErrorMessage;
+
+/**
+ * Records the events of the request serviced by a thread, holding references to their arguments without formatting
+ * them, so that a trace is only built if the request is retained. A recorder is reused by the requests of its thread,
+ * and the number of events recorded per request is bounded.
+ */
+final class TraceRecorder {
+    private static final int MAX_EVENTS = 32;
+    private static final int MAX_DETAIL_LENGTH = 200;
+
+    private String path;
+    private Method method;
+    private MethodDefinition methodDefinition;
+    private long actionDuration;
+    private boolean actionFailed;
+    private final List<MethodInterceptor> interceptors = new ArrayList<MethodInterceptor>();
+    private final long[] interceptorDurations = new long[MAX_EVENTS];
+    private final List<BindErrorMessage> bindErrors = new ArrayList<BindErrorMessage>();
+    private final List<String> failures = new ArrayList<String>();
+    private final List<Exception> causes = new ArrayList<Exception>();
+    private String viewKind;
+    private Object view;
+
+    void controllerResolved(String path) {
+        this.path = path;
+    }
+
+    void methodFound(MethodDefinition methodDefinition) {
+        this.methodDefinition = methodDefinition;
+    }
+
+    void methodIntercepted(MethodInterceptor methodInterceptor, long duration) {
+        // the interceptor invoking the action method is the action span itself
+        if (methodInterceptor.getClass().getEnclosingClass() == InterceptingActionMethodExecutor.class) {
+            return;
+        }
+        if (interceptors.size() < MAX_EVENTS) {
+            interceptorDurations[interceptors.size()] = duration;
+            interceptors.add(methodInterceptor);
+        }
+    }
+
+    void methodExecuted(Method method, long duration, boolean failed) {
+        this.method = method;
+        this.actionDuration = duration;
+        this.actionFailed = failed;
+    }
+
+    void bindFailed(BindErrorMessage errorMessage) {
+        if (bindErrors.size() < MAX_EVENTS) {
+            bindErrors.add(errorMessage);
+        }
+    }
+
+    void failed(String failure, Exception cause) {
+        if (failures.size() < MAX_EVENTS) {
+            failures.add(failure);
+            causes.add(cause);
+        }
+    }
+
+    void viewHandled(String viewKind, Object view) {
+        this.viewKind = viewKind;
+        this.view = view;
+    }
+
+    void viewDispatched(String path) {
+        // the view monitor events are more specific
+        if (viewKind == null) {
+            viewHandled("view", path);
+        }
+    }
+
+    /**
+     * Builds the trace of the request, whose spans are the stages timed and the events recorded within them
+     */
+    Trace toTrace(String controllerName, StageTimer stageTimer, String reason) {
+        TraceSpan root = new TraceSpan("request", controllerName, stageTimer.getTotal());
+        root.add(new TraceSpan(Stage.CONTROLLER.getMetricName(), path, stageTimer.getDuration(Stage.CONTROLLER)));
+        TraceSpan bind = root.add(new TraceSpan(Stage.BIND.getMetricName(), null, stageTimer.getDuration(Stage.BIND)));
+        for (BindErrorMessage bindError : bindErrors) {
+            bind.add(new TraceSpan("bindError", truncate(bindError.getName() + "=" + bindError.getValue() + ": "
+                    + bindError.getMessage()), 0));
+        }
+        root.add(new TraceSpan(Stage.VALIDATE.getMetricName(), null, stageTimer.getDuration(Stage.VALIDATE)));
+        TraceSpan execute = root.add(new TraceSpan(Stage.EXECUTE.getMetricName(), null, stageTimer
+                .getDuration(Stage.EXECUTE)));
+        if (method != null || methodDefinition != null) {
+            TraceSpan parent = execute;
+            // interceptors are recorded as they return, ie from the innermost to the outermost
+            for (int i = interceptors.size() - 1; i >= 0; i--) {
+                parent = parent.add(new TraceSpan("interceptor", interceptors.get(i).getClass().getName(),
+                        interceptorDurations[i]));
+            }
+            parent.add(new TraceSpan(actionFailed ? "actionFailed" : "action", actionDetail(), actionDuration));
+        }
+        root.add(new TraceSpan(Stage.VIEW_BIND.getMetricName(), null, stageTimer.getDuration(Stage.VIEW_BIND)));
+        TraceSpan handle = root.add(new TraceSpan(Stage.HANDLE.getMetricName(), null, stageTimer
+                .getDuration(Stage.HANDLE)));
+        if (viewKind != null) {
+            handle.add(new TraceSpan(viewKind, truncate(String.valueOf(view)), 0));
+        }
+        for (int i = 0; i < failures.size(); i++) {
+            root.add(new TraceSpan(failures.get(i), truncate(String.valueOf(causes.get(i))), 0));
+        }
+        return new Trace(System.currentTimeMillis(), reason, root);
+    }
+
+    private String actionDetail() {
+        StringBuilder sb = new StringBuilder();
+        Method actionMethod = method != null ? method : methodDefinition.getMethod();
+        sb.append(actionMethod.getName()).append('(');
+        if (methodDefinition != null && methodDefinition.getMethod().equals(actionMethod)) {
+            List<Object> arguments = methodDefinition.getMethodArguments();
+            for (int i = 0; i < arguments.size(); i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append(arguments.get(i));
+            }
+        }
+        return truncate(sb.append(')').toString());
+    }
+
+    private String truncate(String detail) {
+        return detail.length() > MAX_DETAIL_LENGTH ? detail.substring(0, MAX_DETAIL_LENGTH) + "..." : detail;
+    }
+
+    void clear() {
+        path = null;
+        method = null;
+        methodDefinition = null;
+        actionDuration = 0;
+        actionFailed = false;
+        interceptors.clear();
+        bindErrors.clear();
+        failures.clear();
+        causes.clear();
+        viewKind = null;
+        view = null;
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.monitor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A span of a {@link Trace}, ie a named part of a request with an optional detail, its duration, if timed, and its
+ * child spans.
+ */
+public class TraceSpan {
+    private final String name;
+    private final String detail;
+    private final long duration;
+    private List<TraceSpan> children = Collections.emptyList();
+
+    TraceSpan(String name, String detail, long duration) {
+        this.name = name;
+        this.detail = detail;
+        this.duration = duration;
+    }
+
+    TraceSpan add(TraceSpan child) {
+        if (children.isEmpty()) {
+            children = new ArrayList<TraceSpan>();
+        }
+        children.add(child);
+        return child;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    /**
+     * @return The duration in milliseconds, or 0 if the span is not timed
+     */
+    public double getDurationMillis() {
+        return duration / 1e6;
+    }
+
+    public List<TraceSpan> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        appendTo(sb, 0);
+        return sb.toString();
+    }
+
+    private void appendTo(StringBuilder sb, int depth) {
+        for (int i = 0; i < depth; i++) {
+            sb.append("  ");
+        }
+        sb.append(name);
+        if (detail != null) {
+            sb.append(' ').append(detail);
+        }
+        if (duration > 0) {
+            sb.append(" (").append(getDurationMillis()).append("ms)");
+        }
+        sb.append('\n');
+        for (TraceSpan child : children) {
+            child.appendTo(sb, depth + 1);
+        }
+    }
+
+}
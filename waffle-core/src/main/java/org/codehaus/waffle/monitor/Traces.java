@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.monitor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.codehaus.waffle.servlet.StageTimer;
+
+/**
+ * <p>
+ * Holds the traces of outlier requests, as recorded by the {@link TracingMonitor}. The trace of a request is retained
+ * if its duration reaches the threshold, or if it falls in the 1-in-N sample of the other requests. Other traces are
+ * discarded without being built.
+ * </p>
+ * <p>
+ * Retained traces are held in a bounded lock-free ring buffer, which overwrites the oldest traces when full.
+ * </p>
+ */
+public class Traces {
+    public static final int DEFAULT_CAPACITY = 128;
+    public static final long DEFAULT_THRESHOLD_MILLIS = 1000;
+    public static final int DEFAULT_SAMPLE_RATE = 1000;
+    private static final String THRESHOLD = "threshold";
+    private static final String SAMPLE = "sample";
+    private static final Traces SHARED = new Traces();
+
+    private final AtomicReferenceArray<Trace> buffer;
+    private final AtomicLong retained = new AtomicLong();
+    private final AtomicLong sampled = new AtomicLong();
+    private final ThreadLocal<TraceRecorder> recorders = new ThreadLocal<TraceRecorder>() {
+        protected TraceRecorder initialValue() {
+            return new TraceRecorder();
+        }
+    };
+    private volatile long thresholdNanos;
+    private volatile int sampleRate;
+
+    public Traces() {
+        this(DEFAULT_CAPACITY, DEFAULT_THRESHOLD_MILLIS, DEFAULT_SAMPLE_RATE);
+    }
+
+    /**
+     * Creates Traces
+     * 
+     * @param capacity the maximum number of traces retained
+     * @param thresholdMillis the duration from which requests are retained, in milliseconds
+     * @param sampleRate the N of the 1-in-N sample of requests retained, or 0 for no sample
+     */
+    public Traces(int capacity, long thresholdMillis, int sampleRate) {
+        this.buffer = new AtomicReferenceArray<Trace>(capacity);
+        setThresholdMillis(thresholdMillis);
+        setSampleRate(sampleRate);
+    }
+
+    /**
+     * Returns the traces shared by default within the class loader, ie by the web application
+     * 
+     * @return The shared Traces
+     */
+    public static Traces shared() {
+        return SHARED;
+    }
+
+    public long getThresholdMillis() {
+        return thresholdNanos / 1000000;
+    }
+
+    public void setThresholdMillis(long thresholdMillis) {
+        this.thresholdNanos = thresholdMillis * 1000000;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    TraceRecorder recorder() {
+        return recorders.get();
+    }
+
+    /**
+     * Completes the request recorded by the current thread, retaining its trace if it is an outlier or sampled
+     * 
+     * @param controllerName the name of the controller
+     * @param stageTimer the StageTimer of the request
+     */
+    void complete(String controllerName, StageTimer stageTimer) {
+        TraceRecorder recorder = recorders.get();
+        try {
+            String reason = null;
+            if (stageTimer.getTotal() >= thresholdNanos) {
+                reason = THRESHOLD;
+            } else {
+                int rate = sampleRate;
+                if (rate > 0 && sampled.incrementAndGet() % rate == 0) {
+                    reason = SAMPLE;
+                }
+            }
+            if (reason != null) {
+                add(recorder.toTrace(controllerName, stageTimer, reason));
+            }
+        } finally {
+            recorder.clear();
+        }
+    }
+
+    void add(Trace trace) {
+        long index = retained.getAndIncrement();
+        buffer.set((int) (index % buffer.length()), trace);
+    }
+
+    /**
+     * Returns the traces retained, the most recent first. Traces being retained concurrently may be missing.
+     * 
+     * @return The list of Trace
+     */
+    public List<Trace> getTraces() {
+        List<Trace> traces = new ArrayList<Trace>();
+        long last = retained.get();
+        long first = Math.max(0, last - buffer.length());
+        for (long index = last - 1; index >= first; index--) {
+            Trace trace = buffer.get((int) (index % buffer.length()));
+            if (trace != null && !traces.contains(trace)) {
+                traces.add(trace);
+            }
+        }
+        return traces;
+    }
+
+    public void clear() {
+        for (int i = 0; i < buffer.length(); i++) {
+            buffer.set(i, null);
+        }
+    }
+
+}
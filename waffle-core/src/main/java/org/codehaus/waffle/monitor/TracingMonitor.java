@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.monitor;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.servlet.Servlet;
+import javax.servlet.http.HttpServletResponse;
+
+import org.codehaus.waffle.action.ActionMethodResponse;
+import org.codehaus.waffle.action.MethodDefinition;
+import org.codehaus.waffle.action.intercept.MethodInterceptor;
+import org.codehaus.waffle.action.HierarchicalArgumentResolver.Scope;
+import org.codehaus.waffle.bind.ValueConverter;
+import org.codehaus.waffle.controller.ControllerDefinition;
+import org.codehaus.waffle.servlet.StageTimer;
+import org.codehaus.waffle.validation.BindErrorMessage;
+import org.codehaus.waffle.view.RedirectView;
+import org.codehaus.waffle.view.ResponderView;
+import org.codehaus.waffle.view.View;
+
+/**
+ * <p>
+ * Monitor that records the events of each request, ie the controller resolved, the action method and its arguments,
+ * the interceptors traversed, the bind errors, failures and the view handled, and retains the trace of outlier
+ * requests in {@link Traces}, which are shared by default. The events are recorded by reference and only formatted if
+ * the trace is retained.
+ * </p>
+ * <p>
+ * The monitor must be registered as the ServletMonitor, which completes the requests, and as any of the action, bind,
+ * controller, validation and view monitors whose events are traced. The traces may be read via the
+ * <code>TracesServlet</code>, as JSON.
+ * </p>
+ */
+public class TracingMonitor implements ActionMonitor, BindMonitor, ControllerMonitor, ServletMonitor,
+        ValidationMonitor, ViewMonitor {
+    private static final Set<String> TRACED_EVENTS = new HashSet<String>(Arrays.asList("servletServiceTimed",
+            "controllerNameResolved", "defaultActionMethodFound", "defaultActionMethodCached",
+            "pragmaticActionMethodFound", "actionMethodFound", "methodInterceptorTimed", "actionMethodTimed",
+            "controllerBindFailed", "viewBindFailed", "validationFailed", "actionMethodExecutionFailed",
+            "actionMethodInvocationFailed", "servletServiceFailed", "viewForwarded", "viewRedirected",
+            "viewResponded", "viewDispatched"));
+
+    private final Traces traces;
+
+    public TracingMonitor() {
+        this(Traces.shared());
+    }
+
+    public TracingMonitor(Traces traces) {
+        this.traces = traces;
+    }
+
+    public Traces getTraces() {
+        return traces;
+    }
+
+    public boolean isEnabled(String event) {
+        return TRACED_EVENTS.contains(event);
+    }
+
+    public void servletServiceTimed(String controllerName, StageTimer stageTimer) {
+        traces.complete(controllerName, stageTimer);
+    }
+
+    public void controllerNameResolved(String name, String path) {
+        traces.recorder().controllerResolved(path);
+    }
+
+    public void defaultActionMethodFound(MethodDefinition methodDefinition) {
+        traces.recorder().methodFound(methodDefinition);
+    }
+
+    public void defaultActionMethodCached(Class<?> controllerType, MethodDefinition methodDefinition) {
+        traces.recorder().methodFound(methodDefinition);
+    }
+
+    public void pragmaticActionMethodFound(MethodDefinition methodDefinition) {
+        traces.recorder().methodFound(methodDefinition);
+    }
+
+    public void actionMethodFound(MethodDefinition methodDefinition) {
+        traces.recorder().methodFound(methodDefinition);
+    }
+
+    public void methodInterceptorTimed(MethodInterceptor methodInterceptor, Method method, long duration) {
+        traces.recorder().methodIntercepted(methodInterceptor, duration);
+    }
+
+    public void actionMethodTimed(String controllerName, Method method, long duration, boolean failed) {
+        traces.recorder().methodExecuted(method, duration, failed);
+    }
+
+    public void controllerBindFailed(Object controller, BindErrorMessage errorMessage, Exception cause) {
+        traces.recorder().bindFailed(errorMessage);
+    }
+
+    public void viewBindFailed(Object controller, Exception cause) {
+        traces.recorder().failed("viewBindFailed", cause);
+    }
+
+    public void validationFailed(Exception cause) {
+        traces.recorder().failed("validationFailed", cause);
+    }
+
+    public void actionMethodExecutionFailed(Exception cause) {
+        traces.recorder().failed("actionMethodExecutionFailed", cause);
+    }
+
+    public void actionMethodInvocationFailed(Exception cause) {
+        traces.recorder().failed("actionMethodInvocationFailed", cause);
+    }
+
+    public void servletServiceFailed(Exception cause) {
+        traces.recorder().failed("servletServiceFailed", cause);
+    }
+
+    public void viewForwarded(String path) {
+        traces.recorder().viewHandled("forward", path);
+    }
+
+    public void viewRedirected(RedirectView redirectView) {
+        traces.recorder().viewHandled("redirect", redirectView.getPath());
+    }
+
+    public void viewResponded(ResponderView responderView) {
+        traces.recorder().viewHandled("respond", responderView.getClass().getName());
+    }
+
+    public void viewDispatched(View view) {
+        traces.recorder().viewDispatched(view.getPath());
+    }
+
+    public void actionMethodExecuted(ActionMethodResponse actionMethodResponse) {
+    }
+
+    public void actionMethodInvokerNotGenerated(Method method, Exception cause) {
+    }
+
+    public void argumentNameResolved(String name, Object value, Scope scope) {
+    }
+
+    public void argumentNameNotMatched(String name, String pattern) {
+    }
+
+    public void methodNameResolved(String methodName, String methodKey, Set<String> keys) {
+    }
+
+    public void methodIntercepted(Method method, Object[] arguments, Object returnValue) {
+    }
+
+    public void responseIsCommitted(HttpServletResponse response) {
+    }
+
+
+    public void viewValueBound(String name, Object value, Object controller) {
+    }
+
+    public void controllerValueBound(String name, Object value, Object controller) {
+    }
+
+    public void controllerValueSkipped(String name, Object controller) {
+    }
+
+    public void genericParameterTypeFound(Type type, Method method) {
+    }
+
+    public void genericParameterTypeNotFound(Method method) {
+    }
+
+    public void valueConverterFound(Type type, ValueConverter converter) {
+    }
+
+    public void valueConverterNotFound(Type type) {
+    }
+
+    public void controllerNotFound(String name) {
+    }
+
+    public void methodDefinitionNotFound(String controllerName) {
+    }
+
+    public void servletInitialized(Servlet servlet) {
+    }
+
+    public void servletServiceRequested(Map<String, List<String>> parameters) {
+    }
+
+    public void controllerValidatorNotFound(String controllerValidatorName, String controllerName) {
+    }
+
+    public void methodDefinitionNotFound(ControllerDefinition controllerDefinition) {
+    }
+
+}
@@ -36,10 +36,12 @@ import org.codehaus.waffle.bind.StringTransmuter;
 import org.codehaus.waffle.bind.DefaultStringTransmuter;
 import org.codehaus.waffle.bind.ValueConverterFinder;
 import org.codehaus.waffle.bind.ognl.OgnlBindErrorMessageResolver;
-import org.codehaus.waffle.bind.ognl.OgnlControllerDataBinder;
+import org.codehaus.waffle.bind.ognl.PropertyControllerDataBinder;
 import org.codehaus.waffle.bind.ognl.OgnlValueConverterFinder;
 import org.codehaus.waffle.action.ActionMethodExecutor;
 import org.codehaus.waffle.action.InterceptingActionMethodExecutor;
+import org.codehaus.waffle.action.ActionMethodInvokerFactory;
+import org.codehaus.waffle.action.JavassistActionMethodInvokerFactory;
 import org.codehaus.waffle.action.ActionMethodResponseHandler;
 import org.codehaus.waffle.action.DefaultActionMethodResponseHandler;
 import org.codehaus.waffle.action.ArgumentResolver;
@@ -67,6 +69,7 @@ public abstract class WaffleComposer implements WebappComposer {
 
         // add all known components
         picoContainer.addComponent(ActionMethodExecutor.class, actionMethodExecutor());
+        picoContainer.addComponent(ActionMethodInvokerFactory.class, actionMethodInvokerFactory());
         picoContainer.addComponent(ActionMethodResponseHandler.class, actionMethodResponseHandler());
         picoContainer.addComponent(ArgumentResolver.class, argumentResolver());
         picoContainer.addComponent(MethodDefinitionFinder.class, methodDefinitionFinder());
@@ -96,6 +99,10 @@ public abstract class WaffleComposer implements WebappComposer {
         return InterceptingActionMethodExecutor.class;
     }
 
+    protected Class<? extends ActionMethodInvokerFactory> actionMethodInvokerFactory() {
+        return JavassistActionMethodInvokerFactory.class;
+    }
+
     protected Class<? extends ActionMethodResponseHandler> actionMethodResponseHandler() {
         return DefaultActionMethodResponseHandler.class;
     }
@@ -117,7 +124,7 @@ public abstract class WaffleComposer implements WebappComposer {
     }
 
     protected Class<? extends ControllerDataBinder> controllerDataBinder() {
-        return OgnlControllerDataBinder.class;
+        return PropertyControllerDataBinder.class;
     }
 
     protected Class<? extends ViewDataBinder> viewDataBinder() {
@@ -5,6 +5,7 @@ package org.codehaus.waffle.pico;
 
 import static java.util.Arrays.asList;
 import static org.codehaus.waffle.Constants.ERRORS_VIEW_KEY;
+import static org.codehaus.waffle.Constants.SERVER_TIMING_KEY;
 import static org.codehaus.waffle.Constants.VIEW_PREFIX_KEY;
 import static org.codehaus.waffle.Constants.VIEW_SUFFIX_KEY;
 
@@ -25,6 +26,7 @@ import javax.servlet.http.HttpServletResponse;
 import org.codehaus.waffle.WaffleException;
 import org.codehaus.waffle.ComponentFinder;
 import org.codehaus.waffle.pico.PicoComponentFinder;
+import org.codehaus.waffle.action.ActionMethodCandidate;
 import org.codehaus.waffle.action.ActionMethodExecutor;
 import org.codehaus.waffle.action.ActionMethodInvocationException;
 import org.codehaus.waffle.action.ActionMethodResponse;
@@ -33,6 +35,7 @@ import org.codehaus.waffle.action.MethodDefinition;
 import org.codehaus.waffle.action.intercept.MethodInterceptor;
 import org.codehaus.waffle.action.annotation.PRG;
 import org.codehaus.waffle.bind.ControllerDataBinder;
+import org.codehaus.waffle.bind.LazyViewDataBinder;
 import org.codehaus.waffle.bind.ViewDataBinder;
 import org.codehaus.waffle.controller.ControllerDefinition;
 import org.codehaus.waffle.controller.ControllerDefinitionFactory;
@@ -40,6 +43,8 @@ import org.codehaus.waffle.i18n.MessageResources;
 import org.codehaus.waffle.i18n.MessagesContext;
 import org.codehaus.waffle.monitor.ServletMonitor;
 import org.codehaus.waffle.monitor.ValidationMonitor;
+import org.codehaus.waffle.servlet.StageTimer;
+import org.codehaus.waffle.servlet.StageTimer.Stage;
 import org.codehaus.waffle.validation.ErrorsContext;
 import org.codehaus.waffle.validation.GlobalErrorMessage;
 import org.codehaus.waffle.validation.Validator;
@@ -62,6 +67,9 @@ public class WafflePicoServlet extends HttpServlet {
 
     private static final String EMPTY = "";
     private static final String POST = "POST";
+    private static final String SERVLET_SERVICE_REQUESTED = "servletServiceRequested";
+    private static final String SERVLET_SERVICE_TIMED = "servletServiceTimed";
+    private static final String SERVER_TIMING_HEADER = "Server-Timing";
     private ActionMethodExecutor actionMethodExecutor;
     private ActionMethodResponseHandler actionMethodResponseHandler;
     private ControllerDefinitionFactory controllerDefinitionFactory;
@@ -72,6 +80,7 @@ public class WafflePicoServlet extends HttpServlet {
     private Validator validator;
     private ServletMonitor servletMonitor;
     private boolean componentsRetrieved = false;
+    private boolean serverTiming = false;
 
     private static ThreadLocal<MutablePicoContainer> currentRequestContainer = new ThreadLocal<MutablePicoContainer>();
     private static ThreadLocal<MutablePicoContainer> currentSessionContainer = new ThreadLocal<MutablePicoContainer>();
@@ -145,6 +154,7 @@ public class WafflePicoServlet extends HttpServlet {
         }
 
         configureViewProperties();
+        serverTiming = Boolean.valueOf(initParam(SERVER_TIMING_KEY, "false"));
         servletMonitor.servletInitialized(this);
     }
 
@@ -172,7 +182,9 @@ public class WafflePicoServlet extends HttpServlet {
     }
 
     /**
-     * Responsible for servicing the requests from the users.
+     * Responsible for servicing the requests from the users. The stages of the request are timed and reported to the
+     * ServletMonitor and, if the <code>server.timing</code> init parameter is <code>true</code>, in the Server-Timing
+     * header of the response.
      * 
      * @param request the HttpServletResponse
      * @param response the HttpServletResponse
@@ -181,7 +193,10 @@ public class WafflePicoServlet extends HttpServlet {
      */
     protected void service(HttpServletRequest request, HttpServletResponse response) throws ServletException,
             IOException {
-        servletMonitor.servletServiceRequested(parametersOf(request));
+        if (servletMonitor.isEnabled(SERVLET_SERVICE_REQUESTED)) {
+            servletMonitor.servletServiceRequested(parametersOf(request));
+        }
+        StageTimer stageTimer = StageTimer.start();
         MutablePicoContainer requestContainer = currentRequestContainer.get();
         ErrorsContext errorsContext = requestContainer.getComponent(ErrorsContext.class);
         Collection<MethodInterceptor> methodInterceptors = requestContainer.getComponents(MethodInterceptor.class);
@@ -195,13 +210,16 @@ public class WafflePicoServlet extends HttpServlet {
 
         ActionMethodResponse actionMethodResponse = new ActionMethodResponse();
         View view = null;
+        String controllerName = null;
         try {
             ComponentFinder componentFinder = new PicoComponentFinder(requestContainer);
 
             ControllerDefinition controllerDefinition = controllerDefinitionFactory.getControllerDefinition(request,
                     response, messageContext, componentFinder);
+            controllerName = controllerDefinition.getName();
+            stageTimer.end(Stage.CONTROLLER);
             controllerDataBinder.bind(request, response, errorsContext, controllerDefinition.getController());
-            String controllerName = controllerDefinition.getName();
+            stageTimer.end(Stage.BIND);
             Object controllerValidator;
             String controllerValidatorName = controllerName + validatorConfiguration.getSuffix();
             controllerValidator = requestContainer.getComponent(controllerValidatorName);
@@ -213,6 +231,7 @@ public class WafflePicoServlet extends HttpServlet {
             }
 
             validator.validate(controllerDefinition, errorsContext, controllerValidator);
+            stageTimer.end(Stage.VALIDATE);
             try {
 
                 if (errorsContext.hasErrorMessages() || noMethodDefinition(controllerDefinition)) {
@@ -246,7 +265,9 @@ public class WafflePicoServlet extends HttpServlet {
                 errorsContext.addErrorMessage(new GlobalErrorMessage(message, e));
                 view = buildActionMethodFailureView(controllerDefinition);
             }
-            viewDataBinder.bind(request, controllerDefinition.getController());
+            stageTimer.end(Stage.EXECUTE);
+            request = bindViewData(request, controllerDefinition.getController());
+            stageTimer.end(Stage.VIEW_BIND);
         } catch (WaffleException e) {
             servletMonitor.servletServiceFailed(e);
             errorsContext.addErrorMessage(new GlobalErrorMessage(e.getMessage(), e));
@@ -256,7 +277,33 @@ public class WafflePicoServlet extends HttpServlet {
         if (view != null) {
             actionMethodResponse.setReturnValue(view);
         }
-        actionMethodResponseHandler.handle(request, response, actionMethodResponse);
+        if (serverTiming) {
+            // the header must precede the response content, so the handle stage cannot be included
+            response.setHeader(SERVER_TIMING_HEADER, stageTimer.toServerTiming());
+        }
+        try {
+            actionMethodResponseHandler.handle(request, response, actionMethodResponse);
+        } finally {
+            stageTimer.end(Stage.HANDLE);
+            if (servletMonitor.isEnabled(SERVLET_SERVICE_TIMED)) {
+                servletMonitor.servletServiceTimed(controllerName, stageTimer);
+            }
+        }
+    }
+
+    /**
+     * Binds the controller data for the view, lazily if the ViewDataBinder supports it
+     * 
+     * @param request the HttpServletRequest
+     * @param controller the controller instance
+     * @return The request the view is rendered with
+     */
+    private HttpServletRequest bindViewData(HttpServletRequest request, Object controller) {
+        if (viewDataBinder instanceof LazyViewDataBinder) {
+            return ((LazyViewDataBinder) viewDataBinder).bindLazily(request, controller);
+        }
+        viewDataBinder.bind(request, controller);
+        return request;
     }
 
     private boolean noMethodDefinition(ControllerDefinition controllerDefinition) {
@@ -280,6 +327,10 @@ public class WafflePicoServlet extends HttpServlet {
      * @return A boolean flag, defaults to <code>true</code> if no annotation found
      */
     private boolean usePRG(MethodDefinition methodDefinition) {
+        ActionMethodCandidate candidate = methodDefinition.getCandidate();
+        if (candidate != null) {
+            return candidate.usePRG();
+        }
         Method method = methodDefinition.getMethod();
         // look for PRG annotation
         PRG prg = method.getAnnotation(PRG.class);
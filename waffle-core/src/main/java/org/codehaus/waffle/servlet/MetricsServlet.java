@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.servlet;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.codehaus.waffle.monitor.Metrics;
+import org.codehaus.waffle.view.JsonView;
+
+/**
+ * Servlet which renders a snapshot of the shared {@link Metrics}, recorded by the <code>MetricsMonitor</code>, as
+ * JSON. On initialisation, the metrics are also registered with the platform MBean server, under the name
+ * <code>org.codehaus.waffle:type=Metrics,context="&lt;context path&gt;"</code>, and unregistered on destruction.
+ */
+@SuppressWarnings("serial")
+public class MetricsServlet extends HttpServlet {
+    static final String OBJECT_NAME_PREFIX = "org.codehaus.waffle:type=Metrics,context=";
+
+    private Metrics metrics;
+    private ObjectName objectName;
+
+    public void init() throws ServletException {
+        metrics = metrics();
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME_PREFIX + ObjectName.quote(getServletContext().getContextPath()));
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (!server.isRegistered(name)) {
+                server.registerMBean(metrics, name);
+                objectName = name;
+            }
+        } catch (JMException e) {
+            log("Metrics not registered with the MBean server", e);
+        }
+    }
+
+    /**
+     * Returns the metrics to render and register, by default the shared metrics
+     * 
+     * @return The Metrics
+     */
+    protected Metrics metrics() {
+        return Metrics.shared();
+    }
+
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException,
+            IOException {
+        response.setHeader("Cache-Control", "no-cache");
+        new JsonView(metrics.snapshot()).respond(request, response);
+    }
+
+    public void destroy() {
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                log("Metrics not unregistered from the MBean server", e);
+            }
+            objectName = null;
+        }
+    }
+
+}
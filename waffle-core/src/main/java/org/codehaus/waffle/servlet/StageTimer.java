@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.servlet;
+
+/**
+ * <p>
+ * Times the stages of servicing a request, using <code>System.nanoTime()</code>. Each stage is timed from the end of
+ * the previous one, or from the start of the request.
+ * </p>
+ * <p>
+ * A timer is held per thread and reused by each request serviced on that thread, so it must not be retained beyond
+ * the request, eg by monitors.
+ * </p>
+ */
+public final class StageTimer {
+
+    public enum Stage {
+        CONTROLLER("controller"), BIND("bind"), VALIDATE("validate"), EXECUTE("execute"), VIEW_BIND("viewBind"),
+        HANDLE("handle");
+
+        private final String metricName;
+
+        Stage(String metricName) {
+            this.metricName = metricName;
+        }
+
+        /**
+         * @return The name of the stage, as used in the Server-Timing header
+         */
+        public String getMetricName() {
+            return metricName;
+        }
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+    private static final ThreadLocal<StageTimer> TIMERS = new ThreadLocal<StageTimer>() {
+        protected StageTimer initialValue() {
+            return new StageTimer();
+        }
+    };
+
+    private final long[] durations = new long[STAGES.length];
+    private long start;
+    private long last;
+
+    StageTimer() {
+        // timers are retrieved via start()
+    }
+
+    /**
+     * Starts the timer of the current thread, clearing the durations of any previous request
+     * 
+     * @return The StageTimer of the current thread
+     */
+    public static StageTimer start() {
+        StageTimer timer = TIMERS.get();
+        timer.reset(System.nanoTime());
+        return timer;
+    }
+
+    void reset(long now) {
+        for (int i = 0; i < durations.length; i++) {
+            durations[i] = 0;
+        }
+        start = now;
+        last = now;
+    }
+
+    /**
+     * Ends the stage, timing it from the end of the previous stage
+     * 
+     * @param stage the Stage ended
+     */
+    public void end(Stage stage) {
+        end(stage, System.nanoTime());
+    }
+
+    void end(Stage stage, long now) {
+        durations[stage.ordinal()] += now - last;
+        last = now;
+    }
+
+    /**
+     * @param stage the Stage
+     * @return The duration of the stage in nanoseconds, or 0 if the stage has not been ended
+     */
+    public long getDuration(Stage stage) {
+        return durations[stage.ordinal()];
+    }
+
+    /**
+     * @return The duration in nanoseconds from the start to the end of the last stage
+     */
+    public long getTotal() {
+        return last - start;
+    }
+
+    /**
+     * Returns the value of the Server-Timing header, listing the durations in milliseconds of the stages ended, eg
+     * <code>controller;dur=0.105, bind;dur=1.250</code>
+     * 
+     * @return The Server-Timing header value
+     */
+    public String toServerTiming() {
+        StringBuilder sb = new StringBuilder();
+        for (Stage stage : STAGES) {
+            long duration = durations[stage.ordinal()];
+            if (duration > 0) {
+                if (sb.length() > 0) {
+                    sb.append(", ");
+                }
+                sb.append(stage.getMetricName()).append(";dur=");
+                appendMillis(sb, duration);
+            }
+        }
+        return sb.toString();
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Stage stage : STAGES) {
+            sb.append(stage.getMetricName()).append('=');
+            appendMillis(sb, durations[stage.ordinal()]);
+            sb.append("ms, ");
+        }
+        sb.append("total=");
+        appendMillis(sb, getTotal());
+        return sb.append("ms").toString();
+    }
+
+    private void appendMillis(StringBuilder sb, long nanos) {
+        long micros = nanos / 1000;
+        long fraction = micros % 1000;
+        sb.append(micros / 1000).append('.');
+        if (fraction < 100) {
+            sb.append(fraction < 10 ? "00" : "0");
+        }
+        sb.append(fraction);
+    }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.servlet;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.codehaus.waffle.monitor.Traces;
+import org.codehaus.waffle.view.JsonView;
+
+/**
+ * Servlet which renders the traces retained by the shared {@link Traces}, recorded by the <code>TracingMonitor</code>,
+ * as JSON, the most recent first. The latency threshold and sample rate of the traces can be configured via the
+ * <code>trace.threshold</code> (in milliseconds) and <code>trace.sample.rate</code> init parameters.
+ */
+@SuppressWarnings("serial")
+public class TracesServlet extends HttpServlet {
+    static final String THRESHOLD_KEY = "trace.threshold";
+    static final String SAMPLE_RATE_KEY = "trace.sample.rate";
+
+    private Traces traces;
+
+    public void init() throws ServletException {
+        traces = traces();
+        try {
+            String threshold = getInitParameter(THRESHOLD_KEY);
+            if (threshold != null) {
+                traces.setThresholdMillis(Long.parseLong(threshold.trim()));
+            }
+            String sampleRate = getInitParameter(SAMPLE_RATE_KEY);
+            if (sampleRate != null) {
+                traces.setSampleRate(Integer.parseInt(sampleRate.trim()));
+            }
+        } catch (NumberFormatException e) {
+            throw new ServletException("Invalid trace configuration", e);
+        }
+    }
+
+    /**
+     * Returns the traces to render and configure, by default the shared traces
+     * 
+     * @return The Traces
+     */
+    protected Traces traces() {
+        return Traces.shared();
+    }
+
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException,
+            IOException {
+        response.setHeader("Cache-Control", "no-cache");
+        new JsonView(traces.getTraces()).respond(request, response);
+    }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.view;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.codehaus.waffle.action.ActionMethodInvoker;
+import org.codehaus.waffle.action.ActionMethodInvokerFactory;
+
+/**
+ * Holds the names and read methods of the bean properties of a class, in the order of the property descriptors.
+ * The <code>getClass()</code> method, write-only properties and read methods taking arguments are skipped. Read
+ * methods are invoked via the {@link ActionMethodInvokerFactory}, unless their class is not public.
+ */
+final class BeanProperties {
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
+    private final String[] names;
+    private final Method[] readMethods;
+    private final ActionMethodInvoker[] invokers;
+
+    private BeanProperties(Class<?> type, ActionMethodInvokerFactory actionMethodInvokerFactory) {
+        List<PropertyDescriptor> descriptors = new ArrayList<PropertyDescriptor>();
+        try {
+            BeanInfo beanInfo = Introspector.getBeanInfo(type);
+            for (PropertyDescriptor propertyDescriptor : beanInfo.getPropertyDescriptors()) {
+                Method readMethod = propertyDescriptor.getReadMethod();
+
+                // skip getClass() method and any get/is methods that take arguments
+                if (readMethod != null && readMethod.getParameterTypes().length == 0
+                        && !readMethod.getName().equals("getClass")) {
+                    descriptors.add(propertyDescriptor);
+                }
+            }
+        } catch (IntrospectionException e) {
+            throw new IllegalStateException(e);
+        }
+        names = new String[descriptors.size()];
+        readMethods = new Method[descriptors.size()];
+        invokers = new ActionMethodInvoker[descriptors.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = descriptors.get(i).getName();
+            readMethods[i] = descriptors.get(i).getReadMethod();
+            if (isPublic(readMethods[i])) {
+                invokers[i] = actionMethodInvokerFactory.invokerFor(readMethods[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the properties of the type, introspecting them if not found in the cache
+     * 
+     * @param type the bean type
+     * @param cache the cache of the properties by type
+     * @param actionMethodInvokerFactory the factory of the read method invokers
+     * @return The BeanProperties
+     */
+    static BeanProperties of(Class<?> type, ConcurrentMap<Class<?>, BeanProperties> cache,
+            ActionMethodInvokerFactory actionMethodInvokerFactory) {
+        BeanProperties properties = cache.get(type);
+        if (properties == null) {
+            properties = new BeanProperties(type, actionMethodInvokerFactory);
+            BeanProperties existing = cache.putIfAbsent(type, properties);
+            if (existing != null) {
+                properties = existing;
+            }
+        }
+        return properties;
+    }
+
+    static ConcurrentMap<Class<?>, BeanProperties> newCache() {
+        return new ConcurrentHashMap<Class<?>, BeanProperties>();
+    }
+
+    private boolean isPublic(Method method) {
+        return Modifier.isPublic(method.getModifiers())
+                && Modifier.isPublic(method.getDeclaringClass().getModifiers());
+    }
+
+    int size() {
+        return names.length;
+    }
+
+    String nameOf(int index) {
+        return names[index];
+    }
+
+    Object valueOf(int index, Object bean) throws IllegalAccessException, InvocationTargetException {
+        // methods of non-public classes are invoked as before, from this package
+        if (invokers[index] != null) {
+            return invokers[index].invoke(bean, NO_ARGUMENTS);
+        }
+        return readMethods[index].invoke(bean);
+    }
+
+}
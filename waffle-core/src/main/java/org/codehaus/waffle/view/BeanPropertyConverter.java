@@ -9,40 +9,46 @@ import com.thoughtworks.xstream.converters.UnmarshallingContext;
 import com.thoughtworks.xstream.io.HierarchicalStreamReader;
 import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
 
-import java.beans.BeanInfo;
-import java.beans.IntrospectionException;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
+import org.codehaus.waffle.action.ActionMethodInvokerFactory;
+import org.codehaus.waffle.action.JavassistActionMethodInvokerFactory;
+import org.codehaus.waffle.monitor.SilentMonitor;
+
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentMap;
 
 /**
- * Used to make XStream use bean getters to serialize, no attributes
+ * Used to make XStream use bean getters to serialize, no attributes. The getters of each class are introspected once
+ * and invoked via the {@link ActionMethodInvokerFactory}.
  *
  * @author Paulo Silveira
  * @author Michael Ward
  */
 public class BeanPropertyConverter implements Converter {
 
-    public void marshal(Object object, HierarchicalStreamWriter writer, MarshallingContext context) {
-        try {
-            BeanInfo beanInfo = Introspector.getBeanInfo(object.getClass());
-            PropertyDescriptor[] propertyDescriptors = beanInfo.getPropertyDescriptors();
+    private final ActionMethodInvokerFactory actionMethodInvokerFactory;
+    private final ConcurrentMap<Class<?>, BeanProperties> properties = BeanProperties.newCache();
 
-            for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
-                Method readMethod = propertyDescriptor.getReadMethod();
+    public BeanPropertyConverter() {
+        this(new JavassistActionMethodInvokerFactory(new SilentMonitor()));
+    }
 
-                // skip getClass() method and any get/is methods that take arguments
-                if (readMethod.getParameterTypes().length == 0 && !readMethod.getName().equals("getClass")) {
-                    writer.startNode(propertyDescriptor.getName());
-                    Object got = readMethod.invoke(object);
+    public BeanPropertyConverter(ActionMethodInvokerFactory actionMethodInvokerFactory) {
+        this.actionMethodInvokerFactory = actionMethodInvokerFactory;
+    }
 
-                    if (got != null) {
-                        context.convertAnother(got);
-                    }
+    public void marshal(Object object, HierarchicalStreamWriter writer, MarshallingContext context) {
+        try {
+            BeanProperties beanProperties = BeanProperties.of(object.getClass(), properties,
+                    actionMethodInvokerFactory);
+            for (int i = 0; i < beanProperties.size(); i++) {
+                writer.startNode(beanProperties.nameOf(i));
+                Object got = beanProperties.valueOf(i, object);
 
-                    writer.endNode();
+                if (got != null) {
+                    context.convertAnother(got);
                 }
+
+                writer.endNode();
             }
         } catch (IllegalArgumentException e) {
             throw new IllegalStateException(e);
@@ -50,8 +56,6 @@ public class BeanPropertyConverter implements Converter {
             throw new IllegalStateException(e);
         } catch (InvocationTargetException e) {
             throw new IllegalStateException(e);
-        } catch (IntrospectionException e) {
-            throw new IllegalStateException(e);
         }
     }
 
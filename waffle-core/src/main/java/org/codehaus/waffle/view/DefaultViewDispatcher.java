@@ -15,7 +15,8 @@ import javax.servlet.http.HttpServletResponse;
 import org.codehaus.waffle.monitor.ViewMonitor;
 
 /**
- * The ViewDispatcher handles redirecting/forwarding/exporting to the view
+ * The ViewDispatcher handles redirecting/forwarding/exporting to the view. Controllers rendered by an {@link XMLView}
+ * or a {@link JsonView} are rendered as XML or JSON, as preferred by the <code>Accept</code> header of the request.
  *
  * @author Michael Ward
  * @author Paulo Silveira
@@ -25,6 +26,17 @@ public class DefaultViewDispatcher implements ViewDispatcher {
     static final String ATTACHMENT_FILENAME = "attachment; filename={0}";
     static final String CONTENT_DISPOSITION_HEADER = "content-disposition";
     static final String LOCATION_HEADER = "Location";
+    static final String ACCEPT_HEADER = "Accept";
+    static final String VARY_HEADER = "Vary";
+    static final String CONTENT_LENGTH_HEADER = "Content-Length";
+    static final String ACCEPT_RANGES_HEADER = "Accept-Ranges";
+    static final String LAST_MODIFIED_HEADER = "Last-Modified";
+    static final String RANGE_HEADER = "Range";
+    static final String IF_RANGE_HEADER = "If-Range";
+    static final String CONTENT_RANGE_HEADER = "Content-Range";
+    private static final String BYTES_UNIT = "bytes";
+    private static final String[] JSON_TYPES = { JsonView.CONTENT_TYPE };
+    private static final String[] XML_TYPES = { XMLView.CONTENT_TYPE, "application/xml" };
     private final ViewResolver viewResolver;
     private final ViewMonitor viewMonitor;
 
@@ -41,7 +53,7 @@ public class DefaultViewDispatcher implements ViewDispatcher {
             ExportView exportView = (ExportView) view;
             response.setContentType(exportView.getContentType());
             response.setHeader(CONTENT_DISPOSITION_HEADER, format(ATTACHMENT_FILENAME, exportView.getFilename()));
-            response.getOutputStream().write(exportView.getContent());
+            export(request, response, exportView.getExportContent());
         } else if (view instanceof RedirectView) {
             RedirectView redirectView = (RedirectView) view;
             response.setStatus(redirectView.getStatusCode());
@@ -49,7 +61,7 @@ public class DefaultViewDispatcher implements ViewDispatcher {
             response.setHeader(LOCATION_HEADER, path);
             viewMonitor.viewRedirected(redirectView);
         } else if (view instanceof ResponderView) {
-            ResponderView responderView = (ResponderView) view;
+            ResponderView responderView = negotiate(request, response, (ResponderView) view);
             responderView.respond(request, response);
             viewMonitor.viewResponded(responderView);
         } else {
@@ -59,4 +71,157 @@ public class DefaultViewDispatcher implements ViewDispatcher {
             viewMonitor.viewForwarded(path);
         }
     }
+
+    /**
+     * Returns the view rendering the controller in the format preferred by the Accept header, if the view renders the
+     * controller as XML or JSON, or the view itself otherwise. A format is only preferred if accepted with a higher
+     * quality than the format of the view. An XML view is kept, with its encoding, unless JSON is preferred, while the
+     * XML rendering a JSON view is written in the encoding of the JSON view.
+     */
+    private ResponderView negotiate(HttpServletRequest request, HttpServletResponse response, ResponderView view) {
+        boolean xml = view.getClass() == XMLView.class;
+        boolean json = view.getClass() == JsonView.class && ((JsonView) view).rendersController();
+        if (!xml && !json) {
+            return view;
+        }
+        response.addHeader(VARY_HEADER, ACCEPT_HEADER);
+        String accept = request.getHeader(ACCEPT_HEADER);
+        if (accept != null) {
+            float jsonQuality = qualityOf(accept, JSON_TYPES);
+            float xmlQuality = qualityOf(accept, XML_TYPES);
+            if (xml && jsonQuality > xmlQuality) {
+                return new JsonView();
+            } else if (json && xmlQuality > jsonQuality) {
+                return new XMLView(((JsonView) view).getCharacterEncoding());
+            }
+        }
+        return view;
+    }
+
+    /**
+     * Returns the highest quality with which any of the media types is explicitly accepted, or 0 if none is
+     */
+    static float qualityOf(String accept, String[] mediaTypes) {
+        float quality = 0;
+        for (String range : accept.split(",")) {
+            String[] parameters = range.split(";");
+            String mediaType = parameters[0].trim();
+            for (String type : mediaTypes) {
+                if (type.equalsIgnoreCase(mediaType)) {
+                    quality = Math.max(quality, qualityParameterOf(parameters));
+                }
+            }
+        }
+        return quality;
+    }
+
+    private static float qualityParameterOf(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i];
+            int equals = parameter.indexOf('=');
+            if (equals > 0 && parameter.substring(0, equals).trim().equalsIgnoreCase("q")) {
+                try {
+                    return Float.parseFloat(parameter.substring(equals + 1).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Writes the content, or the single byte range requested by the Range header if the content is of known length and
+     * has not been modified since the date of any If-Range header
+     */
+    private void export(HttpServletRequest request, HttpServletResponse response, ExportContent content)
+            throws IOException {
+        try {
+            long length = content.length();
+            if (length < 0) {
+                content.writeTo(response.getOutputStream(), 0, -1);
+                return;
+            }
+            response.setHeader(ACCEPT_RANGES_HEADER, BYTES_UNIT);
+            long lastModified = content.lastModified();
+            if (lastModified > 0) {
+                response.setDateHeader(LAST_MODIFIED_HEADER, lastModified);
+            }
+            long[] range = null;
+            if (isRangeValid(request, lastModified)) {
+                range = rangeOf(request.getHeader(RANGE_HEADER), length);
+            }
+            if (range == null) {
+                response.setHeader(CONTENT_LENGTH_HEADER, Long.toString(length));
+                content.writeTo(response.getOutputStream(), 0, length);
+            } else if (range.length == 0) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(CONTENT_RANGE_HEADER, BYTES_UNIT + " */" + length);
+            } else {
+                long rangeLength = range[1] - range[0] + 1;
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(CONTENT_RANGE_HEADER, BYTES_UNIT + " " + range[0] + "-" + range[1] + "/" + length);
+                response.setHeader(CONTENT_LENGTH_HEADER, Long.toString(rangeLength));
+                content.writeTo(response.getOutputStream(), range[0], rangeLength);
+            }
+        } finally {
+            content.close();
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if a range is requested without an If-Range header, or with an If-Range date matching
+     * the last modification time. Entity tags are not generated, so If-Range headers with entity tags never match.
+     */
+    private boolean isRangeValid(HttpServletRequest request, long lastModified) {
+        if (request.getHeader(RANGE_HEADER) == null) {
+            return false;
+        }
+        if (request.getHeader(IF_RANGE_HEADER) == null) {
+            return true;
+        }
+        try {
+            return lastModified > 0 && request.getDateHeader(IF_RANGE_HEADER) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Parses a single byte range, returning the first and last byte positions, an empty array if the range is not
+     * satisfiable, as any range of empty content, or <code>null</code> if the header is not a single valid byte range,
+     * which is then ignored
+     */
+    static long[] rangeOf(String range, long length) {
+        String prefix = BYTES_UNIT + "=";
+        if (!range.startsWith(prefix) || range.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = range.substring(prefix.length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.length() == 0) {
+                // suffix range of the last bytes
+                long suffix = Long.parseLong(last);
+                if (suffix < 0) {
+                    return null;
+                }
+                return suffix == 0 || length == 0 ? new long[0] : new long[] { Math.max(0, length - suffix),
+                        length - 1 };
+            }
+            long start = Long.parseLong(first);
+            long end = last.length() == 0 ? Long.MAX_VALUE : Long.parseLong(last);
+            if (start < 0 || end < start) {
+                return null;
+            }
+            return start >= length ? new long[0] : new long[] { start, Math.min(end, length - 1) };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 }
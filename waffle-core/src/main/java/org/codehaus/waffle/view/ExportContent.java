@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.view;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * The content of an {@link ExportView}, which is written to the response as a whole or as a range of bytes.
+ */
+abstract class ExportContent {
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Returns the length of the content in bytes, or -1 if not known
+     */
+    abstract long length() throws IOException;
+
+    /**
+     * Returns the time the content was last modified, or 0 if not known
+     */
+    long lastModified() {
+        return 0;
+    }
+
+    /**
+     * Writes the bytes of the content from the offset to the output stream. A length of -1 writes all the remaining
+     * bytes.
+     */
+    abstract void writeTo(OutputStream outputStream, long offset, long length) throws IOException;
+
+    /**
+     * Releases the resources of the content, once exported
+     */
+    void close() throws IOException {
+    }
+
+    static class Bytes extends ExportContent {
+        private final byte[] bytes;
+
+        Bytes(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        long length() {
+            return bytes.length;
+        }
+
+        void writeTo(OutputStream outputStream, long offset, long length) throws IOException {
+            outputStream.write(bytes, (int) offset, (int) (length < 0 ? bytes.length - offset : length));
+        }
+    }
+
+    static class OfFile extends ExportContent {
+        private final File file;
+
+        OfFile(File file) {
+            this.file = file;
+        }
+
+        long length() {
+            return file.length();
+        }
+
+        long lastModified() {
+            return file.lastModified();
+        }
+
+        void writeTo(OutputStream outputStream, long offset, long length) throws IOException {
+            FileInputStream inputStream = new FileInputStream(file);
+            try {
+                transfer(inputStream.getChannel(), outputStream, offset, length);
+            } finally {
+                inputStream.close();
+            }
+        }
+    }
+
+    static class OfChannel extends ExportContent {
+        private final FileChannel channel;
+
+        OfChannel(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        long length() throws IOException {
+            return channel.size();
+        }
+
+        void writeTo(OutputStream outputStream, long offset, long length) throws IOException {
+            transfer(channel, outputStream, offset, length);
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    static class OfStream extends ExportContent {
+        private final InputStream inputStream;
+        private final long length;
+
+        OfStream(InputStream inputStream, long length) {
+            this.inputStream = inputStream;
+            this.length = length;
+        }
+
+        long length() {
+            return length;
+        }
+
+        void writeTo(OutputStream outputStream, long offset, long length) throws IOException {
+            for (long skipped = 0; skipped < offset;) {
+                long count = inputStream.skip(offset - skipped);
+                if (count <= 0) {
+                    throw new EOFException();
+                }
+                skipped += count;
+            }
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long remaining = length;
+            while (remaining != 0) {
+                int count = inputStream.read(buffer, 0, remaining < 0 ? BUFFER_SIZE : (int) Math.min(remaining,
+                        BUFFER_SIZE));
+                if (count < 0) {
+                    if (remaining > 0) {
+                        throw new EOFException();
+                    }
+                    break;
+                }
+                outputStream.write(buffer, 0, count);
+                if (remaining > 0) {
+                    remaining -= count;
+                }
+            }
+        }
+
+        void close() throws IOException {
+            inputStream.close();
+        }
+    }
+
+    /**
+     * Transfers the bytes of the channel via <code>FileChannel.transferTo</code>, which lets the JVM copy the file
+     * without reading it into the heap
+     */
+    private static void transfer(FileChannel channel, OutputStream outputStream, long offset, long length)
+            throws IOException {
+        WritableByteChannel target = Channels.newChannel(outputStream);
+        long end = length < 0 ? channel.size() : offset + length;
+        for (long position = offset; position < end;) {
+            long count = channel.transferTo(position, end - position, target);
+            if (count <= 0) {
+                throw new EOFException();
+            }
+            position += count;
+        }
+    }
+
+}
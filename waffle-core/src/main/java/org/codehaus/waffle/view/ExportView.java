@@ -3,20 +3,69 @@
  */
 package org.codehaus.waffle.view;
 
+import java.io.File;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+
 /**
- * Indicates that the view has content which should be exported to a filename using the given content type.
+ * Indicates that the view has content which should be exported to a filename using the given content type. The
+ * content is either held as a byte array or streamed from a file, file channel or input stream, so that large exports
+ * are not read into the heap. Content of known length can be exported in ranges, for resumable downloads.
  * 
  * @author Mauro Talevi
  */
 public class ExportView extends View {
     private final String contentType;
     private final byte[] content;
+    private final ExportContent exportContent;
     private final String filename;
 
     public ExportView(String contentType, byte[] content, String filename) {
+        this(contentType, content, new ExportContent.Bytes(content), filename);
+    }
+
+    /**
+     * Creates a view exporting the content of the file
+     * 
+     * @param contentType the content type
+     * @param file the File
+     * @param filename the filename of the export
+     * @return The ExportView
+     */
+    public static ExportView ofFile(String contentType, File file, String filename) {
+        return new ExportView(contentType, null, new ExportContent.OfFile(file), filename);
+    }
+
+    /**
+     * Creates a view exporting the content of the file channel, which is closed once exported
+     * 
+     * @param contentType the content type
+     * @param channel the FileChannel
+     * @param filename the filename of the export
+     * @return The ExportView
+     */
+    public static ExportView ofChannel(String contentType, FileChannel channel, String filename) {
+        return new ExportView(contentType, null, new ExportContent.OfChannel(channel), filename);
+    }
+
+    /**
+     * Creates a view exporting the content of the input stream, which is closed once exported
+     * 
+     * @param contentType the content type
+     * @param inputStream the InputStream
+     * @param length the length of the content in bytes, or -1 if not known
+     * @param filename the filename of the export
+     * @return The ExportView
+     */
+    public static ExportView ofStream(String contentType, InputStream inputStream, long length, String filename) {
+        return new ExportView(contentType, null, new ExportContent.OfStream(inputStream, length), filename);
+    }
+
+    private ExportView(String contentType, byte[] content, ExportContent exportContent, String filename) {
         super((String)null);
         this.contentType = contentType;
         this.content = content;
+        this.exportContent = exportContent;
         this.filename = filename;        
     }
     
@@ -24,10 +73,19 @@ public class ExportView extends View {
         return contentType;
     }
 
+    /**
+     * Returns the content, if held as a byte array
+     * 
+     * @return The content bytes or <code>null</code> if the content is streamed
+     */
     public byte[] getContent() {
         return content;
     }
 
+    ExportContent getExportContent() {
+        return exportContent;
+    }
+
     public String getFilename() {
         return filename;
     }
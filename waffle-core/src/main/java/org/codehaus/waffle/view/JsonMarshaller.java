@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.view;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+import org.codehaus.waffle.action.ActionMethodInvokerFactory;
+
+/**
+ * Writes objects as JSON, as they are traversed. Beans are written as objects of their readable properties, whose
+ * read methods are introspected once per class. Maps are written as objects, with the keys as names, arrays and
+ * collections as arrays, numbers and booleans as literals, dates as their time in milliseconds and enums as their
+ * names. Other types of the <code>java.*</code> packages are written as strings. Objects referring to an object being
+ * written, which cannot be represented in JSON, are written as <code>null</code>.
+ */
+final class JsonMarshaller {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final ActionMethodInvokerFactory actionMethodInvokerFactory;
+    private final ConcurrentMap<Class<?>, BeanProperties> properties = BeanProperties.newCache();
+
+    JsonMarshaller(ActionMethodInvokerFactory actionMethodInvokerFactory) {
+        this.actionMethodInvokerFactory = actionMethodInvokerFactory;
+    }
+
+    void marshal(Object value, Writer writer) throws IOException {
+        write(value, writer, new IdentityHashMap<Object, Object>());
+    }
+
+    private void write(Object value, Writer writer, Map<Object, Object> written) throws IOException {
+        if (value == null) {
+            writer.write("null");
+        } else if (value instanceof CharSequence || value instanceof Character) {
+            writeString(value.toString(), writer);
+        } else if (value instanceof Boolean) {
+            writer.write(value.toString());
+        } else if (value instanceof Number) {
+            writeNumber((Number) value, writer);
+        } else if (value instanceof Enum) {
+            writeString(((Enum<?>) value).name(), writer);
+        } else if (value instanceof Date) {
+            writer.write(Long.toString(((Date) value).getTime()));
+        } else if (written.containsKey(value)) {
+            writer.write("null");
+        } else {
+            written.put(value, value);
+            if (value instanceof Map) {
+                writeMap((Map<?, ?>) value, writer, written);
+            } else if (value instanceof Iterable) {
+                writeElements(((Iterable<?>) value).iterator(), writer, written);
+            } else if (value.getClass().isArray()) {
+                writeArray(value, writer, written);
+            } else if (value.getClass().getName().startsWith("java.")) {
+                writeString(value.toString(), writer);
+            } else {
+                writeBean(value, writer, written);
+            }
+            written.remove(value);
+        }
+    }
+
+    private void writeNumber(Number number, Writer writer) throws IOException {
+        if (number instanceof Double || number instanceof Float) {
+            double value = number.doubleValue();
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                writer.write("null");
+                return;
+            }
+        }
+        writer.write(number.toString());
+    }
+
+    private void writeMap(Map<?, ?> map, Writer writer, Map<Object, Object> written) throws IOException {
+        writer.write('{');
+        boolean first = true;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (!first) {
+                writer.write(',');
+            }
+            writeString(String.valueOf(entry.getKey()), writer);
+            writer.write(':');
+            write(entry.getValue(), writer, written);
+            first = false;
+        }
+        writer.write('}');
+    }
+
+    private void writeElements(Iterator<?> elements, Writer writer, Map<Object, Object> written) throws IOException {
+        writer.write('[');
+        boolean first = true;
+        while (elements.hasNext()) {
+            if (!first) {
+                writer.write(',');
+            }
+            write(elements.next(), writer, written);
+            first = false;
+        }
+        writer.write(']');
+    }
+
+    private void writeArray(Object array, Writer writer, Map<Object, Object> written) throws IOException {
+        writer.write('[');
+        int length = Array.getLength(array);
+        for (int i = 0; i < length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            write(Array.get(array, i), writer, written);
+        }
+        writer.write(']');
+    }
+
+    private void writeBean(Object bean, Writer writer, Map<Object, Object> written) throws IOException {
+        BeanProperties beanProperties = BeanProperties.of(bean.getClass(), properties, actionMethodInvokerFactory);
+        writer.write('{');
+        try {
+            for (int i = 0; i < beanProperties.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeString(beanProperties.nameOf(i), writer);
+                writer.write(':');
+                write(beanProperties.valueOf(i, bean), writer, written);
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException(e);
+        }
+        writer.write('}');
+    }
+
+    /**
+     * Writes the value as a JSON string, writing the runs of characters which need no escaping unchanged
+     */
+    private void writeString(String value, Writer writer) throws IOException {
+        writer.write('"');
+        int start = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < ' ' || c == '"' || c == '\\' || c == '\u2028' || c == '\u2029') {
+                writer.write(value, start, i - start);
+                writeEscaped(c, writer);
+                start = i + 1;
+            }
+        }
+        writer.write(value, start, length - start);
+        writer.write('"');
+    }
+
+    private void writeEscaped(char c, Writer writer) throws IOException {
+        switch (c) {
+            case '"':
+                writer.write("\\\"");
+                break;
+            case '\\':
+                writer.write("\\\\");
+                break;
+            case '\n':
+                writer.write("\\n");
+                break;
+            case '\r':
+                writer.write("\\r");
+                break;
+            case '\t':
+                writer.write("\\t");
+                break;
+            case '\b':
+                writer.write("\\b");
+                break;
+            case '\f':
+                writer.write("\\f");
+                break;
+            default:
+                writer.write("\\u");
+                writer.write(HEX[(c >> 12) & 0xf]);
+                writer.write(HEX[(c >> 8) & 0xf]);
+                writer.write(HEX[(c >> 4) & 0xf]);
+                writer.write(HEX[c & 0xf]);
+        }
+    }
+
+}
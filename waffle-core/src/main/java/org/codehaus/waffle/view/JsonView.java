@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.view;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import javax.servlet.ServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.codehaus.waffle.Constants;
+import org.codehaus.waffle.action.JavassistActionMethodInvokerFactory;
+import org.codehaus.waffle.monitor.SilentMonitor;
+
+/**
+ * A view that renders the controller, or a given value, as JSON. The JSON is written in UTF-8 to the response output
+ * stream as the value is traversed, with no intermediate document. The bean properties of each class are introspected
+ * once and shared by all views.
+ */
+public class JsonView extends ResponderView {
+
+    private static final String CHARACTER_ENCODING = "UTF-8";
+    public static final String CONTENT_TYPE = "application/json";
+    private static final JsonMarshaller MARSHALLER = new JsonMarshaller(new JavassistActionMethodInvokerFactory(
+            new SilentMonitor()));
+
+    private final Object value;
+    private final boolean controller;
+
+    /**
+     * Creates a view rendering the controller of the request
+     */
+    public JsonView() {
+        this.value = null;
+        this.controller = true;
+    }
+
+    /**
+     * Creates a view rendering the value, eg the return value of an action method
+     * 
+     * @param value the value to render
+     */
+    public JsonView(Object value) {
+        this.value = value;
+        this.controller = false;
+    }
+
+    public String getCharacterEncoding() {
+        return CHARACTER_ENCODING;
+    }
+
+    boolean rendersController() {
+        return controller;
+    }
+
+    @Override
+    public void respond(ServletRequest request, HttpServletResponse response) throws IOException {
+        response.setCharacterEncoding(CHARACTER_ENCODING);
+        response.setContentType(CONTENT_TYPE);
+        Writer writer = new OutputStreamWriter(response.getOutputStream(), CHARACTER_ENCODING);
+        MARSHALLER.marshal(controller ? request.getAttribute(Constants.CONTROLLER_KEY) : value, writer);
+        writer.flush();
+    }
+
+}
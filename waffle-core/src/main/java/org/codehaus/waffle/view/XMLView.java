@@ -4,7 +4,7 @@
 package org.codehaus.waffle.view;
 
 import java.io.IOException;
-import java.io.StringWriter;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.util.Collection;
 
@@ -21,7 +21,9 @@ import com.thoughtworks.xstream.io.xml.DomDriver;
 import com.thoughtworks.xstream.mapper.MapperWrapper;
 
 /**
- * A view that renders the controller as XML.
+ * A view that renders the controller as XML. The XML is written to the response output stream as it is serialised,
+ * in the character encoding of the view, which defaults to ISO-8859-1. The configured XStream instance is thread-safe
+ * and shared by all views.
  * 
  * @author Paulo Silveira
  * @author Mauro Talevi
@@ -30,23 +32,33 @@ public class XMLView extends ResponderView {
 
     private static final String CHARACTER_ENCODING = "ISO-8859-1";
     public static final String CONTENT_TYPE = "text/xml";
+    private static final Serializer SERIALISER = createSerialiser();
+
+    private final String characterEncoding;
+
+    public XMLView() {
+        this(CHARACTER_ENCODING);
+    }
+
+    public XMLView(String characterEncoding) {
+        this.characterEncoding = characterEncoding;
+    }
+
+    public String getCharacterEncoding() {
+        return characterEncoding;
+    }
 
     @Override
     public void respond(ServletRequest request, HttpServletResponse response) throws IOException {       
-        response.setCharacterEncoding(CHARACTER_ENCODING);
+        response.setCharacterEncoding(characterEncoding);
         response.setContentType(CONTENT_TYPE); 
-        response.getOutputStream().print(serialise(request.getAttribute(Constants.CONTROLLER_KEY)));
-    }
-
-    private String serialise(Object attribute) {
-        Serializer serialiser = createSerialiser();
-        Writer writer = new StringWriter();
-        serialiser.marshall(attribute, writer);
-        return writer.toString();
+        Writer writer = new OutputStreamWriter(response.getOutputStream(), characterEncoding);
+        SERIALISER.marshall(request.getAttribute(Constants.CONTROLLER_KEY), writer);
+        writer.flush();
     }
 
     //TODO: should the serialiser(s) be registered in ComponentRegistry?
-    private Serializer createSerialiser() {
+    private static Serializer createSerialiser() {
         // TODO: should we stream.setMode(XStream.NO_REFERENCES); ?
         XStream xstream = new XStream(new DomDriver()) {
             protected MapperWrapper wrapMapper(MapperWrapper next) {
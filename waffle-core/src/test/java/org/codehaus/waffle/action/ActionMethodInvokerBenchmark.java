@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.action;
+
+import java.lang.reflect.Method;
+
+import org.codehaus.waffle.monitor.SilentMonitor;
+import org.codehaus.waffle.testmodel.FakeController;
+
+/**
+ * Microbenchmark comparing the reflective and the generated action method invokers. Not run as part of the build, run
+ * it via its main method.
+ */
+public class ActionMethodInvokerBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 2000000;
+    private static final int ITERATIONS = 20000000;
+
+    public static void main(String[] args) throws Exception {
+        Method method = FakeController.class.getMethod("passThruMethod", String.class);
+        ActionMethodInvoker reflective = new ReflectiveActionMethodInvokerFactory().invokerFor(method);
+        ActionMethodInvoker generated = new JavassistActionMethodInvokerFactory(new SilentMonitor()).invokerFor(method);
+        FakeController controller = new FakeController();
+        Object[] arguments = new Object[] { "waffle" };
+
+        run("reflective", reflective, controller, arguments, WARMUP_ITERATIONS);
+        run("generated", generated, controller, arguments, WARMUP_ITERATIONS);
+        for (int i = 0; i < 3; i++) {
+            report("reflective", run("reflective", reflective, controller, arguments, ITERATIONS));
+            report("generated", run("generated", generated, controller, arguments, ITERATIONS));
+        }
+    }
+
+    private static long run(String name, ActionMethodInvoker invoker, Object controller, Object[] arguments,
+            int iterations) throws Exception {
+        int hash = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            hash += invoker.invoke(controller, arguments).hashCode();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (hash == 42) {
+            System.out.println(name); // defeats dead code elimination
+        }
+        return elapsed;
+    }
+
+    private static void report(String name, long elapsed) {
+        System.out.println(name + ": " + ((double) elapsed / ITERATIONS) + " ns/invocation");
+    }
+}
@@ -0,0 +1,84 @@
+package org.codehaus.waffle.action;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import org.codehaus.waffle.action.annotation.ActionMethod;
+import org.codehaus.waffle.action.annotation.PRG;
+import org.junit.Test;
+
+public class ActionMethodTableTest {
+
+    @Test
+    public void canFindDefaultCandidate() throws Exception {
+        ActionMethodTable table = new ActionMethodTable(ControllerWithDefault.class);
+        ActionMethodCandidate candidate = table.getDefaultCandidate();
+        assertEquals(ControllerWithDefault.class.getMethod("home"), candidate.getMethod());
+        assertTrue(candidate.isDefault());
+    }
+
+    @Test
+    public void canReturnNullIfNoDefaultCandidate() {
+        ActionMethodTable table = new ActionMethodTable(Object.class);
+        assertNull(table.getDefaultCandidate());
+    }
+
+    @Test
+    public void canAddOnlyPublicMethodsAsCandidates() throws Exception {
+        ActionMethodTable table = new ActionMethodTable(ControllerWithDefault.class);
+        assertNull(table.getCandidates("save"));
+
+        Method save = ControllerWithDefault.class.getMethod("save", String.class);
+        Method hidden = ControllerWithDefault.class.getDeclaredMethod("save");
+        List<ActionMethodCandidate> candidates = table.addCandidates("save", asList(save, hidden));
+
+        assertEquals(1, candidates.size());
+        assertEquals(save, candidates.get(0).getMethod());
+        assertSame(candidates, table.getCandidates("save"));
+    }
+
+    @Test
+    public void canKeepExistingCandidatesWhenAddedTwice() throws Exception {
+        ActionMethodTable table = new ActionMethodTable(ControllerWithDefault.class);
+        Method save = ControllerWithDefault.class.getMethod("save", String.class);
+        List<ActionMethodCandidate> first = table.addCandidates("save", asList(save));
+        List<ActionMethodCandidate> second = table.addCandidates("save", asList(save));
+        assertSame(first, second);
+    }
+
+    @Test
+    public void canReadMethodMetadataOnce() throws Exception {
+        Method save = ControllerWithDefault.class.getMethod("save", String.class);
+        ActionMethodCandidate candidate = new ActionMethodCandidate(save);
+        assertFalse(candidate.isDefault());
+        assertFalse(candidate.usePRG());
+        assertEquals("name", candidate.getActionMethod().parameters()[0]);
+        assertEquals(String.class, candidate.getParameterTypes()[0]);
+        assertEquals(String.class, candidate.getGenericParameterTypes()[0]);
+
+        Method home = ControllerWithDefault.class.getMethod("home");
+        assertTrue(new ActionMethodCandidate(home).usePRG());
+    }
+
+    public static class ControllerWithDefault {
+
+        @ActionMethod(asDefault = true)
+        public void home() {
+        }
+
+        @ActionMethod(parameters = { "name" })
+        @PRG(false)
+        public void save(String name) {
+        }
+
+        protected void save() {
+        }
+    }
+}
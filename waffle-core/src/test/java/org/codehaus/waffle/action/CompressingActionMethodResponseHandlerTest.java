@@ -0,0 +1,176 @@
+package org.codehaus.waffle.action;
+
+import static org.codehaus.waffle.action.CompressingActionMethodResponseHandler.ACCEPT_ENCODING_HEADER;
+import static org.codehaus.waffle.action.CompressingActionMethodResponseHandler.IF_RANGE_HEADER;
+import static org.codehaus.waffle.action.CompressingActionMethodResponseHandler.RANGE_HEADER;
+import static org.codehaus.waffle.action.CompressingActionMethodResponseHandler.encodingOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.codehaus.waffle.monitor.ActionMonitor;
+import org.codehaus.waffle.view.ViewDispatcher;
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.integration.junit4.JMock;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(JMock.class)
+public class CompressingActionMethodResponseHandlerTest {
+    private final Mockery mockery = new Mockery();
+    private final HttpServletRequest request = mockery.mock(HttpServletRequest.class);
+    private final HttpServletResponse response = mockery.mock(HttpServletResponse.class);
+    private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+    @Test
+    public void canCompressResponseValueWithGzip() throws Exception {
+        String value = largeValue();
+        expectCompression("gzip, deflate", "gzip");
+
+        handle(value);
+        assertEquals(value, read(new GZIPInputStream(new ByteArrayInputStream(content.toByteArray()))));
+    }
+
+    @Test
+    public void canCompressResponseValueWithDeflate() throws Exception {
+        String value = largeValue();
+        expectCompression("deflate;q=1, gzip;q=0.5", "deflate");
+
+        handle(value);
+        assertEquals(value, read(new InflaterInputStream(new ByteArrayInputStream(content.toByteArray()))));
+    }
+
+    @Test
+    public void canWriteValuesSmallerThanMinimumSizeUncompressed() throws Exception {
+        mockery.checking(new Expectations() {{
+            one(request).getHeader(ACCEPT_ENCODING_HEADER);
+            will(returnValue("gzip"));
+            allowing(request).getHeader(RANGE_HEADER);
+            will(returnValue(null));
+            allowing(request).getHeader(IF_RANGE_HEADER);
+            will(returnValue(null));
+            allowing(response).isCommitted();
+            will(returnValue(false));
+            one(response).getOutputStream();
+            will(returnValue(new StubServletOutputStream(content)));
+        }});
+
+        handle("Mmmmm Waffles!");
+        assertEquals("Mmmmm Waffles!", content.toString());
+    }
+
+    @Test
+    public void canWriteUncompressedIfNoEncodingAccepted() throws Exception {
+        mockery.checking(new Expectations() {{
+            one(request).getHeader(ACCEPT_ENCODING_HEADER);
+            will(returnValue(null));
+            one(response).isCommitted();
+            will(returnValue(false));
+            one(response).getOutputStream();
+            will(returnValue(new StubServletOutputStream(content)));
+            one(response).flushBuffer();
+        }});
+
+        handle(largeValue());
+        assertEquals(largeValue(), content.toString());
+    }
+
+    @Test
+    public void canWriteResponsesToRangeRequestsUncompressed() throws Exception {
+        mockery.checking(new Expectations() {{
+            one(request).getHeader(ACCEPT_ENCODING_HEADER);
+            will(returnValue("gzip"));
+            allowing(request).getHeader(RANGE_HEADER);
+            will(returnValue("bytes=100-"));
+            allowing(response).isCommitted();
+            will(returnValue(false));
+            one(response).getOutputStream();
+            will(returnValue(new StubServletOutputStream(content)));
+            one(response).flushBuffer();
+        }});
+
+        handle(largeValue());
+        assertEquals(largeValue(), content.toString());
+    }
+
+    @Test
+    public void canNegotiateEncoding() {
+        assertEquals("gzip", encodingOf("gzip"));
+        assertEquals("gzip", encodingOf("deflate, gzip"));
+        assertEquals("gzip", encodingOf("x-gzip"));
+        assertEquals("deflate", encodingOf("gzip;q=0, deflate"));
+        assertEquals("deflate", encodingOf("gzip;q=0.5, *"));
+        assertEquals("gzip", encodingOf("*"));
+        assertNull(encodingOf("identity, br"));
+        assertNull(encodingOf("*;q=0"));
+        assertNull(encodingOf(null));
+    }
+
+    private void expectCompression(final String acceptEncoding, final String encoding) throws IOException {
+        mockery.checking(new Expectations() {{
+            one(request).getHeader(ACCEPT_ENCODING_HEADER);
+            will(returnValue(acceptEncoding));
+            allowing(request).getHeader(RANGE_HEADER);
+            will(returnValue(null));
+            allowing(request).getHeader(IF_RANGE_HEADER);
+            will(returnValue(null));
+            allowing(response).isCommitted();
+            will(returnValue(false));
+            allowing(response).getContentType();
+            will(returnValue("text/plain"));
+            one(response).setHeader("Content-Encoding", encoding);
+            one(response).addHeader("Vary", ACCEPT_ENCODING_HEADER);
+            one(response).getOutputStream();
+            will(returnValue(new StubServletOutputStream(content)));
+            one(response).flushBuffer();
+        }});
+    }
+
+    private void handle(String value) throws Exception {
+        ActionMethodResponse actionMethodResponse = new ActionMethodResponse();
+        actionMethodResponse.setReturnValue(value);
+        ActionMethodResponseHandler handler = new CompressingActionMethodResponseHandler(mockery
+                .mock(ViewDispatcher.class), mockery.mock(ActionMonitor.class));
+        handler.handle(request, response, actionMethodResponse);
+    }
+
+    private String largeValue() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append("Mmmmm Waffles ").append(i).append('!');
+        }
+        return sb.toString();
+    }
+
+    private String read(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        for (int count; (count = inputStream.read(buffer)) > 0;) {
+            bytes.write(buffer, 0, count);
+        }
+        return bytes.toString();
+    }
+
+    private class StubServletOutputStream extends ServletOutputStream {
+        private final ByteArrayOutputStream bytes;
+
+        StubServletOutputStream(ByteArrayOutputStream bytes) {
+            this.bytes = bytes;
+        }
+
+        public void write(int b) throws IOException {
+            bytes.write(b);
+        }
+    }
+}
@@ -151,4 +151,96 @@ public class HierarchicalArgumentResolverTest {
         ArgumentResolver argumentResolver = new HierarchicalArgumentResolver(servletContext, new SilentMonitor());
         assertEquals("bar", argumentResolver.resolve(request, "{foo}"));
     }
+
+    @Test
+    public void canResolveArgumentNotCreatingSession() {
+        // Mock ServletContext
+        final ServletContext servletContext = mockery.mock(ServletContext.class);
+        mockery.checking(new Expectations() {
+            {
+                one(servletContext).getAttribute("foo");
+                will(returnValue("bar"));
+            }
+        });
+
+        // Mock HttpServletRequest
+        final HttpServletRequest request = mockery.mock(HttpServletRequest.class);
+        mockery.checking(new Expectations() {
+            {
+                one(request).getParameter("foo");
+                will(returnValue(null));
+                one(request).getAttribute("foo");
+                will(returnValue(null));
+                one(request).getSession(false);
+                will(returnValue(null));
+            }
+        });
+
+        ArgumentResolver argumentResolver = new HierarchicalArgumentResolver(servletContext,
+                new DefaultHierarchicalArgumentResolverConfig(false), new SilentMonitor());
+        assertEquals("bar", argumentResolver.resolve(request, "{foo}"));
+    }
+
+    @Test
+    public void canResolveArgumentInRequestScope() {
+        // Mock HttpServletRequest
+        final HttpServletRequest request = mockery.mock(HttpServletRequest.class);
+        mockery.checking(new Expectations() {
+            {
+                exactly(2).of(request).getAttribute("foo");
+                will(returnValue("bar"));
+            }
+        });
+
+        ArgumentResolver argumentResolver = new HierarchicalArgumentResolver(null, new SilentMonitor());
+        assertEquals("bar", argumentResolver.resolve(request, "{request:foo}"));
+        assertEquals("bar", argumentResolver.resolve(request, "{REQUEST:foo}"));
+    }
+
+    @Test
+    public void canResolveArgumentInApplicationScope() {
+        // Mock ServletContext
+        final ServletContext servletContext = mockery.mock(ServletContext.class);
+        mockery.checking(new Expectations() {
+            {
+                one(servletContext).getAttribute("foo");
+                will(returnValue("bar"));
+            }
+        });
+
+        final HttpServletRequest request = mockery.mock(HttpServletRequest.class);
+        ArgumentResolver argumentResolver = new HierarchicalArgumentResolver(servletContext, new SilentMonitor());
+        assertEquals("bar", argumentResolver.resolve(request, "{application:foo}"));
+    }
+
+    @Test
+    public void canResolveArgumentInSessionScope() {
+        // Mock HttpSession
+        final HttpSession session = mockery.mock(HttpSession.class);
+        mockery.checking(new Expectations() {
+            {
+                one(session).getAttribute("foo");
+                will(returnValue("bar"));
+            }
+        });
+
+        // Mock HttpServletRequest
+        final HttpServletRequest request = mockery.mock(HttpServletRequest.class);
+        mockery.checking(new Expectations() {
+            {
+                one(request).getSession(false);
+                will(returnValue(session));
+            }
+        });
+
+        ArgumentResolver argumentResolver = new HierarchicalArgumentResolver(null,
+                new DefaultHierarchicalArgumentResolverConfig(false), new SilentMonitor());
+        assertEquals("bar", argumentResolver.resolve(request, "{session:foo}"));
+    }
+
+    @Test
+    public void canResolveNameWhenArgumentScopeIsUnknown() {
+        ArgumentResolver argumentResolver = new HierarchicalArgumentResolver(null, new SilentMonitor());
+        assertEquals("{cookie:foo}", argumentResolver.resolve(null, "{cookie:foo}"));
+    }
 }
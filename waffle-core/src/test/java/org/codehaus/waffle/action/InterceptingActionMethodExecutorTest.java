@@ -7,11 +7,16 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.List;
 
+import org.codehaus.waffle.action.intercept.InterceptorChain;
 import org.codehaus.waffle.action.intercept.MethodInterceptor;
 import org.codehaus.waffle.controller.ControllerDefinition;
+import org.codehaus.waffle.monitor.Metrics;
+import org.codehaus.waffle.monitor.MetricsMonitor;
 import org.codehaus.waffle.monitor.SilentMonitor;
 import org.codehaus.waffle.testmodel.FakeController;
 import org.junit.Assert;
@@ -77,6 +82,21 @@ public class InterceptingActionMethodExecutorTest {
         assertEquals("mmmWaffles", actionMethodResponse.getReturnValue());
     }
 
+    @Test
+    public void canReturnValueFromActionMethodWithGeneratedInvoker() throws Exception {
+        ActionMethodExecutor actionMethodExecutor = new InterceptingActionMethodExecutor(new SilentMonitor(),
+                new JavassistActionMethodInvokerFactory(new SilentMonitor()));
+        FakeController fakeController = new FakeController();
+        Method method = FakeController.class.getMethod("passThruMethod", String.class);
+        MethodDefinition methodDefinition = new MethodDefinition(method);
+        methodDefinition.addMethodArgument("mmmWaffles");
+
+        ControllerDefinition controllerDefinition = new ControllerDefinition("FakeController", fakeController, methodDefinition);
+        ActionMethodResponse actionMethodResponse = new ActionMethodResponse();
+        actionMethodExecutor.execute(actionMethodResponse, controllerDefinition, new ArrayList<MethodInterceptor>());
+        assertEquals("mmmWaffles", actionMethodResponse.getReturnValue());
+    }
+
     @Test
     public void canWrapCauseOfInvocationTargetExceptionAsActionMethodInvocationException() throws Exception {
         FakeController fakeController = new FakeController();
@@ -126,4 +146,140 @@ public class InterceptingActionMethodExecutorTest {
         assertTrue(actionMethodResponse.getReturnValue() instanceof ActionMethodException);
     }
 
+    @Test
+    public void canCacheAcceptedInterceptorsPerMethod() throws Exception {
+        CountingMethodInterceptor interceptor = new CountingMethodInterceptor();
+        List<MethodInterceptor> interceptors = new ArrayList<MethodInterceptor>();
+        interceptors.add(interceptor);
+
+        for (int i = 0; i < 3; i++) {
+            executePassThru(interceptors);
+        }
+
+        assertEquals(1, interceptor.accepted);
+        assertEquals(3, interceptor.intercepted);
+    }
+
+    @Test
+    public void canReuseCachedInterceptorsForNewInstancesOfRegisteredInterceptors() throws Exception {
+        List<CountingMethodInterceptor> instances = new ArrayList<CountingMethodInterceptor>();
+        for (int i = 0; i < 3; i++) {
+            CountingMethodInterceptor interceptor = new CountingMethodInterceptor();
+            instances.add(interceptor);
+            List<MethodInterceptor> interceptors = new ArrayList<MethodInterceptor>();
+            interceptors.add(interceptor);
+            executePassThru(interceptors);
+        }
+
+        assertEquals(1, instances.get(0).accepted);
+        for (CountingMethodInterceptor interceptor : instances) {
+            assertEquals(1, interceptor.intercepted);
+        }
+        assertEquals(0, instances.get(1).accepted);
+        assertEquals(0, instances.get(2).accepted);
+    }
+
+    @Test
+    public void canInvalidateCachedInterceptorsWhenRegisteredInterceptorsChange() throws Exception {
+        CountingMethodInterceptor first = new CountingMethodInterceptor();
+        List<MethodInterceptor> interceptors = new ArrayList<MethodInterceptor>();
+        interceptors.add(first);
+        executePassThru(interceptors);
+
+        CountingMethodInterceptor second = new CountingMethodInterceptor();
+        interceptors.add(second);
+        executePassThru(interceptors);
+
+        assertEquals(2, first.accepted);
+        assertEquals(2, first.intercepted);
+        assertEquals(1, second.accepted);
+        assertEquals(1, second.intercepted);
+    }
+
+    @Test
+    public void canCacheInterceptorsPerClassesOfRegisteredInterceptors() throws Exception {
+        CountingMethodInterceptor first = new CountingMethodInterceptor();
+        CountingMethodInterceptor second = new OtherCountingMethodInterceptor();
+        List<MethodInterceptor> one = new ArrayList<MethodInterceptor>();
+        one.add(first);
+        List<MethodInterceptor> both = new ArrayList<MethodInterceptor>();
+        both.add(first);
+        both.add(second);
+
+        for (int i = 0; i < 3; i++) {
+            executePassThru(one);
+            executePassThru(both);
+        }
+
+        assertEquals(2, first.accepted);
+        assertEquals(6, first.intercepted);
+        assertEquals(1, second.accepted);
+        assertEquals(3, second.intercepted);
+    }
+
+    @Test
+    public void canReportActionMethodTimes() throws Exception {
+        Metrics metrics = new Metrics();
+        ActionMethodExecutor executor = new InterceptingActionMethodExecutor(new MetricsMonitor(metrics));
+        Method method = FakeController.class.getMethod("actionThrowsActionMethodException");
+        MethodDefinition methodDefinition = new MethodDefinition(method);
+        ControllerDefinition controllerDefinition = new ControllerDefinition("FakeController", new FakeController(), methodDefinition);
+        executor.execute(new ActionMethodResponse(), controllerDefinition, new ArrayList<MethodInterceptor>());
+        executor.execute(new ActionMethodResponse(), controllerDefinition, new ArrayList<MethodInterceptor>());
+
+        Metrics.ActionSnapshot action = metrics.snapshot().getActions().get(0);
+        assertEquals("FakeController", action.getController());
+        assertEquals("actionThrowsActionMethodException", action.getMethod());
+        assertEquals(2, action.getCount());
+        assertEquals(2, action.getFailures());
+    }
+
+    @Test
+    public void canSkipTimingIfNotEnabled() throws Exception {
+        final List<String> timed = new ArrayList<String>();
+        ActionMethodExecutor executor = new InterceptingActionMethodExecutor(new SilentMonitor() {
+            @Override
+            public void actionMethodTimed(String controllerName, Method method, long duration, boolean failed) {
+                timed.add(controllerName);
+            }
+        });
+        Method method = FakeController.class.getMethod("sayHello", String.class);
+        MethodDefinition methodDefinition = new MethodDefinition(method);
+        methodDefinition.addMethodArgument("foobar");
+        ControllerDefinition controllerDefinition = new ControllerDefinition("FakeController", new FakeController(), methodDefinition);
+        executor.execute(new ActionMethodResponse(), controllerDefinition, new ArrayList<MethodInterceptor>());
+
+        assertTrue(timed.isEmpty());
+    }
+
+    private void executePassThru(List<MethodInterceptor> interceptors) throws Exception {
+        Method method = FakeController.class.getMethod("passThruMethod", String.class);
+        MethodDefinition methodDefinition = new MethodDefinition(method);
+        methodDefinition.addMethodArgument("mmmWaffles");
+
+        ControllerDefinition controllerDefinition = new ControllerDefinition("FakeController", new FakeController(), methodDefinition);
+        ActionMethodResponse actionMethodResponse = new ActionMethodResponse();
+        actionMethodExecutor.execute(actionMethodResponse, controllerDefinition, interceptors);
+        assertEquals("mmmWaffles", actionMethodResponse.getReturnValue());
+    }
+
+    private static class CountingMethodInterceptor implements MethodInterceptor {
+        private int accepted;
+        private int intercepted;
+
+        public boolean accept(Method method) {
+            accepted++;
+            return true;
+        }
+
+        public Object intercept(ControllerDefinition controllerDefinition, Method method, InterceptorChain chain,
+                Object... arguments) throws IllegalAccessException, InvocationTargetException {
+            intercepted++;
+            return chain.proceed(controllerDefinition, method, arguments);
+        }
+    }
+
+    private static class OtherCountingMethodInterceptor extends CountingMethodInterceptor {
+    }
+
 }
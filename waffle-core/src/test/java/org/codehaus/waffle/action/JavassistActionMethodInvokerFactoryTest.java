@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) terms as published in http://waffle.codehaus.org/license.html
+ */
+package org.codehaus.waffle.action;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.codehaus.waffle.monitor.SilentMonitor;
+import org.codehaus.waffle.testmodel.FakeController;
+import org.junit.Test;
+
+public class JavassistActionMethodInvokerFactoryTest {
+
+    private final ActionMethodInvokerFactory factory = new JavassistActionMethodInvokerFactory(new SilentMonitor());
+
+    @Test
+    public void canInvokeVoidMethod() throws Exception {
+        FakeController controller = new FakeController();
+        ActionMethodInvoker invoker = factory.invokerFor(FakeController.class.getMethod("sayHello", String.class));
+        assertNull(invoker.invoke(controller, new Object[] { "foobar" }));
+        assertEquals("foobar", controller.getName());
+        assertGenerated(invoker);
+    }
+
+    @Test
+    public void canReturnValueFromMethod() throws Exception {
+        ActionMethodInvoker invoker = factory.invokerFor(FakeController.class.getMethod("passThruMethod", String.class));
+        assertEquals("mmmWaffles", invoker.invoke(new FakeController(), new Object[] { "mmmWaffles" }));
+    }
+
+    @Test
+    public void canUnboxArgumentsAndBoxReturnValue() throws Exception {
+        ActionMethodInvoker invoker = factory.invokerFor(PrimitiveController.class.getMethod("add", int.class,
+                long.class, double[].class));
+        assertEquals(6.5d, invoker.invoke(new PrimitiveController(), new Object[] { 1, 2L, new double[] { 3.5d } }));
+    }
+
+    @Test
+    public void canWrapExceptionsInInvocationTargetException() throws Exception {
+        ActionMethodInvoker invoker = factory.invokerFor(FakeController.class.getMethod("methodThrowsException",
+                String.class));
+        try {
+            invoker.invoke(new FakeController(), new Object[] { "mmmWaffles" });
+            fail("InvocationTargetException expected");
+        } catch (InvocationTargetException e) {
+            assertEquals("mmmWaffles", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void canThrowIllegalArgumentExceptionForArgumentsNotMatchingParameters() throws Exception {
+        ActionMethodInvoker invoker = factory.invokerFor(PrimitiveController.class.getMethod("add", int.class,
+                long.class, double[].class));
+        assertGenerated(invoker);
+        assertIllegalArguments(invoker, new Object[] { null, 2L, new double[0] });
+        assertIllegalArguments(invoker, new Object[] { 1, "2", new double[0] });
+        assertIllegalArguments(invoker, new Object[] { 1, 2L });
+    }
+
+    @Test
+    public void canCacheInvokers() throws Exception {
+        Method method = FakeController.class.getMethod("sayHello");
+        assertSame(factory.invokerFor(method), factory.invokerFor(method));
+    }
+
+    @Test
+    public void canFallBackToReflectionForNonPublicTypes() throws Exception {
+        ActionMethodInvoker invoker = factory.invokerFor(HiddenController.class.getMethod("hello"));
+        assertEquals("hello", invoker.invoke(new HiddenController(), new Object[0]));
+        assertFalse(invoker.toString().startsWith("[GeneratedActionMethodInvoker"));
+    }
+
+    private void assertIllegalArguments(ActionMethodInvoker invoker, Object[] arguments) throws Exception {
+        try {
+            invoker.invoke(new PrimitiveController(), arguments);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private void assertGenerated(ActionMethodInvoker invoker) {
+        assertTrue(invoker.toString().startsWith("[GeneratedActionMethodInvoker"));
+    }
+
+    public static class PrimitiveController {
+        public double add(int first, long second, double[] others) {
+            double sum = first + second;
+            for (double other : others) {
+                sum += other;
+            }
+            return sum;
+        }
+    }
+
+    static class HiddenController {
+        public String hello() {
+            return "hello";
+        }
+    }
+}
@@ -48,6 +48,10 @@ public class DefaultInterceptorChainTest {
         final ActionMonitor actionMonitor = mockery.mock(ActionMonitor.class);
         mockery.checking(new Expectations() {{
             one (actionMonitor).methodIntercepted(method, arguments, returnValue);
+            allowing (actionMonitor).isEnabled("methodInterceptorTimed");
+            will(returnValue(true));
+            one (actionMonitor).methodInterceptorTimed(with(same(methodInterceptor)), with(same(method)),
+                    with(any(Long.class)));
         }});
         
         InterceptorChain interceptorChain = new DefaultInterceptorChain(interceptors, actionMonitor);
@@ -74,4 +78,25 @@ public class DefaultInterceptorChainTest {
         assertNull(interceptorChain.proceed(controllerDefinition, method, argument));
     }
 
+    @Test
+    public void canProceedWithAcceptedInterceptorsWithoutAcceptingAgain() throws Exception {
+        final ControllerDefinition controllerDefinition = new ControllerDefinition(null, null, null);
+        final Method method = this.getClass().getMethods()[0];
+        final Object[] arguments = new Object[] {"foobar"};
+
+        final MethodInterceptor methodInterceptor = mockery.mock(MethodInterceptor.class);
+        mockery.checking(new Expectations() {{
+            never (methodInterceptor).accept(method);
+            one(methodInterceptor).intercept(with(same(controllerDefinition)),
+                    with(same(method)),
+                    with(any(InterceptorChain.class)),
+                    with(equal(arguments)));
+            will(returnValue("hello"));
+        }});
+
+        MethodInterceptor[] interceptors = new MethodInterceptor[] {methodInterceptor};
+        InterceptorChain interceptorChain = new DefaultInterceptorChain(interceptors, new SilentMonitor());
+        assertEquals("hello", interceptorChain.proceed(controllerDefinition, method, arguments));
+    }
+
 }
@@ -1,5 +1,15 @@
 package org.codehaus.waffle.bind;
 
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Set;
+
 import javax.servlet.http.HttpServletRequest;
 
 import org.codehaus.waffle.monitor.SilentMonitor;
@@ -30,6 +40,65 @@ public class IntrospectingViewDataBinderTest {
         binder.bind(request, new SimpleController());
     }
 
+    @Test
+    public void canBindControllerPropertiesEagerlyUnlessConfiguredToBindLazily() {
+        final HttpServletRequest request = context.mock(HttpServletRequest.class);
+
+        context.checking(new Expectations() {{
+            one (request).setAttribute("name", "my controller");
+            one (request).getAttribute("name");
+            will(returnValue("my controller"));
+            one (request).setAttribute("null", null);
+            one (request).getAttribute("null");
+            will(returnValue(null));
+        }});
+
+        IntrospectingViewDataBinder binder = new IntrospectingViewDataBinder(new SilentMonitor());
+        assertSame(request, binder.bindLazily(request, new SimpleController()));
+    }
+
+    @Test
+    public void canBindControllerPropertiesLazily() {
+        final HttpServletRequest request = context.mock(HttpServletRequest.class);
+
+        context.checking(new Expectations() {{
+            one (request).setAttribute("name", "my controller");
+            exactly(2).of (request).getAttribute("name");
+            will(returnValue("my controller"));
+            one (request).setAttribute("null", "set by view");
+            one (request).getAttribute("null");
+            will(returnValue("set by view"));
+            one (request).getAttribute("other");
+            will(returnValue(null));
+            one (request).getAttributeNames();
+            will(returnValue(Collections.enumeration(asList("name", "null", "errors"))));
+        }});
+
+        CountingController controller = new CountingController();
+        IntrospectingViewDataBinder binder = new IntrospectingViewDataBinder(
+                new DefaultIntrospectingViewDataBinderConfig(true), new SilentMonitor());
+        HttpServletRequest wrapped = binder.bindLazily(request, controller);
+        assertEquals(0, controller.reads);
+
+        assertEquals("my controller", wrapped.getAttribute("name"));
+        assertEquals("my controller", wrapped.getAttribute("name"));
+        assertEquals(1, controller.reads);
+
+        wrapped.setAttribute("null", "set by view");
+        assertEquals("set by view", wrapped.getAttribute("null"));
+        assertNull(wrapped.getAttribute("other"));
+        assertEquals(1, controller.reads);
+        assertEquals(new HashSet<Object>(asList("name", "null", "errors")), namesOf(wrapped.getAttributeNames()));
+    }
+
+    private Set<Object> namesOf(Enumeration<?> attributeNames) {
+        Set<Object> names = new HashSet<Object>();
+        while (attributeNames.hasMoreElements()) {
+            names.add(attributeNames.nextElement());
+        }
+        return names;
+    }
+
     @Test
     public void shouldNotThrowNullPointerExceptionWhenControllerMissingReadMethodForProperty() {
         final ControllerWithMissingReadMethod controller = new ControllerWithMissingReadMethod();
@@ -50,6 +119,22 @@ public class IntrospectingViewDataBinderTest {
         }
     }
 
+    class CountingController extends SimpleController {
+        private int reads;
+
+        @Override
+        public String getName() {
+            reads++;
+            return super.getName();
+        }
+
+        @Override
+        public Object getNull() {
+            reads++;
+            return super.getNull();
+        }
+    }
+
     class ControllerWithMissingReadMethod {
         public void setName(String name) {
             // do nothing
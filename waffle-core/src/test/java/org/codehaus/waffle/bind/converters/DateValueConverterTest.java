@@ -20,12 +20,16 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.Properties;
 
 import org.codehaus.waffle.bind.BindException;
 import org.codehaus.waffle.i18n.DefaultMessageResources;
 import org.codehaus.waffle.i18n.MessageResources;
+import org.codehaus.waffle.testmodel.StubMessageResources;
 import org.junit.Test;
 
 /**
@@ -81,6 +85,84 @@ public class DateValueConverterTest extends AbstractValueConverterTest {
         assertDateFormattable("11:11:11", "HH:mm:ss", converter.convertValue("time-property", "11:11:11", Date.class));
     }
 
+    @Test
+    public void canConvertWithPatternsChangedAfterConversion() {
+        DateValueConverter converter = new DateValueConverter(new DefaultMessageResources());
+        assertDateFormattable("04/03/2008", DEFAULT_DATE_FORMAT, converter.convertValue("property-name", "04/03/2008",
+                Date.class));
+        Properties patterns = new Properties();
+        patterns.setProperty(DATE_FORMAT_KEY, "dd-MM-yyyy");
+        converter.changePatterns(patterns);
+        assertDateFormattable("04-03-2008", "dd-MM-yyyy", converter.convertValue("property-name", "04-03-2008",
+                Date.class));
+    }
+
+    @Test
+    public void canConvertWithPatternsModifiedAfterConversion() {
+        Properties patterns = new Properties();
+        DateValueConverter converter = new DateValueConverter(new DefaultMessageResources(), patterns);
+        assertDateFormattable("04/03/2008", DEFAULT_DATE_FORMAT, converter.convertValue("property-name", "04/03/2008",
+                Date.class));
+        patterns.setProperty(DATE_FORMAT_KEY, "dd-MM-yyyy");
+        assertDateFormattable("04-03-2008", "dd-MM-yyyy", converter.convertValue("property-name", "04-03-2008",
+                Date.class));
+    }
+
+    @Test
+    public void canConvertWithMessageResourcesAlternatingBetweenURIs() {
+        final String[] uri = new String[1];
+        MessageResources resources = new StubMessageResources() {
+            public String getURI() {
+                return uri[0];
+            }
+
+            public String getMessageWithDefault(String key, String defaultValue, Object... arguments) {
+                if (key.equals(DATE_FORMAT_KEY) && "Bundle".equals(uri[0])) {
+                    return "dd-MM-yyyy";
+                }
+                return format(defaultValue, arguments);
+            }
+        };
+        DateValueConverter converter = new DateValueConverter(resources);
+        for (int i = 0; i < 2; i++) {
+            uri[0] = "Bundle";
+            assertDateFormattable("04-03-2008", "dd-MM-yyyy", converter.convertValue("property-name", "04-03-2008",
+                    Date.class));
+            uri[0] = "AnotherBundle";
+            assertDateFormattable("04/03/2008", DEFAULT_DATE_FORMAT, converter.convertValue("property-name",
+                    "04/03/2008", Date.class));
+        }
+    }
+
+    @Test
+    public void canConvertConcurrently() throws InterruptedException {
+        final DateValueConverter converter = new DateValueConverter(new DefaultMessageResources());
+        final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 8; i++) {
+            final String value = (10 + i) + "/03/2008 11:11:11";
+            threads.add(new Thread() {
+                public void run() {
+                    try {
+                        for (int j = 0; j < 500; j++) {
+                            assertDateFormattable(value, DEFAULT_TIME_FORMAT, converter.convertValue("propertyTime",
+                                    value, Date.class));
+                        }
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(failures.toString(), failures.isEmpty());
+    }
+
     private void assertDateFormattable(String value, String pattern, Object object) {
         assertEquals(value, new SimpleDateFormat(pattern).format(object));
     }
@@ -0,0 +1,82 @@
+package org.codehaus.waffle.bind.converters;
+
+import static java.text.MessageFormat.format;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.text.NumberFormat;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Properties;
+
+import org.codehaus.waffle.bind.BindException;
+import org.codehaus.waffle.i18n.DefaultMessageResources;
+import org.junit.Test;
+
+public class NumberArrayValueConverterTest extends AbstractValueConverterTest {
+
+    private final NumberArrayValueConverter converter = new NumberArrayValueConverter(new DefaultMessageResources(),
+            new Properties(), NumberFormat.getInstance(Locale.US));
+
+    @Test
+    public void canAccept() {
+        assertTrue(converter.accept(int[].class));
+        assertTrue(converter.accept(long[].class));
+        assertTrue(converter.accept(double[].class));
+        assertFalse(converter.accept(Integer[].class));
+        assertFalse(converter.accept(float[].class));
+        assertFalse(converter.accept(int.class));
+        assertFalse(converter.accept(Object.class));
+    }
+
+    @Test
+    public void canConvertCsvValues() {
+        assertArrayEquals(new int[] { -1, -2, -3 }, (int[]) converter.convertValue("property-name", "-1,-2,-3",
+                int[].class));
+        assertArrayEquals(new long[] { 1000L, 2000L, 3000L }, (long[]) converter.convertValue("property-name",
+                "1000, ,2000,3000", long[].class));
+        assertEquals("[0.1, 0.2, 0.3]", Arrays.toString((double[]) converter.convertValue("property-name",
+                "0.1,0.2,0.3", double[].class)));
+    }
+
+    @Test
+    public void canConvertMultipleValues() {
+        assertArrayEquals(new int[] { 1000, 2000 }, (int[]) converter.convertValues("property-name", new String[] {
+                "1,000", "", "2,000" }, int[].class));
+        assertArrayEquals(new long[] { 9223372036854775807L }, (long[]) converter.convertValues("property-name",
+                new String[] { "9223372036854775807" }, long[].class));
+        assertEquals("[1234.5, 1000.0]", Arrays.toString((double[]) converter.convertValues("property-name",
+                new String[] { "1,234.5", "1E3" }, double[].class)));
+    }
+
+    @Test
+    public void canHandleMissingValues() {
+        assertNull(converter.convertValue("property-name", null, int[].class));
+        assertNull(converter.convertValue("property-name", " ", long[].class));
+        assertNull(converter.convertValues("property-name", new String[] { "", " " }, double[].class));
+    }
+
+    @Test
+    public void canFailConversionOfInvalidNumbers() {
+        assertNotConvertible("1.5", int[].class);
+        assertNotConvertible("2147483648", int[].class);
+        assertNotConvertible("1,invalid", long[].class);
+        assertNotConvertible("invalid", double[].class);
+    }
+
+    private void assertNotConvertible(String value, Class<?> type) {
+        try {
+            converter.convertValue("property-name", value, type);
+            fail("Expected BindException for " + value);
+        } catch (BindException e) {
+            String invalid = value.substring(value.lastIndexOf(',') + 1);
+            assertEquals(format(NumberValueConverter.DEFAULT_NUMBER_MESSAGE, "property-name", invalid, NumberFormat
+                    .getInstance(Locale.US)), e.getMessage());
+        }
+    }
+
+}
@@ -71,6 +71,18 @@ public class NumberListValueConverterTest extends AbstractValueConverterTest {
         assertTrue(expectedType.isAssignableFrom(actual.get(0).getClass()));
     }
 
+    @Test
+    public void canConvertMultipleValues() throws IntrospectionException {
+        NumberListValueConverter converter = new NumberListValueConverter(new DefaultMessageResources(),
+                new Properties(), NumberFormat.getInstance(Locale.US));
+        List<?> actual = (List<?>) converter.convertValues("property-name", new String[] { "1,000", "2,000", "3,000" },
+                methodParameterType("listOfLongs"));
+        assertEquals(LONGS.toString(), actual.toString());
+        actual = (List<?>) converter.convertValues("property-name", new String[] { "one", "two,three" },
+                methodParameterType("listOfStrings"));
+        assertEquals("[one, two,three]", actual.toString());
+    }
+
     @Test
     public void canHandleMissingValues() {
         NumberListValueConverter converter = new NumberListValueConverter(new DefaultMessageResources());
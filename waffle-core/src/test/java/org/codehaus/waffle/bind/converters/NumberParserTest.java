@@ -0,0 +1,158 @@
+package org.codehaus.waffle.bind.converters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.text.NumberFormat;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.Test;
+
+public class NumberParserTest {
+
+    private static final String[] VALUES = { "0", "-0", "1", "-1", "12", "1,000", "-1,000,000", "1,2,3", "1000.",
+            "0.1", ".5", "-.5", "1.0", "10.00", "1.50", "1.234,5", "123,", ",123", "9223372036854775807",
+            "-9223372036854775808", "9223372036854775808", "12345678901234567890.5", ".1E-3", "1E3", "12abc", " 12",
+            "+1", "1.2.3", "1,000.25", "1.000,25", "1 000", "-" };
+
+    @Test
+    public void canParseAsNumberFormat() {
+        for (Locale locale : new Locale[] { Locale.US, Locale.GERMANY, Locale.FRANCE }) {
+            NumberFormat numberFormat = NumberFormat.getInstance(locale);
+            NumberParser parser = new NumberParser(numberFormat);
+            for (String value : VALUES) {
+                assertEquals(locale + ": " + value, parseWithNumberFormat(numberFormat, value), parse(parser, value));
+            }
+        }
+    }
+
+    @Test
+    public void canParseAsNumberFormatWithoutGrouping() {
+        NumberFormat numberFormat = NumberFormat.getInstance(Locale.US);
+        numberFormat.setGroupingUsed(false);
+        NumberParser parser = new NumberParser(numberFormat);
+        for (String value : VALUES) {
+            assertEquals(value, parseWithNumberFormat(numberFormat, value), parse(parser, value));
+        }
+    }
+
+    @Test
+    public void canParseToTypes() throws ParseException {
+        NumberParser parser = new NumberParser(NumberFormat.getInstance(Locale.US));
+        assertEquals(Integer.valueOf(-1000), parser.parse("-1,000", int.class));
+        assertEquals(Integer.valueOf(1000), parser.parse("1,000.0", Integer.class));
+        assertEquals(Long.valueOf(1000), parser.parse("1,000", long.class));
+        assertEquals(Double.valueOf(1000), parser.parse("1,000", double.class));
+        assertEquals(Double.valueOf(0.5), parser.parse("0.5", Double.class));
+        assertEquals(Float.valueOf(0.5f), parser.parse("0.5", float.class));
+        assertEquals(new BigDecimal("1234.50"), parser.parse("1,234.50", BigDecimal.class));
+        assertEquals(new BigInteger("12345678901234567890"), parser.parse("12345678901234567890", BigInteger.class));
+        assertEquals(Long.valueOf(12), parser.parse("12", Number.class));
+    }
+
+    @Test
+    public void canParseToPrimitives() throws ParseException {
+        NumberParser parser = new NumberParser(NumberFormat.getInstance(Locale.US));
+        assertEquals(-1000, parser.parseInt("-1,000"));
+        assertEquals(1000, parser.parseInt("1,000.00"));
+        assertEquals(Long.MIN_VALUE, parser.parseLong("-9223372036854775808"));
+        assertEquals(100L, parser.parseLong("1E2"));
+        assertEquals(-0.0d, parser.parseDouble("-0"), 0);
+        assertEquals(1234.5d, parser.parseDouble("1,234.5"), 0);
+        for (String value : VALUES) {
+            assertEquals(value, parse(parser, value, long.class), parseLong(parser, value));
+        }
+    }
+
+    @Test
+    public void cannotParseValuesNotRepresentableInType() {
+        NumberParser parser = new NumberParser(NumberFormat.getInstance(Locale.US));
+        assertNotParseable(parser, "1.5", int.class);
+        assertNotParseable(parser, "2147483648", Integer.class);
+        assertNotParseable(parser, "1.5", long.class);
+        assertNotParseable(parser, "1.5", BigInteger.class);
+        assertNotParseable(parser, "invalid", double.class);
+    }
+
+    @Test
+    public void canParseConcurrently() throws InterruptedException {
+        final NumberParser parser = new NumberParser(NumberFormat.getInstance(Locale.US));
+        final List<String> failures = Collections.synchronizedList(new ArrayList<String>());
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 8; i++) {
+            final int offset = i * 100000;
+            threads.add(new Thread() {
+                public void run() {
+                    for (int j = 0; j < 2000; j++) {
+                        long expected = offset + j;
+                        // alternate plain decimals with values parsed by NumberFormat
+                        String value = j % 2 == 0 ? Long.toString(expected) : expected + "E0";
+                        try {
+                            Number actual = parser.parse(value);
+                            if (actual.longValue() != expected) {
+                                failures.add(value + " parsed as " + actual);
+                            }
+                        } catch (ParseException e) {
+                            failures.add(value + " not parsed");
+                        }
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(failures.toString(), failures.isEmpty());
+    }
+
+    private void assertNotParseable(NumberParser parser, String value, Class<?> type) {
+        try {
+            parser.parse(value, type);
+            fail("Expected ParseException for " + value);
+        } catch (ParseException e) {
+            // expected
+        }
+    }
+
+    private Object parseLong(NumberParser parser, String value) {
+        try {
+            return Long.valueOf(parser.parseLong(value));
+        } catch (ParseException e) {
+            return "ParseException";
+        }
+    }
+
+    private Object parse(NumberParser parser, String value, Class<?> type) {
+        try {
+            return parser.parse(value, type);
+        } catch (ParseException e) {
+            return "ParseException";
+        }
+    }
+
+    private Object parseWithNumberFormat(NumberFormat numberFormat, String value) {
+        try {
+            return numberFormat.parse(value);
+        } catch (ParseException e) {
+            return "ParseException";
+        }
+    }
+
+    private Object parse(NumberParser parser, String value) {
+        try {
+            return parser.parse(value);
+        } catch (ParseException e) {
+            return "ParseException";
+        }
+    }
+}
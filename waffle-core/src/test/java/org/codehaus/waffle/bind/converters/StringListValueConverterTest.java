@@ -52,6 +52,15 @@ public class StringListValueConverterTest extends AbstractValueConverterTest {
         assertEquals(expected.toString(), actual.toString());
     }
 
+    @Test
+    public void canConvertMultipleValuesWithoutSplitting() {
+        StringListValueConverter converter = new StringListValueConverter(new DefaultMessageResources());
+        List<?> list = (List<?>) converter.convertValues("property-name", new String[] { "one,two", " ", "three " },
+                List.class);
+        assertEquals("[one,two, three]", list.toString());
+        assertTrue(((List<?>) converter.convertValues("property-name", new String[] { "", " " }, List.class)).isEmpty());
+    }
+
     @Test
     public void canHandleMissingValues() {
         StringListValueConverter converter = new StringListValueConverter(new DefaultMessageResources());
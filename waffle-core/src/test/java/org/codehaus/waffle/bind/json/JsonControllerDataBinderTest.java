@@ -0,0 +1,243 @@
+package org.codehaus.waffle.bind.json;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+
+import org.codehaus.waffle.action.JavassistActionMethodInvokerFactory;
+import org.codehaus.waffle.bind.BindErrorMessageResolver;
+import org.codehaus.waffle.bind.ControllerDataBinder;
+import org.codehaus.waffle.bind.ognl.OgnlValueConverterFinder;
+import org.codehaus.waffle.monitor.SilentMonitor;
+import org.codehaus.waffle.validation.BindErrorMessage;
+import org.codehaus.waffle.validation.DefaultErrorsContext;
+import org.codehaus.waffle.validation.ErrorMessage;
+import org.codehaus.waffle.validation.ErrorsContext;
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.integration.junit4.JMock;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(JMock.class)
+public class JsonControllerDataBinderTest {
+
+    private static final SilentMonitor MONITOR = new SilentMonitor();
+    private Mockery mockery = new Mockery();
+
+    @Test
+    public void canBindJsonBody() throws Exception {
+        HttpServletRequest request = mockJsonRequest("application/json; charset=UTF-8",
+                "{ \"name\" : \"J\\u00f6rg \\\"Jo\\\"\","
+                + " \"age\": 42, \"active\": true, \"nickname\": null,"
+                + " \"address\": { \"city\": \"London\", \"lines\": [\"1 Main Street, Flat 2\", \"Soho\"] },"
+                + " \"tags\": [\"a\", \"b,c\"], \"scores\": [3, 1], \"addresses\": [ { \"city\": \"Paris\" } ],"
+                + " \"unknown\": { \"nested\": [[1], {\"a\": \"b\"}] }, \"first name\": \"x\" }");
+        ErrorsContext errorsContext = new DefaultErrorsContext(null);
+        Person person = new Person();
+        person.setNickname("nick");
+        newBinder(null).bind(request, null, errorsContext, person);
+
+        assertFalse(errorsContext.hasErrorMessages());
+        assertEquals("J\u00f6rg \"Jo\"", person.getName());
+        assertEquals(42, person.getAge());
+        assertTrue(person.isActive());
+        assertNull(person.getNickname());
+        assertEquals("London", person.getAddress().getCity());
+        assertEquals(asList("1 Main Street, Flat 2", "Soho"), asList(person.getAddress().getLines()));
+        assertEquals(asList("a", "b,c"), person.getTags());
+        assertArrayEquals(new int[] { 3, 1 }, person.getScores());
+        assertEquals("Paris", person.getAddresses().get(0).getCity());
+    }
+
+    @Test
+    public void canBindEmptyArraysAndObjects() throws Exception {
+        HttpServletRequest request = mockJsonRequest("application/json", "{\"tags\":[],\"address\":{}}");
+        ErrorsContext errorsContext = new DefaultErrorsContext(null);
+        Person person = new Person();
+        newBinder(null).bind(request, null, errorsContext, person);
+
+        assertFalse(errorsContext.hasErrorMessages());
+        assertTrue(person.getTags().isEmpty());
+    }
+
+    @Test
+    public void canAddBindErrorsForInvalidValuesAndMalformedDocuments() throws Exception {
+        HttpServletRequest request = mockJsonRequest("application/json",
+                "{\"age\":\"old\",\"name\":\"foo\",\"address\":{\"city\": }}");
+
+        // Mock BindErrorMessageResolver
+        final BindErrorMessageResolver resolver = mockery.mock(BindErrorMessageResolver.class);
+        mockery.checking(new Expectations() {
+            {
+                one(resolver).resolve(with(an(Person.class)), with(equal("age")), with(equal("old")));
+                will(returnValue("age error"));
+                one(resolver).resolve(with(an(Person.class)), with(equal("address.city")), with(aNull(String.class)));
+                will(returnValue("city error"));
+            }
+        });
+
+        ErrorsContext errorsContext = new DefaultErrorsContext(null);
+        Person person = new Person();
+        newBinder(resolver).bind(request, null, errorsContext, person);
+
+        assertEquals("foo", person.getName());
+        assertBindError(errorsContext, "age", "age error");
+        assertBindError(errorsContext, "address.city", "city error");
+    }
+
+    @Test
+    public void canIgnoreBodyOfRequestsWhichAreNotJson() {
+        final HttpServletRequest request = mockery.mock(HttpServletRequest.class);
+        mockery.checking(new Expectations() {
+            {
+                one(request).getParameterNames();
+                will(returnValue(Collections.enumeration(asList("name"))));
+                one(request).getParameterValues("name");
+                will(returnValue(new String[] { "foo" }));
+                one(request).getContentType();
+                will(returnValue("application/x-www-form-urlencoded"));
+            }
+        });
+        Person person = new Person();
+        newBinder(null).bind(request, null, new DefaultErrorsContext(null), person);
+        assertEquals("foo", person.getName());
+    }
+
+    private void assertBindError(ErrorsContext errorsContext, String name, String message) {
+        List<? extends ErrorMessage> messages = errorsContext.getErrorMessagesForField(ErrorMessage.Type.BIND, name);
+        assertEquals(1, messages.size());
+        assertEquals(message, ((BindErrorMessage) messages.get(0)).getMessage());
+    }
+
+    private ControllerDataBinder newBinder(BindErrorMessageResolver resolver) {
+        return new JsonControllerDataBinder(new OgnlValueConverterFinder(), resolver,
+                new JavassistActionMethodInvokerFactory(MONITOR), MONITOR);
+    }
+
+    private HttpServletRequest mockJsonRequest(final String contentType, String body) throws IOException {
+        final ByteArrayInputStream bytes = new ByteArrayInputStream(body.getBytes("UTF-8"));
+        final HttpServletRequest request = mockery.mock(HttpServletRequest.class);
+        mockery.checking(new Expectations() {
+            {
+                one(request).getParameterNames();
+                will(returnValue(Collections.enumeration(new ArrayList<String>())));
+                one(request).getContentType();
+                will(returnValue(contentType));
+                one(request).getCharacterEncoding();
+                will(returnValue(null));
+                one(request).getInputStream();
+                will(returnValue(new ServletInputStream() {
+                    public int read() throws IOException {
+                        return bytes.read();
+                    }
+                }));
+            }
+        });
+        return request;
+    }
+
+    public static class Person {
+        private String name;
+        private String nickname;
+        private int age;
+        private boolean active;
+        private Address address = new Address();
+        private List<String> tags;
+        private int[] scores;
+        private List<Address> addresses = new ArrayList<Address>(asList(new Address()));
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getNickname() {
+            return nickname;
+        }
+
+        public void setNickname(String nickname) {
+            this.nickname = nickname;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public void setActive(boolean active) {
+            this.active = active;
+        }
+
+        public Address getAddress() {
+            return address;
+        }
+
+        public void setAddress(Address address) {
+            this.address = address;
+        }
+
+        public List<String> getTags() {
+            return tags;
+        }
+
+        public void setTags(List<String> tags) {
+            this.tags = tags;
+        }
+
+        public int[] getScores() {
+            return scores;
+        }
+
+        public void setScores(int[] scores) {
+            this.scores = scores;
+        }
+
+        public List<Address> getAddresses() {
+            return addresses;
+        }
+    }
+
+    public static class Address {
+        private String city;
+        private String[] lines;
+
+        public String getCity() {
+            return city;
+        }
+
+        public void setCity(String city) {
+            this.city = city;
+        }
+
+        public String[] getLines() {
+            return lines;
+        }
+
+        public void setLines(String[] lines) {
+            this.lines = lines;
+        }
+    }
+}
@@ -22,6 +22,7 @@ import org.codehaus.waffle.bind.converters.NumberValueConverter;
 import org.codehaus.waffle.bind.converters.StringListValueConverter;
 import org.codehaus.waffle.i18n.DefaultMessageResources;
 import org.codehaus.waffle.i18n.MessageResources;
+import org.codehaus.waffle.monitor.BindMonitor;
 import org.codehaus.waffle.monitor.SilentMonitor;
 import org.codehaus.waffle.testmodel.FakeBean;
 import org.codehaus.waffle.testmodel.FakeController;
@@ -136,7 +137,38 @@ public class OgnlControllerDataBinderTest {
         assertFalse(errorsContext.hasErrorMessages());
     }
         
-       
+
+    @Test
+    public void canBindMultipleValuesWithoutJoiningThem() {
+        List<String> parameters = new ArrayList<String>();
+        parameters.add("list");
+        parameters.add("values");
+        final Enumeration<String> enumeration = Collections.enumeration(parameters);
+
+        // Mock HttpServletRequest
+        final String[] values = new String[]{"foo,bar", "baz"};
+        final HttpServletRequest request = mockery.mock(HttpServletRequest.class);
+        mockery.checking(new Expectations() {
+            {
+                one(request).getParameterNames();
+                will(returnValue(enumeration));
+                one(request).getParameterValues("list");
+                will(returnValue(values));
+                one(request).getParameterValues("values");
+                will(returnValue(values));
+            }
+        });
+
+        FakeController fakeController = new FakeController();
+        ControllerDataBinder binder = new OgnlControllerDataBinder(new OgnlValueConverterFinder(), null, MONITOR);
+        ErrorsContext errorsContext = new DefaultErrorsContext(null);
+        binder.bind(request, null, errorsContext, fakeController);
+
+        assertEquals(asList(values), fakeController.getList());
+        assertEquals(asList(values), asList(fakeController.getValues()));
+        assertFalse(errorsContext.hasErrorMessages());
+    }
+
     @Test
     public void canBindEmptyValueForEnum() {
         List<String> parameters = new ArrayList<String>();
@@ -283,4 +315,115 @@ public class OgnlControllerDataBinderTest {
         assertTrue(errorsContext.hasErrorMessages());
     }
 
+    @Test
+    public void canSkipParametersNotBindableToController() {
+        List<String> parameters = new ArrayList<String>();
+        parameters.add("name");
+        parameters.add("method");
+        parameters.add("#junk");
+        final Enumeration<String> enumeration = Collections.enumeration(parameters);
+
+        // Mock HttpServletRequest
+        final HttpServletRequest request = mockery.mock(HttpServletRequest.class);
+        mockery.checking(new Expectations() {
+            {
+                one(request).getParameterNames();
+                will(returnValue(enumeration));
+                one(request).getParameterValues("name");
+                will(returnValue(new String[]{"foobar"}));
+                one(request).getParameterValues("method");
+                will(returnValue(new String[]{"save"}));
+                one(request).getParameterValues("#junk");
+                will(returnValue(new String[]{"junk"}));
+            }
+        });
+
+        final FakeController fakeController = new FakeController();
+
+        // Mock BindMonitor
+        final BindMonitor monitor = mockery.mock(BindMonitor.class);
+        mockery.checking(new Expectations() {
+            {
+                one(monitor).controllerValueBound("name", "foobar", fakeController);
+                one(monitor).controllerValueSkipped("method", fakeController);
+                one(monitor).controllerValueSkipped("#junk", fakeController);
+                ignoring(monitor);
+            }
+        });
+
+        ControllerDataBinder binder = new OgnlControllerDataBinder(new OgnlValueConverterFinder(), null, monitor);
+        ErrorsContext errorsContext = new DefaultErrorsContext(null);
+        binder.bind(request, null, errorsContext, fakeController);
+
+        assertEquals("foobar", fakeController.getName());
+        assertFalse(errorsContext.hasErrorMessages());
+    }
+
+    @Test
+    public void canConvertWithCompiledExpressions() throws Exception {
+        OgnlControllerDataBinder binder = new OgnlControllerDataBinder(new OgnlValueConverterFinder(), null,
+                new DefaultOgnlControllerDataBinderConfig(10, true), MONITOR);
+
+        for (int i = 0; i < 2; i++) {
+            FakeController fakeController = new FakeController();
+            assertEquals("foobar" + i, binder.handleConvert("name", "foobar" + i, fakeController));
+            assertEquals("foobar" + i, fakeController.getName());
+
+            FakeBean fakeBean = new FakeBean();
+            assertEquals(i, binder.handleConvert("count", String.valueOf(i), fakeBean));
+            assertEquals(i, fakeBean.getCount());
+        }
+    }
+
+    @Test
+    public void canConvertWithCompiledExpressionsWhenNestedValuesChangeType() throws Exception {
+        OgnlControllerDataBinder binder = new OgnlControllerDataBinder(new OgnlValueConverterFinder(), null,
+                new DefaultOgnlControllerDataBinderConfig(10, true), MONITOR);
+
+        ItemHolder holder = new ItemHolder();
+        holder.setItem(new FakeController());
+        assertEquals("foo", binder.handleConvert("item.name", "foo", holder));
+
+        NamedItem namedItem = new NamedItem();
+        holder = new ItemHolder();
+        holder.setItem(namedItem);
+        assertEquals("bar", binder.handleConvert("item.name", "bar", holder));
+        assertEquals("bar", namedItem.getName());
+        assertEquals("baz", binder.handleConvert("item.name", "baz", holder));
+    }
+
+    @Test
+    public void canConvertWhenExpressionCacheIsFull() throws Exception {
+        OgnlControllerDataBinder binder = new OgnlControllerDataBinder(new OgnlValueConverterFinder(), null,
+                new DefaultOgnlControllerDataBinderConfig(0, true), MONITOR);
+
+        FakeController fakeController = new FakeController();
+        assertEquals("foobar", binder.handleConvert("name", "foobar", fakeController));
+        assertEquals("foobar", fakeController.getName());
+    }
+
+    public static class ItemHolder {
+        private Object item;
+
+        public Object getItem() {
+            return item;
+        }
+
+        public void setItem(Object item) {
+            this.item = item;
+        }
+    }
+
+    public static class NamedItem {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
 }
@@ -2,6 +2,7 @@ package org.codehaus.waffle.bind.ognl;
 
 import static org.codehaus.waffle.testmodel.FakeControllerWithListMethods.methodParameterType;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import java.beans.IntrospectionException;
 import java.lang.reflect.Type;
@@ -49,4 +50,35 @@ public class OgnlValueConverterFinderTest {
         assertEquals(expectedConverterType, finder.findConverter(type).getClass());
     }
 
+    @Test
+    public void canCacheConverterPerTypeUntilConverterRegistered() {
+        CountingValueConverter counting = new CountingValueConverter();
+        ValueConverterFinder finder = new OgnlValueConverterFinder(counting);
+        assertEquals(OgnlValueConverter.class, finder.findConverter(Integer.class).getClass());
+        assertEquals(OgnlValueConverter.class, finder.findConverter(Integer.class).getClass());
+        assertEquals(1, counting.accepted);
+
+        ValueConverter registered = new CountingValueConverter() {
+            public boolean accept(Type type) {
+                return true;
+            }
+        };
+        finder.registerConverter(registered);
+        assertSame(registered, finder.findConverter(Integer.class));
+        assertEquals(2, counting.accepted);
+    }
+
+    private static class CountingValueConverter implements ValueConverter {
+        private int accepted;
+
+        public boolean accept(Type type) {
+            accepted++;
+            return false;
+        }
+
+        public Object convertValue(String propertyName, String value, Type toType) {
+            return value;
+        }
+    }
+
 }
@@ -0,0 +1,272 @@
+package org.codehaus.waffle.bind.ognl;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.codehaus.waffle.action.JavassistActionMethodInvokerFactory;
+import org.codehaus.waffle.action.ReflectiveActionMethodInvokerFactory;
+import org.codehaus.waffle.bind.BindErrorMessageResolver;
+import org.codehaus.waffle.bind.ControllerDataBinder;
+import org.codehaus.waffle.monitor.Monitor.Level;
+import org.codehaus.waffle.monitor.SilentMonitor;
+import org.codehaus.waffle.testmodel.FakeBean;
+import org.codehaus.waffle.validation.BindErrorMessage;
+import org.codehaus.waffle.validation.DefaultErrorsContext;
+import org.codehaus.waffle.validation.ErrorMessage;
+import org.codehaus.waffle.validation.ErrorsContext;
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.integration.junit4.JMock;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(JMock.class)
+public class PropertyControllerDataBinderTest {
+
+    private static final SilentMonitor MONITOR = new SilentMonitor();
+    private Mockery mockery = new Mockery();
+
+    @Test
+    public void canBindSimpleAndDottedProperties() {
+        List<String> parameters = new ArrayList<String>();
+        parameters.add("name");
+        parameters.add("age");
+        parameters.add("level");
+        parameters.add("address.city");
+        final Enumeration<String> enumeration = Collections.enumeration(parameters);
+
+        // Mock HttpServletRequest
+        final HttpServletRequest request = mockery.mock(HttpServletRequest.class);
+        mockery.checking(new Expectations() {
+            {
+                one(request).getParameterNames();
+                will(returnValue(enumeration));
+                one(request).getParameterValues("name");
+                will(returnValue(new String[] { "foobar" }));
+                one(request).getParameterValues("age");
+                will(returnValue(new String[] { "42" }));
+                one(request).getParameterValues("level");
+                will(returnValue(new String[] { "WARN" }));
+                one(request).getParameterValues("address.city");
+                will(returnValue(new String[] { "London" }));
+            }
+        });
+
+        Person person = new Person();
+        ControllerDataBinder binder = new PropertyControllerDataBinder(new OgnlValueConverterFinder(), null,
+                new JavassistActionMethodInvokerFactory(MONITOR), MONITOR);
+        ErrorsContext errorsContext = new DefaultErrorsContext(null);
+        binder.bind(request, null, errorsContext, person);
+
+        assertEquals("foobar", person.getName());
+        assertEquals(42, person.getAge());
+        assertEquals(Level.WARN, person.getLevel());
+        assertEquals("London", person.getAddress().getCity());
+        assertFalse(errorsContext.hasErrorMessages());
+    }
+
+    @Test
+    public void canConvertWithReflectiveInvokers() throws Exception {
+        PropertyControllerDataBinder binder = new PropertyControllerDataBinder(new OgnlValueConverterFinder(), null,
+                new ReflectiveActionMethodInvokerFactory(), MONITOR);
+
+        Person person = new Person();
+        assertEquals(42, binder.handleConvert("age", "42", person));
+        assertEquals("London", binder.handleConvert("address.city", "London", person));
+        assertEquals("London", person.getAddress().getCity());
+    }
+
+    @Test
+    public void canDefaultToOgnlForPathsWhichAreNotBeanProperties() throws Exception {
+        PropertyControllerDataBinder binder = new PropertyControllerDataBinder(new OgnlValueConverterFinder(), null,
+                new JavassistActionMethodInvokerFactory(MONITOR), MONITOR);
+
+        Person person = new Person();
+        assertEquals("bar", binder.handleConvert("attributes.foo", "bar", person));
+        assertEquals("bar", person.getAttributes().get("foo"));
+        assertEquals("bar", binder.handleConvert("unknown", "bar", person));
+    }
+
+    @Test
+    public void canConvertMultipleValuesToCollectionsAndArrays() throws Exception {
+        PropertyControllerDataBinder binder = new PropertyControllerDataBinder(new OgnlValueConverterFinder(), null,
+                new JavassistActionMethodInvokerFactory(MONITOR), MONITOR);
+
+        Person person = new Person();
+        binder.handleConvert("scores", new String[] { "3", "1", "3" }, person);
+        assertEquals(new LinkedHashSet<Integer>(asList(3, 1)), person.getScores());
+        binder.handleConvert("address.lines", new String[] { "1 Main Street, Flat 2", "London" }, person);
+        assertEquals(asList("1 Main Street, Flat 2", "London"), asList(person.getAddress().getLines()));
+    }
+
+    @Test
+    public void canDefaultToOgnlForPropertiesOfNonPublicBeans() throws Exception {
+        PropertyControllerDataBinder binder = new PropertyControllerDataBinder(new OgnlValueConverterFinder(), null,
+                new ReflectiveActionMethodInvokerFactory(), MONITOR);
+
+        Person person = new Person();
+        assertEquals("Milan", binder.handleConvert("account.city", "Milan", person));
+        assertEquals("Milan", person.getAccount().getCity());
+        NonPublicBean bean = new NonPublicBean();
+        assertEquals(42, binder.handleConvert("age", "42", bean));
+        assertEquals(42, bean.getAge());
+    }
+
+    @Test
+    public void canHandleFieldValueBindError() {
+        List<String> parameters = new ArrayList<String>();
+        parameters.add("count");
+        final Enumeration<String> enumeration = Collections.enumeration(parameters);
+
+        // Mock HttpServletRequest
+        final HttpServletRequest request = mockery.mock(HttpServletRequest.class);
+        mockery.checking(new Expectations() {
+            {
+                one(request).getParameterNames();
+                will(returnValue(enumeration));
+                one(request).getParameterValues("count");
+                will(returnValue(new String[] { "bad value" }));
+            }
+        });
+
+        // Mock BindErrorMessageResolver
+        final BindErrorMessageResolver resolver = mockery.mock(BindErrorMessageResolver.class);
+        mockery.checking(new Expectations() {
+            {
+                one(resolver).resolve(with(an(FakeBean.class)), with(equal("count")), with(equal("bad value")));
+                will(returnValue("bind error"));
+            }
+        });
+
+        ControllerDataBinder binder = new PropertyControllerDataBinder(new OgnlValueConverterFinder(), resolver,
+                new JavassistActionMethodInvokerFactory(MONITOR), MONITOR);
+
+        ErrorsContext errorsContext = new DefaultErrorsContext(null);
+        binder.bind(request, null, errorsContext, new FakeBean());
+        assertTrue(errorsContext.hasErrorMessages());
+
+        List<? extends ErrorMessage> messages = errorsContext.getErrorMessagesForField(ErrorMessage.Type.BIND, "count");
+        assertEquals(1, messages.size());
+
+        BindErrorMessage bindValidationMessage = (BindErrorMessage) messages.get(0);
+        assertEquals("count", bindValidationMessage.getName());
+        assertEquals("bad value", bindValidationMessage.getValue());
+        assertEquals("bind error", bindValidationMessage.getMessage());
+    }
+
+    public static class Person {
+        private String name;
+        private int age;
+        private Level level;
+        private Set<Integer> scores;
+        private Address address = new Address();
+        private NonPublicAddress account = new NonPublicAddress();
+        private Map<String, String> attributes = new HashMap<String, String>();
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+
+        public Level getLevel() {
+            return level;
+        }
+
+        public void setLevel(Level level) {
+            this.level = level;
+        }
+
+        public Set<Integer> getScores() {
+            return scores;
+        }
+
+        public void setScores(Set<Integer> scores) {
+            this.scores = scores;
+        }
+
+        public Address getAddress() {
+            return address;
+        }
+
+        public void setAddress(Address address) {
+            this.address = address;
+        }
+
+        public Map<String, String> getAttributes() {
+            return attributes;
+        }
+
+        public NonPublicAddress getAccount() {
+            return account;
+        }
+    }
+
+    public static class Address {
+        private String city;
+        private String[] lines;
+
+        public String getCity() {
+            return city;
+        }
+
+        public void setCity(String city) {
+            this.city = city;
+        }
+
+        public String[] getLines() {
+            return lines;
+        }
+
+        public void setLines(String[] lines) {
+            this.lines = lines;
+        }
+    }
+
+    static class NonPublicAddress {
+        private String city;
+
+        public String getCity() {
+            return city;
+        }
+
+        public void setCity(String city) {
+            this.city = city;
+        }
+    }
+
+    static class NonPublicBean {
+        private int age;
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package org.codehaus.waffle.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.integration.junit4.JMock;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(JMock.class)
+public class CompressingHttpServletResponseTest {
+    private static final String[] UNCOMPRESSED_CONTENT_TYPES = { "image/png", "video/" };
+
+    private final Mockery mockery = new Mockery();
+    private final HttpServletResponse response = mockery.mock(HttpServletResponse.class);
+    private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+    private final DeflaterPool deflaterPool = new DeflaterPool(Deflater.BEST_SPEED, 8192, 1);
+
+    @Test
+    public void canCompressWriterContentAndPoolDeflater() throws IOException {
+        mockery.checking(new Expectations() {{
+            allowing(response).getContentType();
+            will(returnValue("application/json; charset=UTF-8"));
+            allowing(response).getCharacterEncoding();
+            will(returnValue("UTF-8"));
+            exactly(2).of(response).setHeader("Content-Encoding", "gzip");
+            exactly(2).of(response).addHeader("Vary", "Accept-Encoding");
+            exactly(2).of(response).getOutputStream();
+            will(returnValue(new StubServletOutputStream(content)));
+        }});
+
+        char[] chars = new char[5000];
+        Arrays.fill(chars, '\u00e9');
+        String text = new String(chars);
+        for (int i = 0; i < 2; i++) {
+            content.reset();
+            CompressingHttpServletResponse compressingResponse = compressingResponse();
+            compressingResponse.setContentLength(10000);
+            PrintWriter writer = compressingResponse.getWriter();
+            writer.print(text);
+            compressingResponse.finish();
+            assertEquals(text, gunzip(content.toByteArray()));
+        }
+    }
+
+    @Test
+    public void canWriteCompressedContentTypesUncompressed() throws IOException {
+        mockery.checking(new Expectations() {{
+            allowing(response).getContentType();
+            will(returnValue("video/mp4"));
+            one(response).setHeader("Content-Length", "2000");
+            one(response).getOutputStream();
+            will(returnValue(new StubServletOutputStream(content)));
+        }});
+
+        CompressingHttpServletResponse compressingResponse = compressingResponse();
+        compressingResponse.setHeader("Content-Length", "2000");
+        compressingResponse.getOutputStream().write(new byte[2000]);
+        compressingResponse.finish();
+        assertEquals(2000, content.size());
+    }
+
+    @Test
+    public void canWriteRangesUncompressed() throws IOException {
+        mockery.checking(new Expectations() {{
+            one(response).setHeader("Content-Range", "bytes 0-1999/5000");
+            one(response).setHeader("Content-Length", "2000");
+            one(response).getOutputStream();
+            will(returnValue(new StubServletOutputStream(content)));
+        }});
+
+        CompressingHttpServletResponse compressingResponse = compressingResponse();
+        compressingResponse.setHeader("Content-Range", "bytes 0-1999/5000");
+        compressingResponse.setHeader("Content-Length", "2000");
+        compressingResponse.getOutputStream().write(new byte[2000]);
+        compressingResponse.finish();
+        assertEquals(2000, content.size());
+    }
+
+    @Test
+    public void canDropAcceptRangesOfCompressedContent() throws IOException {
+        mockery.checking(new Expectations() {{
+            allowing(response).getContentType();
+            will(returnValue("text/plain"));
+            allowing(response).getCharacterEncoding();
+            will(returnValue("UTF-8"));
+            one(response).setHeader("Content-Encoding", "gzip");
+            one(response).addHeader("Vary", "Accept-Encoding");
+            one(response).getOutputStream();
+            will(returnValue(new StubServletOutputStream(content)));
+        }});
+
+        char[] chars = new char[5000];
+        Arrays.fill(chars, 'a');
+        String text = new String(chars);
+        CompressingHttpServletResponse compressingResponse = compressingResponse();
+        compressingResponse.setHeader("Accept-Ranges", "bytes");
+        compressingResponse.setHeader("Content-Length", "5000");
+        compressingResponse.getWriter().print(text);
+        compressingResponse.finish();
+        assertEquals(text, gunzip(content.toByteArray()));
+    }
+
+    @Test
+    public void canAcceptRangesOfUncompressedContent() throws IOException {
+        mockery.checking(new Expectations() {{
+            allowing(response).getContentType();
+            will(returnValue("text/plain"));
+            one(response).setHeader("Content-Length", "500");
+            one(response).setHeader("Accept-Ranges", "bytes");
+            one(response).getOutputStream();
+            will(returnValue(new StubServletOutputStream(content)));
+        }});
+
+        CompressingHttpServletResponse compressingResponse = compressingResponse();
+        compressingResponse.setHeader("Accept-Ranges", "bytes");
+        compressingResponse.setHeader("Content-Length", "500");
+        compressingResponse.getOutputStream().write(new byte[500]);
+        compressingResponse.finish();
+        assertEquals(500, content.size());
+    }
+
+    private CompressingHttpServletResponse compressingResponse() {
+        return new CompressingHttpServletResponse(response, CompressingHttpServletResponse.GZIP, 1024,
+                UNCOMPRESSED_CONTENT_TYPES, deflaterPool);
+    }
+
+    private String gunzip(byte[] bytes) throws IOException {
+        GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(bytes));
+        ByteArrayOutputStream uncompressed = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        for (int count; (count = inputStream.read(buffer)) > 0;) {
+            uncompressed.write(buffer, 0, count);
+        }
+        return uncompressed.toString("UTF-8");
+    }
+
+    private class StubServletOutputStream extends ServletOutputStream {
+        private final ByteArrayOutputStream bytes;
+
+        StubServletOutputStream(ByteArrayOutputStream bytes) {
+            this.bytes = bytes;
+        }
+
+        public void write(int b) throws IOException {
+            bytes.write(b);
+        }
+    }
+}
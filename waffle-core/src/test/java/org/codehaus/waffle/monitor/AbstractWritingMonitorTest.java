@@ -4,6 +4,8 @@
 package org.codehaus.waffle.monitor;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
@@ -48,6 +50,42 @@ public class AbstractWritingMonitorTest {
         assertEquals(5, sb.toString().split("\n").length);
     }
 
+    @Test
+    public void canSkipFormattingOfEventsOfDisabledLevels() {
+        final StringBuffer sb = new StringBuffer();
+        final AbstractWritingMonitor monitor = new AbstractWritingMonitor() {
+
+            @Override
+            protected boolean isEnabled(Level level) {
+                return level != Level.DEBUG;
+            }
+
+            @Override
+            protected void write(Level level, String message) {
+                sb.append(message).append("\n");
+            }
+
+            @Override
+            protected void trace(Throwable exception) {
+                sb.append("traced\n");
+            }
+        };
+        final int[] formatted = new int[1];
+        Object controller = new Object() {
+            public String toString() {
+                formatted[0]++;
+                return "controller";
+            }
+        };
+        assertFalse(monitor.isEnabled("controllerValueBound"));
+        assertTrue(monitor.isEnabled("controllerBindFailed"));
+        monitor.controllerValueBound("name", "value", controller);
+        monitor.viewBindFailed(controller, new Exception());
+        assertEquals(1, formatted[0]);
+        assertEquals("View bind failed from controller 'controller': java.lang.Exception\ntraced\n", sb.toString());
+        assertFalse(new SilentMonitor().isEnabled("servletServiceRequested"));
+    }
+
     @Test
     public void canTraceExceptions() {
         final StringWriter monitorWriter = new StringWriter();
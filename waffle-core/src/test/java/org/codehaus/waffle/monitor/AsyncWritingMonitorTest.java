@@ -0,0 +1,180 @@
+package org.codehaus.waffle.monitor;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.codehaus.waffle.monitor.AsyncWritingConfig.OverflowPolicy;
+import org.codehaus.waffle.servlet.StageTimer;
+import org.codehaus.waffle.servlet.StageTimer.Stage;
+import org.junit.Test;
+
+public class AsyncWritingMonitorTest {
+
+    @Test
+    public void canWriteEventsAsynchronouslyAndFlushOnStop() throws InterruptedException {
+        RecordingMonitor delegate = new RecordingMonitor(false);
+        AsyncWritingMonitor monitor = new AsyncWritingMonitor(delegate, new DefaultAsyncWritingConfig());
+        monitor.start();
+        for (int i = 0; i < 100; i++) {
+            monitor.viewForwarded("view" + i + ".jspx");
+        }
+        monitor.stop();
+        assertEquals(100, delegate.messages.size());
+        assertEquals("DEBUG: View forwarded to path 'view0.jspx'", delegate.messages.get(0));
+        assertEquals("DEBUG: View forwarded to path 'view99.jspx'", delegate.messages.get(99));
+        assertEquals(0, monitor.getDroppedCount());
+    }
+
+    @Test
+    public void canWriteEventsConcurrently() throws InterruptedException {
+        RecordingMonitor delegate = new RecordingMonitor(false);
+        final AsyncWritingMonitor monitor = new AsyncWritingMonitor(delegate, new DefaultAsyncWritingConfig(16,
+                OverflowPolicy.BLOCK, 5000));
+        monitor.start();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 4; i++) {
+            threads.add(new Thread() {
+                public void run() {
+                    for (int j = 0; j < 1000; j++) {
+                        monitor.viewForwarded("view.jspx");
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(monitor.flush());
+        assertEquals(4000, delegate.messages.size());
+        monitor.stop();
+    }
+
+    @Test
+    public void canCountEventsDroppedWhenBufferIsFull() throws InterruptedException {
+        RecordingMonitor delegate = new RecordingMonitor(true);
+        AsyncWritingMonitor monitor = new AsyncWritingMonitor(delegate, new DefaultAsyncWritingConfig(2,
+                OverflowPolicy.COUNT, 5000));
+        monitor.start();
+        monitor.viewForwarded("first.jspx");
+        assertTrue(delegate.writing.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 4; i++) {
+            monitor.viewForwarded("view" + i + ".jspx");
+        }
+        assertEquals(2, monitor.getDroppedCount());
+        delegate.released.countDown();
+        monitor.stop();
+        assertEquals(asList("DEBUG: View forwarded to path 'first.jspx'", "DEBUG: View forwarded to path 'view0.jspx'",
+                "DEBUG: View forwarded to path 'view1.jspx'", "WARN: 2 monitor events dropped as the buffer was full"),
+                delegate.messages);
+    }
+
+    @Test
+    public void canDropEventsWhenBufferIsFull() throws InterruptedException {
+        RecordingMonitor delegate = new RecordingMonitor(true);
+        AsyncWritingMonitor monitor = new AsyncWritingMonitor(delegate, new DefaultAsyncWritingConfig(2,
+                OverflowPolicy.DROP, 5000));
+        monitor.start();
+        monitor.viewForwarded("first.jspx");
+        assertTrue(delegate.writing.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 4; i++) {
+            monitor.viewForwarded("view" + i + ".jspx");
+        }
+        delegate.released.countDown();
+        monitor.stop();
+        assertEquals(3, delegate.messages.size());
+        assertEquals(2, monitor.getDroppedCount());
+    }
+
+    @Test
+    public void canWriteTimingsOfStageTimerReusedBeforeFormatting() throws InterruptedException {
+        RecordingMonitor delegate = new RecordingMonitor(true);
+        AsyncWritingMonitor monitor = new AsyncWritingMonitor(delegate, new DefaultAsyncWritingConfig());
+        monitor.start();
+        monitor.viewForwarded("first.jspx");
+        assertTrue(delegate.writing.await(5, TimeUnit.SECONDS));
+        StageTimer stageTimer = StageTimer.start();
+        Thread.sleep(2);
+        stageTimer.end(Stage.EXECUTE);
+        String timings = stageTimer.toString();
+        monitor.servletServiceTimed("fake", stageTimer);
+        StageTimer.start();
+        delegate.released.countDown();
+        assertTrue(monitor.flush());
+        monitor.stop();
+        assertEquals("DEBUG: Servlet service of controller 'fake' timed: " + timings, delegate.messages.get(1));
+    }
+
+    @Test
+    public void canWriteEventsSynchronouslyWhenNotStarted() {
+        RecordingMonitor delegate = new RecordingMonitor(false);
+        AsyncWritingMonitor monitor = new AsyncWritingMonitor(delegate, new DefaultAsyncWritingConfig());
+        monitor.viewForwarded("view.jspx");
+        assertEquals(asList("DEBUG: View forwarded to path 'view.jspx'"), delegate.messages);
+        assertTrue(monitor.flush());
+    }
+
+    @Test
+    public void canWriteEventsWithLevelsAndMessagesOfSubclass() throws InterruptedException {
+        RecordingMonitor delegate = new RecordingMonitor(false);
+        AsyncWritingMonitor monitor = new AsyncWritingMonitor(delegate, new DefaultAsyncWritingConfig()) {
+            @Override
+            protected Map<String, Level> monitorLevels() {
+                Map<String, Level> levels = super.monitorLevels();
+                levels.put("viewForwarded", Level.INFO);
+                return levels;
+            }
+
+            @Override
+            protected Map<String, String> monitorMessages() {
+                Map<String, String> messages = super.monitorMessages();
+                messages.put("viewForwarded", "Forwarded to {0}");
+                return messages;
+            }
+        };
+        monitor.viewForwarded("sync.jspx");
+        monitor.start();
+        monitor.viewForwarded("async.jspx");
+        monitor.stop();
+        assertEquals(asList("INFO: Forwarded to sync.jspx", "INFO: Forwarded to async.jspx"), delegate.messages);
+    }
+
+    private static class RecordingMonitor extends AbstractWritingMonitor {
+        private final List<String> messages = Collections.synchronizedList(new ArrayList<String>());
+        private final CountDownLatch writing = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+        private final boolean blocking;
+
+        RecordingMonitor(boolean blocking) {
+            this.blocking = blocking;
+        }
+
+        @Override
+        protected void write(Level level, String message) {
+            writing.countDown();
+            if (blocking) {
+                try {
+                    released.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            messages.add(level + ": " + message);
+        }
+
+        @Override
+        protected void trace(Throwable exception) {
+        }
+    }
+
+}
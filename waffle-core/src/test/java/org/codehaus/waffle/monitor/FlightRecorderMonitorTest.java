@@ -0,0 +1,94 @@
+package org.codehaus.waffle.monitor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.codehaus.waffle.servlet.StageTimer;
+import org.codehaus.waffle.servlet.StageTimer.Stage;
+import org.codehaus.waffle.testmodel.FakeController;
+import org.codehaus.waffle.view.View;
+import org.junit.Test;
+
+public class FlightRecorderMonitorTest {
+
+    @Test
+    public void canEnableOnlyEmittingEventsIfAvailable() {
+        FlightRecorderMonitor monitor = new FlightRecorderMonitor();
+        for (String event : new String[] { "servletServiceTimed", "methodInterceptorTimed", "actionMethodTimed",
+                "viewDispatched" }) {
+            assertEquals(event, FlightRecorderMonitor.isAvailable(), monitor.isEnabled(event));
+        }
+        assertFalse(monitor.isEnabled("servletServiceRequested"));
+    }
+
+    @Test
+    public void canEmitEventsWithoutRecording() throws Exception {
+        FlightRecorderMonitor monitor = new FlightRecorderMonitor();
+        monitor.actionMethodTimed("fake", FakeController.class.getMethod("sayHello"), 1000, false);
+        monitor.servletServiceTimed("fake", StageTimer.start());
+    }
+
+    @Test
+    public void canRecordEventsWithFlightRecorder() throws Exception {
+        assumeTrue(FlightRecorderMonitor.isAvailable());
+        Object recording = Class.forName("jdk.jfr.Recording").newInstance();
+        invoke(recording, "enable", String.class, "org.codehaus.waffle.Request");
+        invoke(recording, "enable", String.class, "org.codehaus.waffle.ActionInvoke");
+        invoke(recording, "enable", String.class, "org.codehaus.waffle.ViewDispatch");
+        invoke(recording, "start");
+
+        FlightRecorderMonitor monitor = new FlightRecorderMonitor();
+        Method method = FakeController.class.getMethod("sayHello");
+        StageTimer stageTimer = StageTimer.start();
+        monitor.methodInterceptorTimed(null, method, 500);
+        monitor.methodInterceptorTimed(null, method, 1000);
+        monitor.actionMethodTimed("fake", method, 2000, true);
+        stageTimer.end(Stage.EXECUTE);
+        monitor.viewDispatched(new View("success"));
+        monitor.actionMethodInvocationFailed(new Exception());
+        monitor.servletServiceTimed("fake", stageTimer);
+
+        invoke(recording, "stop");
+        File file = File.createTempFile("waffle", ".jfr");
+        file.deleteOnExit();
+        Object path = File.class.getMethod("toPath").invoke(file);
+        invoke(recording, "dump", path.getClass().getInterfaces()[0], path);
+        invoke(recording, "close");
+        List<?> recordedEvents = (List<?>) Class.forName("jdk.jfr.consumer.RecordingFile").getMethod("readAllEvents",
+                path.getClass().getInterfaces()[0]).invoke(null, path);
+
+        Map<String, Object> events = new HashMap<String, Object>();
+        for (Object event : recordedEvents) {
+            Object eventType = invoke(event, "getEventType");
+            events.put((String) invoke(eventType, "getName"), event);
+        }
+        Object actionInvoke = events.get("org.codehaus.waffle.ActionInvoke");
+        assertEquals("sayHello", invoke(actionInvoke, "getString", String.class, "methodName"));
+        assertEquals("failed", invoke(actionInvoke, "getString", String.class, "outcome"));
+        assertEquals(2, invoke(actionInvoke, "getInt", String.class, "interceptors"));
+        Object request = events.get("org.codehaus.waffle.Request");
+        assertEquals("fake", invoke(request, "getString", String.class, "controllerName"));
+        assertEquals("actionFailed", invoke(request, "getString", String.class, "outcome"));
+        assertTrue((Long) invoke(request, "getLong", String.class, "executeDuration") > 0);
+        Object viewDispatch = events.get("org.codehaus.waffle.ViewDispatch");
+        assertEquals("success", invoke(viewDispatch, "getString", String.class, "path"));
+        assertEquals("View", invoke(viewDispatch, "getString", String.class, "viewType"));
+    }
+
+    private Object invoke(Object target, String name) throws Exception {
+        return target.getClass().getMethod(name).invoke(target);
+    }
+
+    private Object invoke(Object target, String name, Class<?> type, Object argument) throws Exception {
+        return target.getClass().getMethod(name, type).invoke(target, argument);
+    }
+
+}
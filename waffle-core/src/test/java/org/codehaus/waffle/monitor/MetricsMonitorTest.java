@@ -0,0 +1,82 @@
+package org.codehaus.waffle.monitor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import org.codehaus.waffle.monitor.Metrics.ActionSnapshot;
+import org.codehaus.waffle.testmodel.FakeController;
+import org.junit.Test;
+
+public class MetricsMonitorTest {
+
+    @Test
+    public void canRecordActionMethodLatencies() throws Exception {
+        MetricsMonitor monitor = new MetricsMonitor(new Metrics());
+        Method sayHello = FakeController.class.getMethod("sayHello");
+        Method passThru = FakeController.class.getMethod("passThruMethod", String.class);
+        for (int i = 1; i <= 100; i++) {
+            monitor.actionMethodTimed("fake", sayHello, i * 1000000L, false);
+        }
+        monitor.actionMethodTimed("fake", passThru, 5000, true);
+
+        List<ActionSnapshot> actions = monitor.getMetrics().snapshot().getActions();
+        assertEquals(2, actions.size());
+        ActionSnapshot passThruAction = actions.get(0);
+        assertEquals("passThruMethod", passThruAction.getMethod());
+        assertEquals(1, passThruAction.getCount());
+        assertEquals(1, passThruAction.getFailures());
+        assertEquals(0.006, passThruAction.getP99Millis(), 0);
+        ActionSnapshot sayHelloAction = actions.get(1);
+        assertEquals("fake", sayHelloAction.getController());
+        assertEquals("sayHello", sayHelloAction.getMethod());
+        assertEquals(100, sayHelloAction.getCount());
+        assertEquals(0, sayHelloAction.getFailures());
+        assertEquals(50.5, sayHelloAction.getMeanMillis(), 0.001);
+        assertEquals(100, sayHelloAction.getMaxMillis(), 0);
+        // percentiles are within the 25% error of the histogram buckets
+        assertTrue(sayHelloAction.getP50Millis() >= 50 && sayHelloAction.getP50Millis() <= 50 * 1.25);
+        assertTrue(sayHelloAction.getP99Millis() >= 99 && sayHelloAction.getP99Millis() <= 99 * 1.25);
+        assertEquals(2, monitor.getMetrics().getActionLatencies().length);
+    }
+
+    @Test
+    public void canCountEventsAndReset() {
+        MetricsMonitor monitor = new MetricsMonitor(new Metrics());
+        monitor.controllerNotFound("missing");
+        monitor.controllerNotFound("missing");
+        monitor.viewForwarded("view.jspx");
+        monitor.controllerNameResolved("ignored", "/ignored");
+
+        assertEquals(Long.valueOf(2), monitor.getMetrics().snapshot().getEvents().get("controllerNotFound"));
+        assertEquals(Long.valueOf(1), monitor.getMetrics().snapshot().getEvents().get("viewForwarded"));
+        assertEquals("controllerNotFound=2", monitor.getMetrics().getEventCounts()[0]);
+        monitor.getMetrics().reset();
+        assertEquals(Long.valueOf(0), monitor.getMetrics().snapshot().getEvents().get("controllerNotFound"));
+    }
+
+    @Test
+    public void canEnableOnlyRecordedEvents() {
+        MetricsMonitor monitor = new MetricsMonitor();
+        assertTrue(monitor.isEnabled("actionMethodTimed"));
+        assertTrue(monitor.isEnabled("validationFailed"));
+        assertFalse(monitor.isEnabled("servletServiceRequested"));
+        assertFalse(monitor.isEnabled("controllerValueBound"));
+    }
+
+    @Test
+    public void canBucketLatenciesWithBoundedError() {
+        for (long micros = 0; micros < 1000000; micros = micros * 2 + 1) {
+            int bucket = LatencyHistogram.bucketOf(micros);
+            long upperBound = LatencyHistogram.upperBoundOf(bucket);
+            assertTrue(micros + " < " + upperBound, micros < upperBound);
+            assertTrue(micros + " >= " + upperBound, bucket == 0 || micros >= LatencyHistogram.upperBoundOf(bucket - 1));
+            assertTrue(upperBound <= Math.max(micros + 1, micros * 1.25 + 1));
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+    }
+
+}
@@ -0,0 +1,175 @@
+package org.codehaus.waffle.monitor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.codehaus.waffle.action.ActionMethodResponse;
+import org.codehaus.waffle.action.InterceptingActionMethodExecutor;
+import org.codehaus.waffle.action.MethodDefinition;
+import org.codehaus.waffle.action.intercept.InterceptorChain;
+import org.codehaus.waffle.action.intercept.MethodInterceptor;
+import org.codehaus.waffle.controller.ControllerDefinition;
+import org.codehaus.waffle.servlet.StageTimer;
+import org.codehaus.waffle.servlet.StageTimer.Stage;
+import org.codehaus.waffle.testmodel.FakeController;
+import org.codehaus.waffle.validation.BindErrorMessage;
+import org.junit.Test;
+
+public class TracingMonitorTest {
+
+    @Test
+    public void canRetainSpanTreeOfSlowRequests() throws Exception {
+        TracingMonitor monitor = new TracingMonitor(new Traces(4, 0, 0));
+        Method method = FakeController.class.getMethod("sayHello", String.class);
+        MethodDefinition methodDefinition = new MethodDefinition(method);
+        methodDefinition.addMethodArgument("foobar");
+
+        StageTimer stageTimer = StageTimer.start();
+        monitor.controllerNameResolved("fake", "/fake.waffle");
+        stageTimer.end(Stage.CONTROLLER);
+        monitor.controllerBindFailed(null, new BindErrorMessage("count", "bad value", "bind error"), null);
+        stageTimer.end(Stage.BIND);
+        monitor.actionMethodFound(methodDefinition);
+        monitor.methodInterceptorTimed(new InnerInterceptor(), method, 1000);
+        monitor.methodInterceptorTimed(new OuterInterceptor(), method, 2000);
+        monitor.actionMethodTimed("fake", method, 3000, false);
+        stageTimer.end(Stage.EXECUTE);
+        monitor.viewForwarded("fake.jspx");
+        stageTimer.end(Stage.HANDLE);
+        monitor.servletServiceTimed("fake", stageTimer);
+
+        List<Trace> traces = monitor.getTraces().getTraces();
+        assertEquals(1, traces.size());
+        assertEquals("threshold", traces.get(0).getReason());
+        TraceSpan root = traces.get(0).getRoot();
+        assertEquals("request", root.getName());
+        assertEquals("fake", root.getDetail());
+        assertEquals("/fake.waffle", span(root, "controller").getDetail());
+        assertEquals("count=bad value: bind error", span(span(root, "bind"), "bindError").getDetail());
+        TraceSpan outer = span(span(root, "execute"), "interceptor");
+        assertEquals(OuterInterceptor.class.getName(), outer.getDetail());
+        TraceSpan inner = span(outer, "interceptor");
+        assertEquals(InnerInterceptor.class.getName(), inner.getDetail());
+        TraceSpan action = span(inner, "action");
+        assertEquals("sayHello(foobar)", action.getDetail());
+        assertEquals(0.003, action.getDurationMillis(), 0);
+        assertTrue(action.getChildren().isEmpty());
+        assertEquals("fake.jspx", span(span(root, "handle"), "forward").getDetail());
+    }
+
+    @Test
+    public void canEnableTracedEventsOnly() {
+        TracingMonitor monitor = new TracingMonitor(new Traces(2, 0, 0));
+        for (String event : new String[] { "servletServiceTimed", "controllerNameResolved", "actionMethodFound",
+                "methodInterceptorTimed", "actionMethodTimed", "controllerBindFailed", "viewForwarded",
+                "viewDispatched" }) {
+            assertTrue(event, monitor.isEnabled(event));
+        }
+        assertFalse(monitor.isEnabled("controllerValueBound"));
+    }
+
+    @Test
+    public void canSampleRequestsBelowThreshold() throws Exception {
+        TracingMonitor monitor = new TracingMonitor(new Traces(4, 60000, 2));
+        for (int i = 0; i < 5; i++) {
+            monitor.actionMethodInvocationFailed(new Exception("request " + i));
+            monitor.servletServiceTimed("fake", StageTimer.start());
+        }
+
+        List<Trace> traces = monitor.getTraces().getTraces();
+        assertEquals(2, traces.size());
+        assertEquals("sample", traces.get(0).getReason());
+        assertEquals("java.lang.Exception: request 3", span(traces.get(0).getRoot(), "actionMethodInvocationFailed")
+                .getDetail());
+        assertEquals("java.lang.Exception: request 1", span(traces.get(1).getRoot(), "actionMethodInvocationFailed")
+                .getDetail());
+    }
+
+    @Test
+    public void canBoundTracesRetained() {
+        TracingMonitor monitor = new TracingMonitor(new Traces(2, 0, 0));
+        for (int i = 0; i < 3; i++) {
+            monitor.controllerNameResolved("fake", "/fake" + i);
+            monitor.servletServiceTimed("fake", StageTimer.start());
+        }
+
+        List<Trace> traces = monitor.getTraces().getTraces();
+        assertEquals(2, traces.size());
+        assertEquals("/fake2", span(traces.get(0).getRoot(), "controller").getDetail());
+        assertEquals("/fake1", span(traces.get(1).getRoot(), "controller").getDetail());
+        assertTrue(traces.get(0).toString().contains("controller /fake2"));
+        monitor.getTraces().clear();
+        assertEquals(0, monitor.getTraces().getTraces().size());
+    }
+
+    @Test
+    public void canDiscardEventsOfRequestsNotRetained() {
+        TracingMonitor monitor = new TracingMonitor(new Traces(2, 60000, 0));
+        monitor.controllerNameResolved("fake", "/discarded");
+        monitor.servletServiceTimed("fake", StageTimer.start());
+        monitor.getTraces().setThresholdMillis(0);
+        monitor.servletServiceTimed("fake", StageTimer.start());
+
+        assertNull(span(monitor.getTraces().getTraces().get(0).getRoot(), "controller").getDetail());
+    }
+
+    @Test
+    public void canNestActionUnderInterceptorsOfExecutor() throws Exception {
+        TracingMonitor monitor = new TracingMonitor(new Traces(4, 0, 0));
+        Method method = FakeController.class.getMethod("sayHello", String.class);
+        MethodDefinition methodDefinition = new MethodDefinition(method);
+        methodDefinition.addMethodArgument("foobar");
+        List<MethodInterceptor> interceptors = new ArrayList<MethodInterceptor>();
+        interceptors.add(new OuterInterceptor());
+        interceptors.add(new InnerInterceptor());
+
+        StageTimer stageTimer = StageTimer.start();
+        monitor.actionMethodFound(methodDefinition);
+        new InterceptingActionMethodExecutor(monitor).execute(new ActionMethodResponse(), new ControllerDefinition(
+                "fake", new FakeController(), methodDefinition), interceptors);
+        stageTimer.end(Stage.EXECUTE);
+        monitor.servletServiceTimed("fake", stageTimer);
+
+        TraceSpan execute = span(monitor.getTraces().getTraces().get(0).getRoot(), "execute");
+        assertEquals(1, execute.getChildren().size());
+        TraceSpan outer = span(execute, "interceptor");
+        assertEquals(OuterInterceptor.class.getName(), outer.getDetail());
+        assertEquals(1, outer.getChildren().size());
+        TraceSpan inner = span(outer, "interceptor");
+        assertEquals(InnerInterceptor.class.getName(), inner.getDetail());
+        assertEquals(1, inner.getChildren().size());
+        assertEquals("sayHello(foobar)", span(inner, "action").getDetail());
+        assertTrue(span(inner, "action").getChildren().isEmpty());
+    }
+
+    private TraceSpan span(TraceSpan parent, String name) {
+        for (TraceSpan child : parent.getChildren()) {
+            if (child.getName().equals(name)) {
+                return child;
+            }
+        }
+        throw new AssertionError("No span " + name + " in " + parent);
+    }
+
+    private static class OuterInterceptor implements MethodInterceptor {
+        public boolean accept(Method method) {
+            return true;
+        }
+
+        public Object intercept(ControllerDefinition controllerDefinition, Method method, InterceptorChain chain,
+                Object... arguments) throws IllegalAccessException, InvocationTargetException {
+            return chain.proceed(controllerDefinition, method, arguments);
+        }
+    }
+
+    private static class InnerInterceptor extends OuterInterceptor {
+    }
+
+}
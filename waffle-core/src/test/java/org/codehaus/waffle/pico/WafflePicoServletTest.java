@@ -49,6 +49,7 @@ import org.codehaus.waffle.i18n.MessageResources;
 import org.codehaus.waffle.monitor.ServletMonitor;
 import org.codehaus.waffle.monitor.SilentMonitor;
 import org.codehaus.waffle.monitor.ValidationMonitor;
+import org.codehaus.waffle.servlet.StageTimer;
 import org.codehaus.waffle.validation.ErrorMessage;
 import org.codehaus.waffle.validation.ErrorsContext;
 import org.codehaus.waffle.validation.Validator;
@@ -444,7 +445,12 @@ public class WafflePicoServletTest {
         mockery.checking(new Expectations() {
             {
                 allowing(servletMonitor).servletServiceFailed(with(any(WaffleException.class)));
+                allowing(servletMonitor).isEnabled("servletServiceRequested");
+                will(returnValue(true));
                 allowing(servletMonitor).servletServiceRequested(with(any(Map.class)));
+                allowing(servletMonitor).isEnabled("servletServiceTimed");
+                will(returnValue(true));
+                one(servletMonitor).servletServiceTimed(with(aNull(String.class)), with(any(StageTimer.class)));
             }
         });
 
@@ -690,8 +696,12 @@ public class WafflePicoServletTest {
         final ServletMonitor servletMonitor = mockery.mock(ServletMonitor.class);
         mockery.checking(new Expectations() {
             {
+                allowing(servletMonitor).isEnabled("servletServiceRequested");
+                will(returnValue(true));
                 allowing(servletMonitor).servletServiceRequested(with(any(Map.class)));
                 allowing(servletMonitor).actionMethodInvocationFailed(actionMethodInvocationException);
+                allowing(servletMonitor).isEnabled("servletServiceTimed");
+                will(returnValue(false));
             }
         });
 
@@ -0,0 +1,38 @@
+package org.codehaus.waffle.servlet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.codehaus.waffle.servlet.StageTimer.Stage;
+import org.junit.Test;
+
+public class StageTimerTest {
+
+    @Test
+    public void canTimeStagesFromEndOfPreviousStage() {
+        StageTimer timer = new StageTimer();
+        timer.reset(1000);
+        timer.end(Stage.CONTROLLER, 1500);
+        timer.end(Stage.BIND, 1251500);
+        timer.end(Stage.EXECUTE, 13251500);
+
+        assertEquals(500, timer.getDuration(Stage.CONTROLLER));
+        assertEquals(1250000, timer.getDuration(Stage.BIND));
+        assertEquals(0, timer.getDuration(Stage.VALIDATE));
+        assertEquals(12000000, timer.getDuration(Stage.EXECUTE));
+        assertEquals(13250500, timer.getTotal());
+        assertEquals("controller;dur=0.000, bind;dur=1.250, execute;dur=12.000", timer.toServerTiming());
+        assertEquals("controller=0.000ms, bind=1.250ms, validate=0.000ms, execute=12.000ms, viewBind=0.000ms, "
+                + "handle=0.000ms, total=13.250ms", timer.toString());
+    }
+
+    @Test
+    public void canReuseTimerOfCurrentThread() {
+        StageTimer timer = StageTimer.start();
+        timer.end(Stage.HANDLE);
+        assertSame(timer, StageTimer.start());
+        assertEquals(0, timer.getDuration(Stage.HANDLE));
+        assertEquals("", timer.toServerTiming());
+    }
+
+}
@@ -12,6 +12,7 @@ import javax.servlet.http.HttpServletResponse;
 import org.codehaus.waffle.WaffleException;
 import org.codehaus.waffle.action.ActionMethodResponse;
 import org.codehaus.waffle.action.MethodDefinition;
+import org.codehaus.waffle.action.intercept.MethodInterceptor;
 import org.codehaus.waffle.action.HierarchicalArgumentResolver.Scope;
 import org.codehaus.waffle.bind.ValueConverter;
 import org.codehaus.waffle.controller.ControllerDefinition;
@@ -23,6 +24,7 @@ import org.codehaus.waffle.monitor.ServletMonitor;
 import org.codehaus.waffle.monitor.ValidationMonitor;
 import org.codehaus.waffle.monitor.ViewMonitor;
 import org.codehaus.waffle.monitor.Monitor;
+import org.codehaus.waffle.servlet.StageTimer;
 import org.codehaus.waffle.validation.BindErrorMessage;
 import org.codehaus.waffle.view.RedirectView;
 import org.codehaus.waffle.view.ResponderView;
@@ -31,12 +33,22 @@ import org.codehaus.waffle.view.View;
 public class StubMonitor implements ActionMonitor, BindMonitor, ContextMonitor, ControllerMonitor,
         ServletMonitor, ValidationMonitor, ViewMonitor, Monitor {
 
+    public boolean isEnabled(String event) {
+        return false;
+    }
+
     public void defaultActionMethodFound(MethodDefinition methodDefinition) {
     }
 
     public void defaultActionMethodCached(Class<?> controllerType, MethodDefinition methodDefinition) {
     }
 
+    public void actionMethodInvokerNotGenerated(Method method, Exception cause) {
+    }
+
+    public void actionMethodTimed(String controllerName, Method method, long duration, boolean failed) {
+    }
+
     public void pragmaticActionMethodFound(MethodDefinition methodDefinition) {
     }
 
@@ -55,6 +67,9 @@ public class StubMonitor implements ActionMonitor, BindMonitor, ContextMonitor,
     public void methodIntercepted(Method method, Object[] arguments, Object returnValue) {
     }
 
+    public void methodInterceptorTimed(MethodInterceptor methodInterceptor, Method method, long duration) {
+    }
+
     public void argumentNameNotMatched(String name, String pattern) {
     }
 
@@ -79,6 +94,9 @@ public class StubMonitor implements ActionMonitor, BindMonitor, ContextMonitor,
     public void controllerValueBound(String name, Object value, Object controller) {
     }
 
+    public void controllerValueSkipped(String name, Object controller) {
+    }
+
     public void genericParameterTypeFound(Type type, Method method) {
     }
 
@@ -121,6 +139,9 @@ public class StubMonitor implements ActionMonitor, BindMonitor, ContextMonitor,
     public void servletServiceRequested(Map<String, List<String>> parameters) {
     }
 
+    public void servletServiceTimed(String controllerName, StageTimer stageTimer) {
+    }
+
     public void controllerValidatorNotFound(String controllerValidatorName, String controllerName) {
     }
 
@@ -3,6 +3,13 @@ package org.codehaus.waffle.view;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.codehaus.waffle.action.ActionMethodInvoker;
+import org.codehaus.waffle.action.ActionMethodInvokerFactory;
+import org.codehaus.waffle.action.ReflectiveActionMethodInvokerFactory;
 import org.codehaus.waffle.testmodel.FakeBean;
 import org.junit.Test;
 
@@ -38,4 +45,47 @@ public class BeanPropertyConverterTest {
         assertEquals(expected, xml);
     }
 
+    @Test
+    public void canMarshallWithReadMethodsInvokersCreatedOncePerClass() {
+        final List<Method> methods = new ArrayList<Method>();
+        ActionMethodInvokerFactory invokerFactory = new ReflectiveActionMethodInvokerFactory() {
+            public ActionMethodInvoker invokerFor(Method method) {
+                methods.add(method);
+                return super.invokerFor(method);
+            }
+        };
+        XStream xstream = new XStream();
+        xstream.registerConverter(new BeanPropertyConverter(invokerFactory), -19);
+
+        List<FakeBean> beans = new ArrayList<FakeBean>();
+        for (int i = 0; i < 3; i++) {
+            FakeBean fakeBean = new FakeBean();
+            fakeBean.setCount(i);
+            beans.add(fakeBean);
+        }
+        String xml = xstream.toXML(beans);
+
+        assertTrue(xml.contains("<count>2</count>"));
+        assertEquals(2, methods.size());
+    }
+
+    @Test
+    public void canMarshallBeansWithWriteOnlyProperties() {
+        XStream xstream = new XStream();
+        xstream.registerConverter(new BeanPropertyConverter(), -19);
+        xstream.alias("bean", BeanWithWriteOnlyProperty.class);
+
+        assertEquals("<bean>\n  <name>foo</name>\n</bean>", xstream.toXML(new BeanWithWriteOnlyProperty()));
+    }
+
+    public static class BeanWithWriteOnlyProperty {
+
+        public String getName() {
+            return "foo";
+        }
+
+        public void setSecret(String secret) {
+        }
+    }
+
 }
@@ -3,10 +3,27 @@ package org.codehaus.waffle.view;
 import static java.text.MessageFormat.format;
 import static org.codehaus.waffle.view.DefaultViewDispatcher.ATTACHMENT_FILENAME;
 import static org.codehaus.waffle.view.DefaultViewDispatcher.CONTENT_DISPOSITION_HEADER;
+import static org.codehaus.waffle.view.DefaultViewDispatcher.ACCEPT_HEADER;
+import static org.codehaus.waffle.view.DefaultViewDispatcher.ACCEPT_RANGES_HEADER;
+import static org.codehaus.waffle.view.DefaultViewDispatcher.CONTENT_LENGTH_HEADER;
+import static org.codehaus.waffle.view.DefaultViewDispatcher.CONTENT_RANGE_HEADER;
+import static org.codehaus.waffle.view.DefaultViewDispatcher.IF_RANGE_HEADER;
+import static org.codehaus.waffle.view.DefaultViewDispatcher.LAST_MODIFIED_HEADER;
 import static org.codehaus.waffle.view.DefaultViewDispatcher.LOCATION_HEADER;
+import static org.codehaus.waffle.view.DefaultViewDispatcher.RANGE_HEADER;
+import static org.codehaus.waffle.view.DefaultViewDispatcher.VARY_HEADER;
+import static org.codehaus.waffle.view.DefaultViewDispatcher.qualityOf;
+import static org.codehaus.waffle.view.DefaultViewDispatcher.rangeOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.Arrays;
 
 import javax.servlet.RequestDispatcher;
 import javax.servlet.ServletException;
@@ -15,6 +32,7 @@ import javax.servlet.ServletRequest;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.codehaus.waffle.Constants;
 import org.codehaus.waffle.monitor.SilentMonitor;
 import org.jmock.Expectations;
 import org.jmock.Mockery;
@@ -45,6 +63,10 @@ public class DefaultViewDispatcherTest {
         mockery.checking(new Expectations() {{
             one(mockResponse).setContentType(contentType);
             one(mockResponse).setHeader(CONTENT_DISPOSITION_HEADER, format(ATTACHMENT_FILENAME,filename));
+            one(mockResponse).setHeader(ACCEPT_RANGES_HEADER, "bytes");
+            one(mockRequest).getHeader(RANGE_HEADER);
+            will(returnValue(null));
+            one(mockResponse).setHeader(CONTENT_LENGTH_HEADER, "5");
             one(mockResponse).getOutputStream();
             will(returnValue(mockOutputStream()));
         }});
@@ -53,6 +75,116 @@ public class DefaultViewDispatcherTest {
         viewDispatcher.dispatch(mockRequest, mockResponse, view);
     }
 
+    @Test
+    public void canDispatchRangeOfFileExportView() throws IOException, ServletException {
+        final File file = File.createTempFile("export", ".csv");
+        file.deleteOnExit();
+        FileOutputStream outputStream = new FileOutputStream(file);
+        outputStream.write("1,2,3,4,5".getBytes());
+        outputStream.close();
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+        mockery.checking(new Expectations() {{
+            one(mockResponse).setContentType("text/csv");
+            one(mockResponse).setHeader(CONTENT_DISPOSITION_HEADER, format(ATTACHMENT_FILENAME, "export.csv"));
+            one(mockResponse).setHeader(ACCEPT_RANGES_HEADER, "bytes");
+            one(mockResponse).setDateHeader(LAST_MODIFIED_HEADER, file.lastModified());
+            allowing(mockRequest).getHeader(RANGE_HEADER);
+            will(returnValue("bytes=2-"));
+            allowing(mockRequest).getHeader(IF_RANGE_HEADER);
+            will(returnValue("date"));
+            one(mockRequest).getDateHeader(IF_RANGE_HEADER);
+            will(returnValue(file.lastModified()));
+            one(mockResponse).setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            one(mockResponse).setHeader(CONTENT_RANGE_HEADER, "bytes 2-8/9");
+            one(mockResponse).setHeader(CONTENT_LENGTH_HEADER, "7");
+            one(mockResponse).getOutputStream();
+            will(returnValue(mockOutputStream(content)));
+        }});
+
+        DefaultViewDispatcher viewDispatcher = new DefaultViewDispatcher(null, new SilentMonitor());
+        viewDispatcher.dispatch(mockRequest, mockResponse, ExportView.ofFile("text/csv", file, "export.csv"));
+        assertEquals("2,3,4,5", content.toString());
+    }
+
+    @Test
+    public void canDispatchWholeExportViewIfRangeDoesNotMatch() throws IOException, ServletException {
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+        mockery.checking(new Expectations() {{
+            one(mockResponse).setContentType("text/csv");
+            one(mockResponse).setHeader(CONTENT_DISPOSITION_HEADER, format(ATTACHMENT_FILENAME, "export.csv"));
+            one(mockResponse).setHeader(ACCEPT_RANGES_HEADER, "bytes");
+            allowing(mockRequest).getHeader(RANGE_HEADER);
+            will(returnValue("bytes=2-"));
+            allowing(mockRequest).getHeader(IF_RANGE_HEADER);
+            will(returnValue("\"etag\""));
+            one(mockResponse).setHeader(CONTENT_LENGTH_HEADER, "5");
+            one(mockResponse).getOutputStream();
+            will(returnValue(mockOutputStream(content)));
+        }});
+
+        ExportView view = ExportView.ofStream("text/csv", new ByteArrayInputStream("1,2,3".getBytes()), 5,
+                "export.csv");
+        DefaultViewDispatcher viewDispatcher = new DefaultViewDispatcher(null, new SilentMonitor());
+        viewDispatcher.dispatch(mockRequest, mockResponse, view);
+        assertEquals("1,2,3", content.toString());
+    }
+
+    @Test
+    public void canDispatchExportViewOfUnknownLength() throws IOException, ServletException {
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+        mockery.checking(new Expectations() {{
+            one(mockResponse).setContentType("text/csv");
+            one(mockResponse).setHeader(CONTENT_DISPOSITION_HEADER, format(ATTACHMENT_FILENAME, "export.csv"));
+            one(mockResponse).getOutputStream();
+            will(returnValue(mockOutputStream(content)));
+        }});
+
+        byte[] bytes = new byte[20000];
+        Arrays.fill(bytes, (byte) 'a');
+        ExportView view = ExportView.ofStream("text/csv", new ByteArrayInputStream(bytes), -1, "export.csv");
+        DefaultViewDispatcher viewDispatcher = new DefaultViewDispatcher(null, new SilentMonitor());
+        viewDispatcher.dispatch(mockRequest, mockResponse, view);
+        assertEquals(new String(bytes), content.toString());
+    }
+
+    @Test
+    public void canParseByteRanges() {
+        assertEquals("[0, 9]", Arrays.toString(rangeOf("bytes=0-9", 100)));
+        assertEquals("[90, 99]", Arrays.toString(rangeOf("bytes=90-", 100)));
+        assertEquals("[50, 99]", Arrays.toString(rangeOf("bytes=50-200", 100)));
+        assertEquals("[80, 99]", Arrays.toString(rangeOf("bytes=-20", 100)));
+        assertEquals("[0, 99]", Arrays.toString(rangeOf("bytes=-200", 100)));
+        assertEquals("[]", Arrays.toString(rangeOf("bytes=100-", 100)));
+        assertNull(rangeOf("bytes=0-1,5-6", 100));
+        assertNull(rangeOf("bytes=5-1", 100));
+        assertNull(rangeOf("items=0-1", 100));
+        assertNull(rangeOf("bytes=a-", 100));
+        assertEquals("[]", Arrays.toString(rangeOf("bytes=-20", 0)));
+        assertEquals("[]", Arrays.toString(rangeOf("bytes=0-", 0)));
+    }
+
+    @Test
+    public void canRefuseRangesOfEmptyExportView() throws IOException, ServletException {
+        mockery.checking(new Expectations() {{
+            one(mockResponse).setContentType("text/csv");
+            one(mockResponse).setHeader(CONTENT_DISPOSITION_HEADER, format(ATTACHMENT_FILENAME, "export.csv"));
+            one(mockResponse).setHeader(ACCEPT_RANGES_HEADER, "bytes");
+            allowing(mockRequest).getHeader(RANGE_HEADER);
+            will(returnValue("bytes=-20"));
+            allowing(mockRequest).getHeader(IF_RANGE_HEADER);
+            will(returnValue(null));
+            one(mockResponse).setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            one(mockResponse).setHeader(CONTENT_RANGE_HEADER, "bytes */0");
+        }});
+
+        ExportView view = ExportView.ofStream("text/csv", new ByteArrayInputStream(new byte[0]), 0, "export.csv");
+        DefaultViewDispatcher viewDispatcher = new DefaultViewDispatcher(null, new SilentMonitor());
+        viewDispatcher.dispatch(mockRequest, mockResponse, view);
+    }
+
     @Test
     public void canDispatchViewOfTypeResponder() throws IOException, ServletException {
         SomeResponderView view = new SomeResponderView();
@@ -64,6 +196,97 @@ public class DefaultViewDispatcherTest {
         assertTrue(view.isResponded());
     }
     
+    @Test
+    public void canRespondWithJsonIfPreferredToXml() throws IOException, ServletException {
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        mockery.checking(new Expectations() {{
+            one(mockResponse).addHeader(VARY_HEADER, ACCEPT_HEADER);
+            one(mockRequest).getHeader(ACCEPT_HEADER);
+            will(returnValue("text/xml;q=0.9, application/json"));
+            one(mockRequest).getAttribute(Constants.CONTROLLER_KEY);
+            will(returnValue(new String[] { "foo" }));
+            one(mockResponse).setCharacterEncoding("UTF-8");
+            one(mockResponse).setContentType(JsonView.CONTENT_TYPE);
+            one(mockResponse).getOutputStream();
+            will(returnValue(mockOutputStream(content)));
+        }});
+
+        DefaultViewDispatcher viewDispatcher = new DefaultViewDispatcher(null, new SilentMonitor());
+        viewDispatcher.dispatch(mockRequest, mockResponse, new XMLView());
+        assertEquals("[\"foo\"]", content.toString("UTF-8"));
+    }
+
+    @Test
+    public void canRespondWithXmlIfNoFormatIsPreferred() throws IOException, ServletException {
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        mockery.checking(new Expectations() {{
+            one(mockResponse).addHeader(VARY_HEADER, ACCEPT_HEADER);
+            one(mockRequest).getHeader(ACCEPT_HEADER);
+            will(returnValue("*/*"));
+            one(mockRequest).getAttribute(Constants.CONTROLLER_KEY);
+            will(returnValue(new String[] { "foo" }));
+            one(mockResponse).setCharacterEncoding("ISO-8859-1");
+            one(mockResponse).setContentType(XMLView.CONTENT_TYPE);
+            one(mockResponse).getOutputStream();
+            will(returnValue(mockOutputStream(content)));
+        }});
+
+        DefaultViewDispatcher viewDispatcher = new DefaultViewDispatcher(null, new SilentMonitor());
+        viewDispatcher.dispatch(mockRequest, mockResponse, new XMLView());
+        assertEquals("<string-array>\n  <string>foo</string>\n</string-array>", content.toString("ISO-8859-1"));
+    }
+
+    @Test
+    public void canRespondWithXmlInEncodingOfJsonViewIfPreferredToJson() throws IOException, ServletException {
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        mockery.checking(new Expectations() {{
+            one(mockResponse).addHeader(VARY_HEADER, ACCEPT_HEADER);
+            one(mockRequest).getHeader(ACCEPT_HEADER);
+            will(returnValue("application/json;Q=0.5, text/xml"));
+            one(mockRequest).getAttribute(Constants.CONTROLLER_KEY);
+            will(returnValue(new String[] { "foo" }));
+            one(mockResponse).setCharacterEncoding("UTF-8");
+            one(mockResponse).setContentType(XMLView.CONTENT_TYPE);
+            one(mockResponse).getOutputStream();
+            will(returnValue(mockOutputStream(content)));
+        }});
+
+        DefaultViewDispatcher viewDispatcher = new DefaultViewDispatcher(null, new SilentMonitor());
+        viewDispatcher.dispatch(mockRequest, mockResponse, new JsonView());
+        assertEquals("<string-array>\n  <string>foo</string>\n</string-array>", content.toString("UTF-8"));
+    }
+
+    @Test
+    public void canKeepEncodingOfXmlViewIfXmlIsPreferred() throws IOException, ServletException {
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        mockery.checking(new Expectations() {{
+            one(mockResponse).addHeader(VARY_HEADER, ACCEPT_HEADER);
+            one(mockRequest).getHeader(ACCEPT_HEADER);
+            will(returnValue("application/json;Q=0.5, text/xml"));
+            one(mockRequest).getAttribute(Constants.CONTROLLER_KEY);
+            will(returnValue(new String[] { "foo" }));
+            one(mockResponse).setCharacterEncoding("UTF-16");
+            one(mockResponse).setContentType(XMLView.CONTENT_TYPE);
+            one(mockResponse).getOutputStream();
+            will(returnValue(mockOutputStream(content)));
+        }});
+
+        DefaultViewDispatcher viewDispatcher = new DefaultViewDispatcher(null, new SilentMonitor());
+        viewDispatcher.dispatch(mockRequest, mockResponse, new XMLView("UTF-16"));
+        assertEquals("<string-array>\n  <string>foo</string>\n</string-array>", content.toString("UTF-16"));
+    }
+
+    @Test
+    public void canResolveQualityOfMediaTypes() {
+        String[] types = { "text/xml", "application/xml" };
+        assertEquals(1f, qualityOf("text/html, Text/XML", types), 0);
+        assertEquals(0.8f, qualityOf("text/xml; q=0.5, application/xml;level=1;q=0.8", types), 0);
+        assertEquals(0f, qualityOf("*/*, text/*, application/json", types), 0);
+        assertEquals(0f, qualityOf("text/xml;q=invalid", types), 0);
+        assertEquals(0.5f, qualityOf("text/xml; Q = 0.5", types), 0);
+        assertEquals(0.5f, qualityOf("text/xml;Level=1;Q=0.5", types), 0);
+    }
+
     @Test
     public void canDispatchRedirectView() throws IOException, ServletException {
         RedirectView redirectView = new RedirectView(PATH);
@@ -113,6 +336,15 @@ public class DefaultViewDispatcherTest {
         return mockery.mock(HttpServletResponse.class);
     }
 
+    private ServletOutputStream mockOutputStream(final ByteArrayOutputStream content) {
+        return new ServletOutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                content.write(b);
+            }
+        };
+    }
+
     private ServletOutputStream mockOutputStream() throws IOException {
        return new ServletOutputStream(){
 
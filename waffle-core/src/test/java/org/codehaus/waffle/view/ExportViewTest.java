@@ -3,6 +3,9 @@ package org.codehaus.waffle.view;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
 import org.junit.Test;
 
 /**
@@ -23,4 +26,13 @@ public class ExportViewTest {
         assertNull(view.getPath());
     }
 
+    @Test
+    public void canCreateStreamedExportView() throws IOException {
+        ExportView view = ExportView.ofStream("text/csv", new ByteArrayInputStream("1,2,3".getBytes()), 5,
+                "export.csv");
+        assertNull(view.getContent());
+        assertEquals(5, view.getExportContent().length());
+        assertEquals("text/csv", view.getContentType());
+    }
+
 }
@@ -0,0 +1,135 @@
+package org.codehaus.waffle.view;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.codehaus.waffle.Constants;
+import org.codehaus.waffle.monitor.Monitor.Level;
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.integration.junit4.JMock;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(JMock.class)
+public class JsonViewTest {
+    private Mockery mockery = new Mockery();
+    private HttpServletRequest mockRequest = mockery.mock(HttpServletRequest.class);
+    private HttpServletResponse mockResponse = mockery.mock(HttpServletResponse.class);
+    private MockServletOutputStream mockOutput = new MockServletOutputStream();
+
+    @Test
+    public void canRenderControllerAsJson() throws IOException {
+        buildExpectations();
+        mockery.checking(new Expectations() {
+            {
+                one(mockRequest).getAttribute(Constants.CONTROLLER_KEY);
+                will(returnValue(new Person("Caf\u00e9 \"Bar\"\n", 42)));
+            }
+        });
+
+        new JsonView().respond(mockRequest, mockResponse);
+        assertEquals("{\"age\":42,\"friends\":[],\"level\":\"INFO\",\"name\":\"Caf\u00e9 \\\"Bar\\\"\\n\"," +
+                "\"scores\":[1.5,null],\"tags\":{\"a\":true}}", mockOutput.getContent());
+    }
+
+    @Test
+    public void canRenderValue() throws IOException {
+        buildExpectations();
+
+        List<Object> values = new ArrayList<Object>();
+        values.add(null);
+        values.add(new int[] { 1, 2 });
+        values.add(new Date(1000));
+        values.add('\u0001');
+        values.add(Thread.State.NEW);
+        new JsonView(values).respond(mockRequest, mockResponse);
+        assertEquals("[null,[1,2],1000,\"\\u0001\",\"NEW\"]", mockOutput.getContent());
+    }
+
+    @Test
+    public void canRenderCyclicReferencesAsNull() throws IOException {
+        buildExpectations();
+
+        Person person = new Person("Tom", 7);
+        person.getFriends().add(person);
+        new JsonView(asList(person, person)).respond(mockRequest, mockResponse);
+        String expected = "{\"age\":7,\"friends\":[null],\"level\":\"INFO\",\"name\":\"Tom\",\"scores\":[1.5,null],"
+                + "\"tags\":{\"a\":true}}";
+        assertEquals("[" + expected + "," + expected + "]", mockOutput.getContent());
+    }
+
+    private void buildExpectations() throws IOException {
+        mockery.checking(new Expectations() {
+            {
+                one(mockResponse).setCharacterEncoding("UTF-8");
+                one(mockResponse).setContentType(JsonView.CONTENT_TYPE);
+                one(mockResponse).getOutputStream();
+                will(returnValue(mockOutput));
+            }
+        });
+    }
+
+    class MockServletOutputStream extends ServletOutputStream {
+        private ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+        public void write(int b) {
+            content.write(b);
+        }
+
+        public String getContent() throws UnsupportedEncodingException {
+            return content.toString("UTF-8");
+        }
+    }
+
+    public static class Person {
+        private final String name;
+        private final int age;
+        private final List<Person> friends = new ArrayList<Person>();
+
+        public Person(String name, int age) {
+            this.name = name;
+            this.age = age;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public Level getLevel() {
+            return Level.INFO;
+        }
+
+        public List<Person> getFriends() {
+            return friends;
+        }
+
+        public double[] getScores() {
+            return new double[] { 1.5, Double.NaN };
+        }
+
+        public Map<String, Boolean> getTags() {
+            Map<String, Boolean> tags = new LinkedHashMap<String, Boolean>();
+            tags.put("a", true);
+            return tags;
+        }
+    }
+
+}
@@ -3,7 +3,9 @@ package org.codehaus.waffle.view;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.UnsupportedEncodingException;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -92,12 +94,25 @@ public class XMLViewTest {
         assertEquals(expected, mockOutput.getContent());
     }
 
+    @Test
+    public void canWriteInConfiguredEncoding() throws IOException {
+        final BeanWithText object = new BeanWithText();
+        buildExpectationsFor(object, "UTF-8");
+
+        new XMLView("UTF-8").respond(mockRequest, mockResponse);
+        assertEquals("<BeanWithText>\n  <text>caf\u00e9 \u20ac</text>\n</BeanWithText>", mockOutput.getContent("UTF-8"));
+    }
+
     private void buildExpectationsFor(final Object object) throws IOException {
+        buildExpectationsFor(object, "ISO-8859-1");
+    }
+
+    private void buildExpectationsFor(final Object object, final String encoding) throws IOException {
         Expectations expectations = new Expectations() {
             {
                 one(mockRequest).getAttribute(Constants.CONTROLLER_KEY);
                 will(returnValue(object));
-                one(mockResponse).setCharacterEncoding(with(any(String.class)));
+                one(mockResponse).setCharacterEncoding(encoding);
                 one(mockResponse).setContentType(with(any(String.class)));
                 one(mockResponse).getOutputStream();
                 will(returnValue(mockOutput));
@@ -116,19 +131,18 @@ public class XMLViewTest {
 
     // JMock 2 is not able to mock concrete classes yet
     class MockServletOutputStream extends ServletOutputStream {
-        private String content;
+        private ByteArrayOutputStream content = new ByteArrayOutputStream();
 
         public void write(int b) {
-
+            content.write(b);
         }
 
-        @Override
-        public void print(String s) {
-            this.content = s;
+        public String getContent() throws UnsupportedEncodingException {
+            return getContent("ISO-8859-1");
         }
 
-        public String getContent() {
-            return content;
+        public String getContent(String encoding) throws UnsupportedEncodingException {
+            return content.toString(encoding);
         }
     }
 
@@ -197,6 +211,14 @@ class MyObject {
 
 }
 
+class BeanWithText {
+
+    public String getText() {
+        return "caf\u00e9 \u20ac";
+    }
+
+}
+
 class BeanWithCollection {
 
     private Map<Object, Object> map = new HashMap<Object, Object>();
@@ -210,4 +232,4 @@ class BeanWithCollection {
         return map.values();
     }
 
-}
\ No newline at end of file
+}
\ No newline at end of file